@@ -0,0 +1,146 @@
+package flight.tracker.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import flight.tracker.FlightTrackerApplication;
+import flight.tracker.dao.AirlineDao;
+import flight.tracker.dao.SeatAssignmentDao;
+import flight.tracker.entity.Airline;
+import flight.tracker.entity.Flight;
+import flight.tracker.service.FlightTrackerService;
+
+/**
+ * Deleting a large airline: the chunked, set-based deleteAirlineById against
+ * the cascade through Airline.flights it replaced, which loads every flight
+ * and its passengers and deletes row by row. Before each delete the airline
+ * is seeded with JDBC batches, fresh ids each time. The cascade takes minutes
+ * at the default size; compare at a smaller one with -p flightCount=10000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class AirlineDeleteBenchmark {
+
+    private static final long ID_RANGE = 10_000_000L;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({ "100000" })
+    private int flightCount;
+
+    @Param({ "2" })
+    private int passengersPerFlight;
+
+    private ConfigurableApplicationContext context;
+    private FlightTrackerService flightTrackerService;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private AirlineDao airlineDao;
+    private SeatAssignmentDao seatAssignmentDao;
+    private long seed;
+    private Long airlineCode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command line arguments, which override application.yaml.
+        context = new SpringApplicationBuilder(FlightTrackerApplication.class).web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:airline-delete;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa", "--spring.datasource.password=",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///airline-delete;DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa", "--spring.r2dbc.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop", "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        flightTrackerService = context.getBean(FlightTrackerService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        airlineDao = context.getBean(AirlineDao.class);
+        seatAssignmentDao = context.getBean(SeatAssignmentDao.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Seeds an airline with its flights and passengers, above the ids the
+     * application hands out
+     */
+    @Setup(Level.Invocation)
+    public void seedAirline() {
+        seed++;
+        airlineCode = seed * ID_RANGE;
+        jdbcTemplate.update("insert into airline (airline_code, airline_name) values (?, ?)", airlineCode,
+                "Benchmark Air " + seed);
+
+        List<Object[]> flights = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> passengers = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> flightPassengers = new ArrayList<>(BATCH_SIZE);
+        LocalDateTime departure = LocalDateTime.of(2023, 8, 1, 10, 0);
+
+        for (int i = 1; i <= flightCount; i++) {
+            long flightNumber = airlineCode + i;
+            flights.add(new Object[] { flightNumber, airlineCode,
+                    Timestamp.valueOf(departure.plusMinutes(i)) });
+
+            for (int p = 0; p < passengersPerFlight; p++) {
+                long passengerId = airlineCode + (long) i * passengersPerFlight + p;
+                passengers.add(new Object[] { passengerId, "First" + passengerId, "Last" + passengerId });
+                flightPassengers.add(new Object[] { flightNumber, passengerId });
+            }
+
+            if (flights.size() == BATCH_SIZE || i == flightCount) {
+                jdbcTemplate.batchUpdate("insert into flight (flight_number, airline_code, departure, version)"
+                        + " values (?, ?, ?, 0)", flights);
+                jdbcTemplate.batchUpdate("insert into passenger (passenger_id, passenger_first_name,"
+                        + " passenger_last_name, version) values (?, ?, ?, 0)", passengers);
+                jdbcTemplate.batchUpdate("insert into flight_passenger (flight_number, passenger_id)"
+                        + " values (?, ?)", flightPassengers);
+                flights.clear();
+                passengers.clear();
+                flightPassengers.clear();
+            }
+        }
+    }
+
+    @Benchmark
+    public void chunkedDelete() {
+        flightTrackerService.deleteAirlineById(airlineCode);
+    }
+
+    @Benchmark
+    public void cascadeDelete() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Airline airline = airlineDao.findById(airlineCode).orElseThrow();
+            List<Long> flightNumbers = airline.getFlights().stream().map(Flight::getFlightNumber).toList();
+            seatAssignmentDao.deleteByFlightNumberIn(flightNumbers);
+            airlineDao.delete(airline);
+        });
+    }
+
+}
@@ -0,0 +1,81 @@
+package flight.tracker.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.entity.Airline;
+import flight.tracker.entity.Flight;
+import flight.tracker.entity.Passenger;
+
+/**
+ * Test data shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Detached flight with the given number of passengers, ids set as if loaded
+     *
+     * @param passengerCount
+     * @return flight
+     */
+    static Flight flight(int passengerCount) {
+        Airline airline = new Airline();
+        airline.setAirlineCode(1L);
+        airline.setAirlineName("Benchmark Air");
+
+        Flight flight = new Flight();
+        flight.setFlightNumber(1L);
+        flight.setAirline(airline);
+        flight.setDeparture(LocalDateTime.of(2023, 8, 1, 10, 0));
+        flight.setArrival(LocalDateTime.of(2023, 8, 1, 13, 30));
+
+        for (int i = 0; i < passengerCount; i++) {
+            flight.getPassengers().add(passenger(i + 1L));
+        }
+
+        return flight;
+    }
+
+    /**
+     * Detached passenger with the given id
+     *
+     * @param passengerId
+     * @return passenger
+     */
+    static Passenger passenger(Long passengerId) {
+        Passenger passenger = new Passenger();
+        passenger.setPassengerId(passengerId);
+        passenger.setPassengerFirstName("First" + passengerId);
+        passenger.setPassengerLastName("Last" + passengerId);
+        passenger.setPassengerEmail("passenger" + passengerId + "@example.com");
+        passenger.setPassengerSeatNumber((passengerId % 999 + 1) + "A");
+        return passenger;
+    }
+
+    /**
+     * New passengers for a manifest, seats are assigned on boarding
+     *
+     * @param count
+     * @param prefix - makes the names unique per manifest
+     * @return passengers
+     */
+    static List<FlightPassenger> manifest(int count, String prefix) {
+        List<FlightPassenger> manifest = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            FlightPassenger passenger = new FlightPassenger();
+            passenger.setPassengerFirstName(prefix + "First" + i);
+            passenger.setPassengerLastName(prefix + "Last" + i);
+            passenger.setPassengerEmail(prefix.toLowerCase() + i + "@example.com");
+            manifest.add(passenger);
+        }
+
+        return manifest;
+    }
+
+}
@@ -0,0 +1,85 @@
+package flight.tracker.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import flight.tracker.entity.Flight;
+import flight.tracker.entity.Passenger;
+
+/**
+ * Lombok hashCode and equals of the entities, which hash every field, on
+ * large HashSet<Passenger> such as Flight.passengers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityHashingBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    private int passengerCount;
+
+    private List<Passenger> passengers;
+    private Set<Passenger> passengerSet;
+    private Flight flight;
+
+    @Setup
+    public void setUp() {
+        passengers = new ArrayList<>(passengerCount);
+
+        for (int i = 0; i < passengerCount; i++) {
+            passengers.add(BenchmarkData.passenger(i + 1L));
+        }
+
+        passengerSet = new HashSet<>(passengers);
+        flight = BenchmarkData.flight(0);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Set<Passenger> buildPassengerSet() {
+        return new HashSet<>(passengers);
+    }
+
+    @Benchmark
+    public boolean containsEqualPassenger() {
+        // An equal copy, as a second load of the same row would give, so equals
+        // compares every field instead of stopping at the same instance.
+        long passengerId = ThreadLocalRandom.current().nextLong(passengerCount) + 1;
+        return passengerSet.contains(BenchmarkData.passenger(passengerId));
+    }
+
+    @Benchmark
+    public boolean containsMissingPassenger() {
+        return passengerSet.contains(BenchmarkData.passenger(passengerCount + 1L));
+    }
+
+    @Benchmark
+    public int passengerHashCode() {
+        return passengers.get(ThreadLocalRandom.current().nextInt(passengerCount)).hashCode();
+    }
+
+    @Benchmark
+    public int flightHashCode() {
+        return flight.hashCode();
+    }
+
+}
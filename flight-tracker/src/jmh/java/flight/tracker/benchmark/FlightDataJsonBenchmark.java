@@ -0,0 +1,62 @@
+package flight.tracker.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import flight.tracker.controller.model.FlightData;
+
+/**
+ * Jackson serialization of FlightData, configured like the application's
+ * ObjectMapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightDataJsonBenchmark {
+
+    @Param({ "0", "10", "100", "1000" })
+    private int passengerCount;
+
+    private FlightData flightData;
+    private ObjectMapper objectMapper;
+    private ObjectWriter flightWriter;
+
+    @Setup
+    public void setUp() {
+        flightData = new FlightData(BenchmarkData.flight(passengerCount));
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        flightWriter = objectMapper.writerFor(FlightData.class);
+    }
+
+    @Benchmark
+    public byte[] serializeWithObjectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(flightData);
+    }
+
+    @Benchmark
+    public byte[] serializeWithFlightWriter() throws JsonProcessingException {
+        return flightWriter.writeValueAsBytes(flightData);
+    }
+
+}
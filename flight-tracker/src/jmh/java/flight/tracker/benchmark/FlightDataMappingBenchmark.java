@@ -0,0 +1,55 @@
+package flight.tracker.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.entity.Flight;
+import flight.tracker.entity.Passenger;
+
+/**
+ * Entity to response mapping, FlightData(Flight) and FlightPassenger(Passenger)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightDataMappingBenchmark {
+
+    @Param({ "0", "10", "100", "1000" })
+    private int passengerCount;
+
+    private Flight flight;
+    private Passenger passenger;
+
+    @Setup
+    public void setUp() {
+        flight = BenchmarkData.flight(passengerCount);
+        passenger = BenchmarkData.passenger(1L);
+    }
+
+    @Benchmark
+    public FlightData mapFlight() {
+        return new FlightData(flight);
+    }
+
+    @Benchmark
+    public FlightPassenger mapPassenger() {
+        return new FlightPassenger(passenger);
+    }
+
+}
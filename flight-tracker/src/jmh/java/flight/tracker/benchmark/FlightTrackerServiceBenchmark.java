@@ -0,0 +1,131 @@
+package flight.tracker.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import flight.tracker.FlightTrackerApplication;
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.controller.model.ManifestResult;
+import flight.tracker.service.FlightTrackerService;
+
+/**
+ * FlightTrackerService reads and writes through the full JPA stack, second
+ * level cache included, against an in-memory H2 database in MySQL mode. Each
+ * fork starts the application without the web server and seeds the flights.
+ * The write benchmarks grow the data they measure against, compare them only
+ * with runs of the same length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightTrackerServiceBenchmark {
+
+    private static final int MANIFEST_SIZE = 100;
+
+    @Param({ "100" })
+    private int flightCount;
+
+    @Param({ "50" })
+    private int passengersPerFlight;
+
+    private ConfigurableApplicationContext context;
+    private FlightTrackerService flightTrackerService;
+    private List<Long> flightNumbers;
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Command line arguments, which override application.yaml.
+        context = new SpringApplicationBuilder(FlightTrackerApplication.class).web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa", "--spring.datasource.password=",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa", "--spring.r2dbc.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop", "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN", "--flight-tracker.seat-map.rows=999",
+                        "--flight-tracker.seat-map.seats-per-row=26");
+        flightTrackerService = context.getBean(FlightTrackerService.class);
+
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName("Benchmark Air");
+        Long airlineCode = flightTrackerService.createAirline(airline).getAirlineCode();
+        flightNumbers = new ArrayList<>(flightCount);
+
+        for (int i = 0; i < flightCount; i++) {
+            FlightData flightData = new FlightData();
+            flightData.setDepartureDate(LocalDate.of(2023, 8, 1).plusDays(i % 30));
+            flightData.setDepartureTime(LocalTime.of(6 + i % 12, 0));
+            Long flightNumber = flightTrackerService.createFlight(flightData, airlineCode).getFlightNumber();
+            flightTrackerService.addPassengerManifest(BenchmarkData.manifest(passengersPerFlight, "Seed" + i),
+                    flightNumber);
+            flightNumbers.add(flightNumber);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<FlightData> retrieveAllFlights() {
+        return flightTrackerService.retrieveAllFlights();
+    }
+
+    @Benchmark
+    public FlightData retrieveFlight() {
+        return flightTrackerService.retrieveFlight(randomFlightNumber());
+    }
+
+    @Benchmark
+    public FlightPassenger addPassenger() {
+        int write = writes.incrementAndGet();
+        FlightPassenger passenger = new FlightPassenger();
+        passenger.setPassengerFirstName("First" + write);
+        passenger.setPassengerLastName("Last" + write);
+
+        // Round robin, so no flight runs out of seats during a run.
+        return flightTrackerService.addPassenger(passenger, flightNumbers.get(write % flightCount));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ManifestResult addPassengerManifest() {
+        int write = writes.incrementAndGet();
+        return flightTrackerService.addPassengerManifest(BenchmarkData.manifest(MANIFEST_SIZE, "Manifest" + write),
+                flightNumbers.get(write % flightCount));
+    }
+
+    private Long randomFlightNumber() {
+        return flightNumbers.get(ThreadLocalRandom.current().nextInt(flightCount));
+    }
+
+}
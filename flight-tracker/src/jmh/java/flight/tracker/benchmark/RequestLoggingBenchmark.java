@@ -0,0 +1,154 @@
+package flight.tracker.benchmark;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Request throughput under the default logging and under the prod profile's.
+ * A request is a fixed amount of work plus what it logs:
+ *
+ * DEFAULT - the controller's INFO line through a synchronous appender and
+ * show-sql printing every statement, like System.out, to a stream flushed per
+ * line
+ *
+ * PROD - the controller line disabled (WARN), no show-sql, and the request log
+ * sampled at 1% as JSON through the asynchronous appender
+ *
+ * Both write to files in target/benchmark-logs, so the terminal isn't measured.
+ * Several threads log at once, as request threads do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RequestLoggingBenchmark {
+
+    public enum Logging {
+        DEFAULT, PROD
+    }
+
+    private static final String STATEMENT = "select f1_0.flight_number,f1_0.airline_code,f1_0.arrival,"
+            + "f1_0.departure,f1_0.version from flight f1_0 where f1_0.flight_number=?";
+    private static final int STATEMENTS_PER_REQUEST = 3;
+    private static final double SAMPLE_RATE = 0.01;
+
+    @Param({ "DEFAULT", "PROD" })
+    private Logging logging;
+
+    @Param({ "2000" })
+    private long requestWork;
+
+    private LoggerContext loggerContext;
+    private Logger controllerLog;
+    private Logger requestLog;
+    private PrintStream showSql;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        File directory = new File("target/benchmark-logs");
+        directory.mkdirs();
+
+        loggerContext = new LoggerContext();
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+        controllerLog = loggerContext.getLogger("flight.tracker.controller.FlightTrackerController");
+        requestLog = loggerContext.getLogger("flight.tracker.request");
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+
+        if (logging == Logging.DEFAULT) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n");
+            root.addAppender(fileAppender(new File(directory, "default.log"), encoder));
+            showSql = new PrintStream(new FileOutputStream(new File(directory, "show-sql.log")), true);
+        } else {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1024);
+            async.setNeverBlock(true);
+            async.addAppender(fileAppender(new File(directory, "prod.log"), new JsonEncoder()));
+            async.start();
+            root.addAppender(async);
+            controllerLog.setLevel(Level.WARN);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+
+        if (showSql != null) {
+            showSql.close();
+        }
+    }
+
+    @Benchmark
+    public void request(Blackhole blackhole) {
+        long start = System.nanoTime();
+        Long flightNumber = ThreadLocalRandom.current().nextLong(1, 10_000);
+
+        controllerLog.info("Retrieving flight with flight number: {}", flightNumber);
+        Blackhole.consumeCPU(requestWork);
+
+        if (showSql != null) {
+            for (int i = 0; i < STATEMENTS_PER_REQUEST; i++) {
+                showSql.println("Hibernate: " + STATEMENT);
+            }
+        }
+
+        if (logging == Logging.PROD && ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE) {
+            requestLog.atInfo().addKeyValue("method", "GET").addKeyValue("path", "/flight/flight/" + flightNumber)
+                    .addKeyValue("status", 200).addKeyValue("durationMs", (System.nanoTime() - start) / 1_000_000)
+                    .addKeyValue("slow", false).log("Request");
+        }
+
+        blackhole.consume(flightNumber);
+    }
+
+    private Appender<ILoggingEvent> fileAppender(File file, Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(loggerContext);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(loggerContext);
+        appender.setFile(file.getPath());
+        appender.setAppend(false);
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+}
@@ -0,0 +1,64 @@
+package flight.tracker.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import flight.tracker.service.SeatMap;
+
+/**
+ * Seat claims on one shared flight from several threads, the contention the
+ * compare-and-set seat map has to handle while a flight is being booked
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SeatMapBenchmark {
+
+    private SeatMap seatMap;
+
+    @Setup
+    public void setUp() {
+        seatMap = new SeatMap(40, 6);
+    }
+
+    @Benchmark
+    public int claimFirstFreeAndRelease() {
+        // Every thread competes for the first free seats, the worst case.
+        int index = seatMap.claimAny();
+
+        if (index >= 0) {
+            seatMap.release(index);
+        }
+
+        return index;
+    }
+
+    @Benchmark
+    public boolean claimRequestedAndRelease() {
+        int index = ThreadLocalRandom.current().nextInt(seatMap.size());
+        boolean claimed = seatMap.claim(index);
+
+        if (claimed) {
+            seatMap.release(index);
+        }
+
+        return claimed;
+    }
+
+}
@@ -0,0 +1,180 @@
+package flight.tracker.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import flight.tracker.config.ReadReplicaProperties.Replica;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.cfg.AvailableSettings;
+
+/***
+ * Declares the JDBC data source and the JPA transaction manager explicitly.
+ * With an R2DBC connection factory present Spring Boot backs off from both:
+ * it assumes an application is either blocking or reactive, while this one
+ * keeps JPA for writes next to the R2DBC read API. Both are configured from
+ * the usual spring.datasource and spring.datasource.hikari properties.
+ * 
+ * Read-only transactions go to the read replicas listed under
+ * flight-tracker.datasource.replicas, see ReadWriteRoutingDataSource.
+ * 
+ */
+@Configuration
+public class JpaDataSourceConfig {
+
+    /**
+     * spring.datasource properties
+     * 
+     * @return data source properties
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * Hikari connection pool of the primary database
+     * 
+     * @param properties
+     * @return primary data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * flight-tracker.datasource properties
+     * 
+     * @return read replica properties
+     */
+    @Bean
+    @ConfigurationProperties("flight-tracker.datasource")
+    public ReadReplicaProperties readReplicaProperties() {
+        return new ReadReplicaProperties();
+    }
+
+    /**
+     * Connection pools of the read replicas, configured like the primary's.
+     * Each pool waits no longer than the health check timeout for a
+     * connection, so reads move on from a replica that is down.
+     * 
+     * @param primaryDataSource
+     * @param replicaProperties
+     * @param meterRegistry
+     * @return replica pool
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaPool replicaPool(HikariDataSource primaryDataSource, ReadReplicaProperties replicaProperties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+
+        for (Replica replica : replicaProperties.getReplicas()) {
+            HikariDataSource replicaDataSource = new HikariDataSource();
+            primaryDataSource.copyStateTo(replicaDataSource);
+            replicaDataSource.setPoolName("replica-" + (replicas.size() + 1));
+            replicaDataSource.setJdbcUrl(replica.getUrl());
+            replicaDataSource.setUsername(Objects.requireNonNullElse(replica.getUsername(),
+                    primaryDataSource.getUsername()));
+            replicaDataSource.setPassword(Objects.requireNonNullElse(replica.getPassword(),
+                    primaryDataSource.getPassword()));
+            replicaDataSource.setReadOnly(true);
+            replicaDataSource.setConnectionTimeout(Math.max(250,
+                    Math.min(primaryDataSource.getConnectionTimeout(),
+                            replicaProperties.getHealthCheckTimeout().toMillis())));
+            meterRegistry.ifAvailable(registry -> replicaDataSource
+                    .setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replicaDataSource);
+        }
+
+        return new ReplicaPool(replicas, replicaProperties.getReplicaSelection(),
+                replicaProperties.getHealthCheckTimeout());
+    }
+
+    /**
+     * The data source JPA and JDBC use: read-only transactions on a replica,
+     * everything else on the primary. Connections are taken on the first
+     * statement, once the transaction is known to be read-only, which also
+     * spares the pool transactions answered from the cache.
+     * 
+     * @param primaryDataSource
+     * @param replicaPool
+     * @return data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaPool));
+    }
+
+    /**
+     * Keeps the reads of a client on the primary for a while after it wrote
+     * 
+     * @param replicaProperties
+     * @return filter
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties replicaProperties) {
+        return new ReadYourWritesFilter(
+                replicaProperties.getReplicas().isEmpty() ? Duration.ZERO : replicaProperties.getReadYourWrites());
+    }
+
+    /**
+     * Turns Hibernate's second level and query caches off when there are read
+     * replicas: entities and query results loaded from a lagging replica would
+     * be served from the cache long after the primary changed them.
+     * 
+     * @param replicaProperties
+     * @return customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaCacheCustomizer(ReadReplicaProperties replicaProperties) {
+        return hibernateProperties -> {
+            if (!replicaProperties.getReplicas().isEmpty()) {
+                hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            }
+        };
+    }
+
+    /**
+     * JPA transaction manager, the one @Transactional and TransactionTemplate
+     * use. Reactive methods pick the R2DBC manager by their return type.
+     * 
+     * @param entityManagerFactory
+     * @param customizers
+     * @return transaction manager
+     */
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+            ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+}
@@ -0,0 +1,34 @@
+package flight.tracker.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/***
+ * Times the classes annotated with @Timed: the services as
+ * flight.tracker.service and the JDBC DAO as flight.tracker.dao, each tagged
+ * with class and method. Spring Boot times the HTTP endpoints
+ * (http.server.requests) and the JpaRepository DAOs
+ * (spring.data.repository.invocations) and binds the Hikari pool and the
+ * Hibernate statistics. The management.metrics settings in application.yaml
+ * turn on the percentile histograms; everything is scraped from
+ * /actuator/prometheus.
+ *
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Aspect recording the @Timed methods
+     *
+     * @param meterRegistry
+     * @return timed aspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+}
@@ -0,0 +1,57 @@
+package flight.tracker.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/***
+ * flight-tracker.datasource properties: the read replicas read-only
+ * transactions are routed to. Without replicas everything runs on the
+ * spring.datasource primary.
+ *
+ */
+@Data
+@NoArgsConstructor
+public class ReadReplicaProperties {
+
+    public enum ReplicaSelection {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private ReplicaSelection replicaSelection = ReplicaSelection.ROUND_ROBIN;
+
+    /**
+     * How often every replica is health checked
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    /**
+     * A replica that can't hand out a valid connection within this time is
+     * taken out of rotation until the next health check
+     */
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long reads of a client stay on the primary after it wrote, longer than
+     * the replica lag. Zero turns read-your-writes off.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(5);
+
+    /**
+     * Connection settings of a replica, username and password default to the
+     * primary's
+     */
+    @Data
+    @NoArgsConstructor
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+}
@@ -0,0 +1,91 @@
+package flight.tracker.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/***
+ * Sends read-only transactions to a healthy replica and everything else to
+ * the primary. Reads fall back to the primary when no replica is healthy,
+ * within {@link #readFromPrimary(Supplier)} and, with read-your-writes, after
+ * the client wrote.
+ *
+ * The transaction has to be known to be read-only when the connection is
+ * taken, so the routing data source sits behind a
+ * LazyConnectionDataSourceProxy: JPA asks for a connection as the transaction
+ * begins, before Spring marks it read-only.
+ *
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final ReplicaPool replicaPool;
+
+    /**
+     * ReadWriteRoutingDataSource constructor
+     *
+     * @param primary
+     * @param replicaPool
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaPool replicaPool) {
+        this.primary = primary;
+        this.replicaPool = replicaPool;
+    }
+
+    /**
+     * Runs reads that must see every committed write, such as a load whose
+     * result is cached beyond the replica lag, on the primary
+     *
+     * @param <T>
+     * @param reads
+     * @return result of the reads
+     */
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        if (PRIMARY_READS.get() != null) {
+            return reads.get();
+        }
+
+        PRIMARY_READS.set(Boolean.TRUE);
+
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return primary.getConnection();
+        }
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWritesFilter.wrote();
+            return primary.getConnection();
+        }
+
+        if (PRIMARY_READS.get() == null && !ReadYourWritesFilter.readsFromPrimary()) {
+            Connection connection = replicaPool.getConnection();
+
+            if (connection != null) {
+                return connection;
+            }
+        }
+
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+}
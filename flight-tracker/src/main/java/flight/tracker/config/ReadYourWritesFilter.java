@@ -0,0 +1,120 @@
+package flight.tracker.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/***
+ * Read-your-writes on top of replica routing. Once a request runs a
+ * read-write transaction, its later reads go to the primary, and the
+ * response carries a cookie that keeps the client's reads on the primary
+ * for the read-your-writes period, longer than the replica lag. Clients that
+ * don't keep cookies still read their writes within a request.
+ *
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String READ_PRIMARY_UNTIL_COOKIE = "flight-tracker-read-primary-until";
+
+    private static final ThreadLocal<RequestState> REQUEST_STATE = new ThreadLocal<>();
+
+    private final Duration readYourWrites;
+
+    /**
+     * ReadYourWritesFilter constructor
+     *
+     * @param readYourWrites - how long reads stay on the primary, zero turns it
+     *                       off
+     */
+    public ReadYourWritesFilter(Duration readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Whether the current request reads from the primary
+     *
+     * @return true after a write of the request or its client
+     */
+    static boolean readsFromPrimary() {
+        RequestState state = REQUEST_STATE.get();
+        return state != null && state.readsFromPrimary;
+    }
+
+    /**
+     * Records a read-write transaction of the current request
+     */
+    static void wrote() {
+        RequestState state = REQUEST_STATE.get();
+
+        if (state != null && !state.cookieSet) {
+            state.readsFromPrimary = true;
+            state.cookieSet = true;
+
+            if (!state.response.isCommitted()) {
+                long until = System.currentTimeMillis() + state.readYourWrites.toMillis();
+                Cookie cookie = new Cookie(READ_PRIMARY_UNTIL_COOKIE, Long.toString(until));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, state.readYourWrites.toSeconds()));
+                state.response.addCookie(cookie);
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        if (readYourWrites.isZero()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestState state = new RequestState(response, readYourWrites);
+        state.readsFromPrimary = readPrimaryUntil(request) > System.currentTimeMillis();
+        REQUEST_STATE.set(state);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            REQUEST_STATE.remove();
+        }
+    }
+
+    private static long readPrimaryUntil(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (READ_PRIMARY_UNTIL_COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    private static class RequestState {
+
+        private final HttpServletResponse response;
+        private final Duration readYourWrites;
+        private boolean readsFromPrimary;
+        private boolean cookieSet;
+
+        RequestState(HttpServletResponse response, Duration readYourWrites) {
+            this.response = response;
+            this.readYourWrites = readYourWrites;
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package flight.tracker.config;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import flight.tracker.config.ReadReplicaProperties.ReplicaSelection;
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * The read replica connection pools. Hands out connections of a healthy
+ * replica, picked round robin or by the fewest active connections. A replica
+ * that fails to hand out a connection leaves the rotation at once; the
+ * scheduled health check takes it back once it answers again.
+ *
+ */
+@Slf4j
+public class ReplicaPool implements Closeable {
+
+    private final List<HikariDataSource> replicas;
+    private final ReplicaSelection replicaSelection;
+    private final int healthCheckTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<HikariDataSource> healthyReplicas;
+
+    /**
+     * ReplicaPool constructor, every replica starts out healthy
+     *
+     * @param replicas           - pools, started on their first connection
+     * @param replicaSelection
+     * @param healthCheckTimeout
+     */
+    public ReplicaPool(List<HikariDataSource> replicas, ReplicaSelection replicaSelection,
+            Duration healthCheckTimeout) {
+        this.replicas = List.copyOf(replicas);
+        this.replicaSelection = replicaSelection;
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+        this.healthyReplicas = this.replicas;
+    }
+
+    /**
+     * Connection of a healthy replica
+     *
+     * @return connection, null if no replica is healthy
+     */
+    public Connection getConnection() {
+        List<HikariDataSource> candidates = healthyReplicas;
+
+        while (!candidates.isEmpty()) {
+            HikariDataSource replica = select(candidates);
+
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markUnhealthy(replica, e);
+                candidates = healthyReplicas;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks every replica and puts the healthy ones in rotation
+     */
+    @Scheduled(fixedDelayString = "${flight-tracker.datasource.health-check-interval:PT10S}")
+    public void checkHealth() {
+        List<HikariDataSource> healthy = new ArrayList<>(replicas.size());
+
+        for (HikariDataSource replica : replicas) {
+            try (Connection connection = replica.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    healthy.add(replica);
+                } else {
+                    log.warn("Replica {} returned an invalid connection", replica.getPoolName());
+                }
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable: {}", replica.getPoolName(), e.getMessage());
+            }
+        }
+
+        synchronized (this) {
+            if (!healthy.equals(healthyReplicas)) {
+                log.info("Replicas in rotation: {} of {}", healthy.size(), replicas.size());
+            }
+
+            healthyReplicas = List.copyOf(healthy);
+        }
+    }
+
+    /**
+     * Number of replicas in rotation
+     *
+     * @return healthy replicas
+     */
+    public int getHealthyReplicaCount() {
+        return healthyReplicas.size();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource select(List<HikariDataSource> candidates) {
+        if (replicaSelection == ReplicaSelection.LEAST_CONNECTIONS) {
+            return candidates.stream().min(Comparator.comparingInt(ReplicaPool::activeConnections)).orElseThrow();
+        }
+
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    private synchronized void markUnhealthy(HikariDataSource replica, SQLException e) {
+        if (healthyReplicas.contains(replica)) {
+            log.warn("Taking replica {} out of rotation: {}", replica.getPoolName(), e.getMessage());
+            healthyReplicas = healthyReplicas.stream().filter(healthy -> healthy != replica).toList();
+        }
+    }
+
+    private static int activeConnections(HikariDataSource replica) {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+}
@@ -0,0 +1,83 @@
+package flight.tracker.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * Request log of the prod profile, replacing the INFO line every controller
+ * method writes. Logs a sample of the requests, plus every failed (5xx) and
+ * slow one, as one event on the flight.tracker.request logger with method,
+ * path, status and duration as key-value pairs, fields of their own in the
+ * JSON output. Long-lived async requests, the change stream and the export,
+ * aren't logged.
+ *
+ */
+@Configuration
+@Profile("prod")
+public class RequestLogConfig {
+
+    /**
+     * Request log filter
+     *
+     * @param sampleRate           - share of the requests logged, 0 to 1
+     * @param slowRequestThreshold - requests taking this long are always logged
+     * @return filter
+     */
+    @Bean
+    public OncePerRequestFilter requestLogFilter(
+            @Value("${flight-tracker.request-log.sample-rate:0.01}") double sampleRate,
+            @Value("${flight-tracker.request-log.slow-request-threshold:PT1S}") Duration slowRequestThreshold) {
+        return new RequestLogFilter(sampleRate, slowRequestThreshold.toNanos());
+    }
+
+    @Slf4j(topic = "flight.tracker.request")
+    static class RequestLogFilter extends OncePerRequestFilter {
+
+        private final double sampleRate;
+        private final long slowRequestNanos;
+
+        RequestLogFilter(double sampleRate, long slowRequestNanos) {
+            this.sampleRate = sampleRate;
+            this.slowRequestNanos = slowRequestNanos;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                FilterChain filterChain) throws ServletException, IOException {
+            long start = System.nanoTime();
+            boolean failed = true;
+
+            try {
+                filterChain.doFilter(request, response);
+                failed = false;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+                boolean slow = nanos >= slowRequestNanos;
+
+                if (!request.isAsyncStarted() && log.isInfoEnabled()
+                        && (status >= 500 || slow || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                    log.atInfo().addKeyValue("method", request.getMethod())
+                            .addKeyValue("path", request.getRequestURI()).addKeyValue("status", status)
+                            .addKeyValue("durationMs", nanos / 1_000_000).addKeyValue("slow", slow)
+                            .log("Request");
+                }
+            }
+        }
+
+    }
+
+}
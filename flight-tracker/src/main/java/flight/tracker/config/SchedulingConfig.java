@@ -0,0 +1,15 @@
+package flight.tracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/***
+ * Enables the @Scheduled maintenance tasks, such as the change log compaction
+ * and retention.
+ *
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
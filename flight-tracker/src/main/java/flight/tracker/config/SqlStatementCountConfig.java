@@ -0,0 +1,165 @@
+package flight.tracker.config;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/***
+ * Development aid, enabled by the dev profile: counts the JDBC statements each
+ * request prepares, JPA and JdbcTemplate alike, and returns the count in the
+ * X-SQL-Statement-Count response header. An N+1 query shows up as a count
+ * growing with the size of the response.
+ *
+ * Only statements prepared on the request thread are counted; work handed to
+ * another thread and the R2DBC reads are not.
+ *
+ */
+@Configuration
+@Profile("dev")
+public class SqlStatementCountConfig {
+
+    public static final String SQL_STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+
+    private static final ThreadLocal<int[]> STATEMENT_COUNT = new ThreadLocal<>();
+
+    /**
+     * Wraps the data source JPA and JDBC use, not the pools behind it, so its
+     * connections count the statements they prepare. Static, so the wrapping
+     * doesn't depend on this configuration being initialized first.
+     *
+     * @return bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return "dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        ? new StatementCountingDataSource(dataSource)
+                        : bean;
+            }
+
+        };
+    }
+
+    /**
+     * Starts a count for every request
+     *
+     * @return filter
+     */
+    @Bean
+    public OncePerRequestFilter sqlStatementCountFilter() {
+        return new OncePerRequestFilter() {
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                    FilterChain filterChain) throws ServletException, IOException {
+                STATEMENT_COUNT.set(new int[1]);
+
+                try {
+                    filterChain.doFilter(request, response);
+
+                    // Responses without a body, a body already sets the header.
+                    if (!response.isCommitted()) {
+                        response.setHeader(SQL_STATEMENT_COUNT_HEADER, String.valueOf(STATEMENT_COUNT.get()[0]));
+                    }
+                } finally {
+                    STATEMENT_COUNT.remove();
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Sets the header before the body is written and the response committed
+     */
+    @ControllerAdvice
+    @Profile("dev")
+    static class SqlStatementCountAdvice implements ResponseBodyAdvice<Object> {
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+                ServerHttpResponse response) {
+            int[] count = STATEMENT_COUNT.get();
+
+            if (count != null) {
+                response.getHeaders().set(SQL_STATEMENT_COUNT_HEADER, String.valueOf(count[0]));
+            }
+
+            return body;
+        }
+
+    }
+
+    /**
+     * Data source whose connections count prepareStatement, prepareCall and
+     * createStatement calls for the current request
+     */
+    static class StatementCountingDataSource extends DelegatingDataSource {
+
+        StatementCountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        int[] count = STATEMENT_COUNT.get();
+
+                        if (count != null && (method.getName().startsWith("prepare")
+                                || method.getName().equals("createStatement"))) {
+                            count[0]++;
+                        }
+
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+
+    }
+
+}
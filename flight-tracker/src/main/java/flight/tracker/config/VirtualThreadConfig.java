@@ -0,0 +1,86 @@
+package flight.tracker.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * Runs Tomcat requests and async work (StreamingResponseBody exports, @Async
+ * methods) on Java 21 virtual threads instead of platform thread pools. Enabled
+ * by the virtual-threads profile, which also sizes the Hikari pool: with a
+ * virtual thread per request the pool, not Tomcat, bounds the concurrent
+ * database work.
+ * 
+ * The build still targets Java 17, so the virtual thread executor is looked up
+ * at startup and the profile fails fast on an older runtime. Blocking inside
+ * synchronized code (MySQL Connector/J, a Caffeine load) pins the carrier
+ * thread; run with -Djdk.tracePinnedThreads=short to find such spots.
+ *
+ * The throughput and p99 of this mode have not been measured against the
+ * platform thread pools yet. FlightTrackerLoadTest runs the comparison on
+ * Java 21, e.g. at 1k and 10k clients:
+ *
+ * mvn -P load-test test -Dload-test.concurrency=1000
+ * mvn -P load-test test -Dload-test.concurrency=1000 -Dload-test.profiles=virtual-threads
+ *
+ * The load test's clients share the application's JVM, so at 10k clients
+ * they take a good share of the CPU; treat those numbers as relative.
+ */
+@Configuration
+@Profile("virtual-threads")
+@Slf4j
+public class VirtualThreadConfig {
+
+    /**
+     * Executor starting a new virtual thread per task
+     * 
+     * @return executor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("Running requests and async work on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The virtual-threads profile requires Java 21 or later, running on "
+                    + Runtime.version(), e);
+        }
+    }
+
+    /**
+     * Hands every Tomcat request to a virtual thread
+     * 
+     * @param virtualThreadExecutor
+     * @return customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Replaces the pooled application task executor used by Spring MVC async
+     * requests and @Async methods
+     * 
+     * @param virtualThreadExecutor
+     * @return task executor
+     */
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            "taskExecutor" })
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+}
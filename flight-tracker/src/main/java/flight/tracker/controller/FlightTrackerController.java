@@ -1,24 +1,66 @@
 package flight.tracker.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import flight.tracker.controller.model.AirlineStatistics;
+import flight.tracker.controller.model.CacheStatistics;
+import flight.tracker.controller.model.ChangeBatch;
+import flight.tracker.controller.model.ChangeEvent;
+import flight.tracker.controller.model.ChangeEvent.Operation;
 import flight.tracker.controller.model.FlightData;
 import flight.tracker.controller.model.FlightData.FlightAirline;
 import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.controller.model.FlightPage;
+import flight.tracker.controller.model.FlightStatistics;
+import flight.tracker.controller.model.JobInfo;
+import flight.tracker.controller.model.JobInfo.JobItemError;
+import flight.tracker.controller.model.JobRequest;
+import flight.tracker.controller.model.ManifestResult;
+import flight.tracker.controller.model.PassengerPage;
+import flight.tracker.controller.model.SeatAvailability;
+import flight.tracker.service.ChangeEventBus;
+import flight.tracker.service.ChangeLogService;
+import flight.tracker.service.FlightResponseCache;
+import flight.tracker.service.FlightResponseCache.CachedFlight;
+import flight.tracker.service.FlightStatisticsService;
 import flight.tracker.service.FlightTrackerService;
+import flight.tracker.service.JobService;
+import flight.tracker.service.PassengerSearchService;
+import flight.tracker.service.ScheduleImportService;
+import flight.tracker.service.ScheduleImportStep.ImportMode;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import org.springframework.http.HttpStatus;
 
 @RestController
@@ -26,9 +68,35 @@ import org.springframework.http.HttpStatus;
 @Slf4j
 public class FlightTrackerController {
 
+    private static final Duration CHANGE_STREAM_HEARTBEAT = Duration.ofSeconds(15);
+
     @Autowired
     private FlightTrackerService flightTrackerService;
 
+    @Autowired
+    private FlightResponseCache flightResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChangeEventBus changeEventBus;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private PassengerSearchService passengerSearchService;
+
+    @Autowired
+    private FlightStatisticsService flightStatisticsService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ScheduleImportService scheduleImportService;
+
     /**
      * POST new flight to airline
      * 
@@ -66,10 +134,38 @@ public class FlightTrackerController {
     @PostMapping("/passenger/{flightNumber}")
     @ResponseStatus(HttpStatus.CREATED)
     public FlightPassenger addPassenger(@RequestBody FlightPassenger passenger, @PathVariable Long flightNumber) {
-        log.info("Adding passenger with data: {}", passenger.getPassengerFirstName(), flightNumber);
+        log.info("Adding passenger to flight number: {}", flightNumber);
         return flightTrackerService.addPassenger(passenger, flightNumber);
     }
 
+    /**
+     * POST passenger manifest to flight as a JSON array
+     * 
+     * @param flightNumber - PathVariable
+     * @param passengers   - RequestBody
+     * @return ManifestResult with one result per passenger
+     */
+    @PostMapping(value = "/passenger/{flightNumber}/manifest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ManifestResult addPassengerManifest(@PathVariable Long flightNumber,
+            @RequestBody List<FlightPassenger> passengers) {
+        log.info("Adding manifest of {} passengers to flight number: {}", passengers.size(), flightNumber);
+        return flightTrackerService.addPassengerManifest(passengers, flightNumber);
+    }
+
+    /**
+     * POST passenger manifest to flight as CSV with a header line
+     * 
+     * @param flightNumber - PathVariable
+     * @param manifest     - RequestBody
+     * @return ManifestResult with one result per passenger
+     */
+    @PostMapping(value = "/passenger/{flightNumber}/manifest", consumes = "text/csv")
+    public ManifestResult addPassengerManifestCsv(@PathVariable Long flightNumber, @RequestBody String manifest) {
+        List<FlightPassenger> passengers = ManifestCsvReader.read(manifest);
+        log.info("Adding manifest of {} passengers to flight number: {}", passengers.size(), flightNumber);
+        return flightTrackerService.addPassengerManifest(passengers, flightNumber);
+    }
+
     /**
      * GET all flights
      * 
@@ -82,15 +178,268 @@ public class FlightTrackerController {
     }
 
     /**
-     * GET flight by flight number
+     * GET the changes after a sequence number from the change log, the latest
+     * change of each entity only. Without since the client is told to load its
+     * data first and where to continue from.
+     * 
+     * @param since - last sequence number applied, optional
+     * @param limit - optional batch size
+     * @return ChangeBatch
+     */
+    @GetMapping("/changes")
+    public ChangeBatch listChanges(@RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Listing changes after sequence: {}", since);
+        return changeLogService.retrieveChanges(since, limit);
+    }
+
+    /**
+     * GET a server-sent event stream of committed changes. A reconnecting client
+     * resumes after the sequence number in its Last-Event-ID header, or in the
+     * since parameter; a "resync" event means it missed more than is kept.
+     * 
+     * @param lastEventId - sequence number of the last event seen, optional
+     * @param since       - same as lastEventId, for clients that can't set it
+     * @return change events and heartbeats
+     */
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChangeEvent>> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since) {
+        Long afterSequence = Objects.nonNull(lastEventId) ? lastEventId : since;
+        log.info("Streaming changes after sequence: {}", afterSequence);
+
+        Flux<ServerSentEvent<ChangeEvent>> events = changeEventBus.subscribe(afterSequence)
+                .map(event -> ServerSentEvent.builder(event).id(String.valueOf(event.getSequence()))
+                        .event(event.getOperation() == Operation.RESYNC ? "resync" : "change").build());
+        Flux<ServerSentEvent<ChangeEvent>> heartbeats = Flux.interval(CHANGE_STREAM_HEARTBEAT)
+                .map(tick -> ServerSentEvent.<ChangeEvent>builder().comment("heartbeat").build());
+
+        return Flux.merge(events, heartbeats);
+    }
+
+    /**
+     * GET all flights with passengers as newline-delimited JSON, streamed as the
+     * flights are read from the database
+     * 
+     * @return StreamingResponseBody
+     */
+    @GetMapping(value = "/flights/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportFlights() {
+        log.info("Exporting all flights");
+        ObjectWriter writer = objectMapper.writerFor(FlightData.class);
+
+        return outputStream -> flightTrackerService.exportFlights(flight -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(flight));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * GET one page of flights, ordered by flight number
+     * 
+     * @param pageToken     - nextPageToken of the previous page, optional
+     * @param limit         - page size, optional
+     * @param airlineCode   - optional filter
+     * @param departureDate - optional filter
+     * @return FlightPage
+     */
+    @GetMapping("/flights")
+    public FlightPage listFlights(@RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) Long airlineCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate departureDate) {
+        log.info("Listing flights page with limit: {}", limit);
+        return flightTrackerService.retrieveFlightPage(pageToken, limit, airlineCode, departureDate);
+    }
+
+    /**
+     * GET flights departing in a time window, ordered by departure
+     * 
+     * @param from        - inclusive, ISO date time
+     * @param to          - exclusive, ISO date time
+     * @param airlineCode - optional filter
+     * @param limit       - page size, optional
+     * @return List of FlightData
+     */
+    @GetMapping("/departures")
+    public List<FlightData> listDepartures(@RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long airlineCode, @RequestParam(required = false) Integer limit) {
+        log.info("Listing departures from {} to {}", from, to);
+        return flightTrackerService.retrieveFlightsDepartingBetween(from, to, airlineCode, limit);
+    }
+
+    /**
+     * GET flights arriving in a time window, ordered by arrival
+     * 
+     * @param from        - inclusive, ISO date time
+     * @param to          - exclusive, ISO date time
+     * @param airlineCode - optional filter
+     * @param limit       - page size, optional
+     * @return List of FlightData
+     */
+    @GetMapping("/arrivals")
+    public List<FlightData> listArrivals(@RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long airlineCode, @RequestParam(required = false) Integer limit) {
+        log.info("Listing arrivals from {} to {}", from, to);
+        return flightTrackerService.retrieveFlightsArrivingBetween(from, to, airlineCode, limit);
+    }
+
+    /**
+     * GET flight by flight number. The serialized flight is cached and carries a
+     * strong ETag; a matching If-None-Match gets 304 Not Modified.
      * 
      * @param flightNumber
      * @return single Flight info
      */
     @GetMapping("/flight/{flightNumber}")
-    public FlightData getFlight(@PathVariable Long flightNumber) {
+    public ResponseEntity<byte[]> getFlight(@PathVariable Long flightNumber) {
         log.info("Retrieving flight with flight number: {}", flightNumber);
-        return flightTrackerService.retrieveFlight(flightNumber);
+        CachedFlight flight = flightResponseCache.get(flightNumber, flightTrackerService::retrieveFlight);
+
+        return ResponseEntity.ok().eTag(flight.getETag()).cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON).body(flight.getJson());
+    }
+
+    /**
+     * GET the free seats of a flight
+     * 
+     * @param flightNumber
+     * @return SeatAvailability
+     */
+    @GetMapping("/flight/{flightNumber}/seats")
+    public SeatAvailability getSeatAvailability(@PathVariable Long flightNumber) {
+        log.info("Retrieving seat availability of flight number: {}", flightNumber);
+        return flightTrackerService.retrieveSeatAvailability(flightNumber);
+    }
+
+    /**
+     * GET passengers by last name prefix, by email, or by flight and seat; one
+     * of the three per search
+     * 
+     * @param lastName     - last name prefix, case and accents ignored
+     * @param email
+     * @param flightNumber - with seatNumber
+     * @param seatNumber   - with flightNumber
+     * @param pageToken    - nextPageToken of the previous page, optional
+     * @param limit        - page size, optional
+     * @return PassengerPage
+     */
+    @GetMapping("/passengers/search")
+    public PassengerPage searchPassengers(@RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String email, @RequestParam(required = false) Long flightNumber,
+            @RequestParam(required = false) String seatNumber, @RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer limit) {
+        // No names or emails in the log.
+        log.info("Searching passengers with limit: {}", limit);
+        return passengerSearchService.searchPassengers(lastName, email, flightNumber, seatNumber, pageToken, limit);
+    }
+
+    /**
+     * GET flights, passengers, load factor and upcoming departures of every
+     * airline
+     * 
+     * @param upcomingHours - departures window from now, optional
+     * @return List of AirlineStatistics
+     */
+    @GetMapping("/statistics/airlines")
+    public List<AirlineStatistics> getAirlineStatistics(@RequestParam(required = false) Integer upcomingHours) {
+        log.info("Retrieving airline statistics");
+        return flightStatisticsService.retrieveAirlineStatistics(upcomingHours);
+    }
+
+    /**
+     * GET passengers and load factor of the flights of an airline
+     * 
+     * @param airlineCode
+     * @return List of FlightStatistics
+     */
+    @GetMapping("/statistics/airline/{airlineCode}/flights")
+    public List<FlightStatistics> getFlightStatistics(@PathVariable Long airlineCode) {
+        log.info("Retrieving flight statistics of airline code: {}", airlineCode);
+        return flightStatisticsService.retrieveFlightStatistics(airlineCode);
+    }
+
+    /**
+     * POST a background job, such as an airline purge
+     * 
+     * @param jobRequest - job type and parameters
+     * @return JobInfo with the job id to poll
+     */
+    @PostMapping("/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public JobInfo submitJob(@RequestBody JobRequest jobRequest) {
+        log.info("Submitting job of type: {}", jobRequest.getJobType());
+        return jobService.submitJob(jobRequest);
+    }
+
+    /**
+     * POST a flight schedule as CSV, imported in the background by a job; see
+     * ScheduleCsvParser for the format
+     * 
+     * @param csv  - RequestBody
+     * @param mode - INSERT adds every line as a new flight, UPSERT updates the
+     *             flight with the line's flightNumber or airline and departure
+     * @return JobInfo with the job id to poll
+     */
+    @PostMapping(value = "/schedules/import", consumes = "text/csv")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public JobInfo importSchedule(InputStream csv, @RequestParam(defaultValue = "INSERT") ImportMode mode) {
+        log.info("Importing flight schedule in mode: {}", mode);
+        return scheduleImportService.importSchedule(csv, mode);
+    }
+
+    /**
+     * GET status and progress of a job
+     * 
+     * @param jobId
+     * @return JobInfo
+     */
+    @GetMapping("/jobs/{jobId}")
+    public JobInfo getJob(@PathVariable Long jobId) {
+        return jobService.retrieveJob(jobId);
+    }
+
+    /**
+     * GET the items a job rejected, such as the invalid lines of a schedule
+     * import
+     * 
+     * @param jobId
+     * @param after - item of the previous page's last error, optional
+     * @param limit - page size, optional
+     * @return List of JobItemError
+     */
+    @GetMapping("/jobs/{jobId}/errors")
+    public List<JobItemError> getJobErrors(@PathVariable Long jobId, @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return jobService.retrieveJobErrors(jobId, after, limit);
+    }
+
+    /**
+     * POST cancellation of a job, effective at its next chunk
+     * 
+     * @param jobId
+     * @return JobInfo
+     */
+    @PostMapping("/jobs/{jobId}/cancel")
+    public JobInfo cancelJob(@PathVariable Long jobId) {
+        log.info("Cancelling job with job id: {}", jobId);
+        return jobService.cancelJob(jobId);
+    }
+
+    /**
+     * GET second-level and query cache statistics
+     * 
+     * @return CacheStatistics
+     */
+    @GetMapping("/cache/statistics")
+    public CacheStatistics getCacheStatistics() {
+        return flightTrackerService.retrieveCacheStatistics();
     }
 
     /**
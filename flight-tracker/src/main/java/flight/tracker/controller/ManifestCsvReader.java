@@ -0,0 +1,108 @@
+package flight.tracker.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+
+/**
+ * Reads a passenger manifest from CSV. The first line is a header naming the
+ * FlightPassenger fields, in any order; passengerFirstName and
+ * passengerLastName are required. Values are comma separated without quoting.
+ */
+final class ManifestCsvReader {
+
+    private static final String PASSENGER_ID = "passengerId";
+    private static final String FIRST_NAME = "passengerFirstName";
+    private static final String LAST_NAME = "passengerLastName";
+    private static final String EMAIL = "passengerEmail";
+    private static final String SEAT_NUMBER = "passengerSeatNumber";
+
+    private ManifestCsvReader() {
+    }
+
+    /**
+     * Reads the manifest rows
+     * 
+     * @param csv
+     * @return one FlightPassenger per data line
+     */
+    static List<FlightPassenger> read(String csv) {
+        String[] lines = csv.strip().split("\\r?\\n");
+        Map<String, Integer> columns = readHeader(lines[0]);
+        List<FlightPassenger> passengers = new ArrayList<>(lines.length - 1);
+
+        for (int line = 1; line < lines.length; line++) {
+            if (lines[line].isBlank()) {
+                continue;
+            }
+
+            String[] values = lines[line].split(",", -1);
+            FlightPassenger passenger = new FlightPassenger();
+            String passengerId = value(values, columns, PASSENGER_ID);
+
+            try {
+                passenger.setPassengerId(Objects.isNull(passengerId) ? null : Long.valueOf(passengerId));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid passengerId on line " + (line + 1) + ": " + passengerId);
+            }
+
+            passenger.setPassengerFirstName(value(values, columns, FIRST_NAME));
+            passenger.setPassengerLastName(value(values, columns, LAST_NAME));
+            passenger.setPassengerEmail(value(values, columns, EMAIL));
+            passenger.setPassengerSeatNumber(value(values, columns, SEAT_NUMBER));
+            passengers.add(passenger);
+        }
+
+        return passengers;
+    }
+
+    /**
+     * Maps header names to column positions
+     * 
+     * @param header
+     * @return column positions
+     */
+    private static Map<String, Integer> readHeader(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = header.split(",", -1);
+
+        for (int column = 0; column < names.length; column++) {
+            String name = names[column].strip();
+
+            if (!List.of(PASSENGER_ID, FIRST_NAME, LAST_NAME, EMAIL, SEAT_NUMBER).contains(name)) {
+                throw new IllegalArgumentException("Unknown manifest column: " + name);
+            }
+
+            columns.put(name, column);
+        }
+
+        if (!columns.containsKey(FIRST_NAME) || !columns.containsKey(LAST_NAME)) {
+            throw new IllegalArgumentException("Manifest header must contain " + FIRST_NAME + " and " + LAST_NAME);
+        }
+
+        return columns;
+    }
+
+    /**
+     * Value of a column on one line, null when missing or blank
+     * 
+     * @param values
+     * @param columns
+     * @param name
+     * @return value
+     */
+    private static String value(String[] values, Map<String, Integer> columns, String name) {
+        Integer column = columns.get(name);
+
+        if (Objects.isNull(column) || column >= values.length || values[column].isBlank()) {
+            return null;
+        }
+
+        return values[column].strip();
+    }
+
+}
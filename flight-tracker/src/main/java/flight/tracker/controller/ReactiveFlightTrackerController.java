@@ -0,0 +1,80 @@
+package flight.tracker.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.service.ReactiveFlightTrackerService;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/***
+ * Non-blocking read endpoints. A request holds no servlet thread while it
+ * waits on the database, the response completes asynchronously once R2DBC
+ * delivers the rows.
+ * 
+ */
+@RestController
+@RequestMapping("/reactive/flight")
+@Slf4j
+public class ReactiveFlightTrackerController {
+
+    @Autowired
+    private ReactiveFlightTrackerService reactiveFlightTrackerService;
+
+    /**
+     * GET all flights as newline-delimited JSON, written as fast as the client
+     * reads them
+     * 
+     * @param airlineCode - optional filter
+     * @return Flux of FlightData
+     */
+    @GetMapping(value = "/flights", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FlightData> listFlights(@RequestParam(required = false) Long airlineCode) {
+        log.info("Streaming flights reactively");
+        return reactiveFlightTrackerService.retrieveFlights(airlineCode);
+    }
+
+    /**
+     * GET flight by flight number
+     * 
+     * @param flightNumber
+     * @return single Flight info
+     */
+    @GetMapping("/flight/{flightNumber}")
+    public Mono<FlightData> getFlight(@PathVariable Long flightNumber) {
+        log.info("Retrieving flight reactively with flight number: {}", flightNumber);
+        return reactiveFlightTrackerService.retrieveFlight(flightNumber);
+    }
+
+    /**
+     * GET all airlines
+     * 
+     * @return Flux of FlightAirline
+     */
+    @GetMapping("/airlines")
+    public Flux<FlightAirline> listAirlines() {
+        log.info("Listing airlines reactively");
+        return reactiveFlightTrackerService.retrieveAirlines();
+    }
+
+    /**
+     * GET airline by airline code
+     * 
+     * @param airlineCode
+     * @return single Airline info
+     */
+    @GetMapping("/airline/{airlineCode}")
+    public Mono<FlightAirline> getAirline(@PathVariable Long airlineCode) {
+        log.info("Retrieving airline reactively with airline code: {}", airlineCode);
+        return reactiveFlightTrackerService.retrieveAirline(airlineCode);
+    }
+
+}
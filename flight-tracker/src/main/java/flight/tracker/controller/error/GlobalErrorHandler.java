@@ -3,6 +3,7 @@ package flight.tracker.controller.error;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -27,7 +28,7 @@ public class GlobalErrorHandler {
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
     public Map<String, String> handleIllegalArgumentException(IllegalArgumentException ex) {
-        log.error("Exeception", ex.getMessage());
+        log.warn("Request failed: {}", ex.getMessage());
         return Map.of("error", ex.getMessage());
     }
 
@@ -40,7 +41,7 @@ public class GlobalErrorHandler {
     @ExceptionHandler(NoSuchElementException.class)
     @ResponseStatus(code = HttpStatus.NOT_FOUND)
     public Map<String, String> handleNoSuchElementException(NoSuchElementException ex) {
-        log.error("Exeception", ex.getMessage());
+        log.warn("Request failed: {}", ex.getMessage());
         return Map.of("error", ex.getMessage());
     }
 
@@ -53,7 +54,33 @@ public class GlobalErrorHandler {
     @ExceptionHandler(UnsupportedOperationException.class)
     @ResponseStatus(code = HttpStatus.METHOD_NOT_ALLOWED)
     public Map<String, String> handleUnsupportedOperationException(UnsupportedOperationException ex) {
-        log.error("Exeception", ex.getMessage());
+        log.warn("Request failed: {}", ex.getMessage());
         return Map.of("error", ex.getMessage());
     }
+
+    /**
+     * Handle IllegalStateException
+     * 
+     * @param ex
+     * @return error message
+     */
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(code = HttpStatus.CONFLICT)
+    public Map<String, String> handleIllegalStateException(IllegalStateException ex) {
+        log.warn("Request failed: {}", ex.getMessage());
+        return Map.of("error", ex.getMessage());
+    }
+
+    /**
+     * Handle ConcurrencyFailureException left after the service gave up retrying
+     * 
+     * @param ex
+     * @return error message
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    @ResponseStatus(code = HttpStatus.CONFLICT)
+    public Map<String, String> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+        log.warn("Request failed: {}", ex.getMessage());
+        return Map.of("error", "Concurrent update, please retry.");
+    }
 }
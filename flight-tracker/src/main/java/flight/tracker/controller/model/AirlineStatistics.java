@@ -0,0 +1,36 @@
+package flight.tracker.controller.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class AirlineStatistics {
+
+    private Long airlineCode;
+    private long flights;
+    private long passengers;
+    private long totalSeats;
+    private double loadFactor;
+    private long upcomingDepartures;
+
+    /**
+     * AirlineStatistics constructor sets the counts and the load factor
+     * 
+     * @param airlineCode
+     * @param flights
+     * @param passengers
+     * @param seatsPerFlight
+     * @param upcomingDepartures
+     */
+    public AirlineStatistics(Long airlineCode, long flights, long passengers, int seatsPerFlight,
+            long upcomingDepartures) {
+        this.airlineCode = airlineCode;
+        this.flights = flights;
+        this.passengers = passengers;
+        this.totalSeats = flights * seatsPerFlight;
+        this.loadFactor = totalSeats == 0 ? 0 : (double) passengers / totalSeats;
+        this.upcomingDepartures = upcomingDepartures;
+    }
+
+}
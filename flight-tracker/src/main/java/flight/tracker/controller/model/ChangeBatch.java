@@ -0,0 +1,39 @@
+package flight.tracker.controller.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One batch of the change log. The client applies the changes and asks for
+ * the next batch with since=nextSince. When resync is set the changes after
+ * its since are no longer kept: the client reloads its data and continues
+ * from nextSince.
+ */
+@Data
+@NoArgsConstructor
+public class ChangeBatch {
+
+    private List<ChangeEvent> changes = new ArrayList<>();
+    private long nextSince;
+    private boolean hasMore;
+    private boolean resync;
+
+    /**
+     * ChangeBatch constructor sets the batch data
+     *
+     * @param changes
+     * @param nextSince
+     * @param hasMore
+     * @param resync
+     */
+    public ChangeBatch(List<ChangeEvent> changes, long nextSince, boolean hasMore, boolean resync) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+        this.resync = resync;
+    }
+
+}
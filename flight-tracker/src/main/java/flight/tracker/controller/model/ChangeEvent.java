@@ -0,0 +1,33 @@
+package flight.tracker.controller.model;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEvent {
+
+    private long sequence;
+    private EntityType entityType;
+    private Long entityId;
+    private Operation operation;
+    private Long flightNumber;
+    private Instant committedAt;
+
+    public enum EntityType {
+        AIRLINE, FLIGHT, PASSENGER
+    }
+
+    /**
+     * RESYNC tells a resuming client that the events it missed are no longer
+     * kept, it has to reload its data and continue from this event's sequence
+     */
+    public enum Operation {
+        CREATED, UPDATED, DELETED, RESYNC
+    }
+
+}
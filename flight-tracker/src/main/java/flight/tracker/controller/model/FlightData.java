@@ -5,7 +5,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import flight.tracker.entity.Flight;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import flight.tracker.entity.Airline;
@@ -15,13 +19,28 @@ import flight.tracker.entity.Airline;
 public class FlightData {
 
     private Long flightNumber;
-    private String departureDate;
-    private String departureTime;
-    private String arrivalDate;
-    private String arrivalTime;
+    private LocalDate departureDate;
+    private LocalTime departureTime;
+    private LocalDate arrivalDate;
+    private LocalTime arrivalTime;
     private Long airlineCode;
     private Set<FlightPassenger> passengers = new HashSet<>();
 
+    /**
+     * FlightData constructor for read-only query projections, passengers are
+     * added separately
+     * 
+     * @param flightNumber
+     * @param departure
+     * @param arrival
+     * @param airlineCode
+     */
+    public FlightData(Long flightNumber, LocalDateTime departure, LocalDateTime arrival, Long airlineCode) {
+        this.flightNumber = flightNumber;
+        this.airlineCode = airlineCode;
+        setTimes(departure, arrival);
+    }
+
     /**
      * FlightData constructor sets the flight data
      * 
@@ -29,11 +48,8 @@ public class FlightData {
      */
     public FlightData(Flight flight) {
         this.flightNumber = flight.getFlightNumber();
-        this.departureDate = flight.getDepartureDate();
-        this.departureTime = flight.getDepartureTime();
-        this.arrivalDate = flight.getArrivalDate();
-        this.arrivalTime = flight.getArrivalTime();
         this.airlineCode = flight.getAirline().getAirlineCode();
+        setTimes(flight.getDeparture(), flight.getArrival());
 
         for (Passenger passenger : flight.getPassengers()) {
             this.passengers.add(new FlightPassenger(passenger));
@@ -41,6 +57,24 @@ public class FlightData {
 
     }
 
+    /**
+     * Splits departure and arrival into their date and time fields
+     * 
+     * @param departure
+     * @param arrival
+     */
+    private void setTimes(LocalDateTime departure, LocalDateTime arrival) {
+        if (Objects.nonNull(departure)) {
+            this.departureDate = departure.toLocalDate();
+            this.departureTime = departure.toLocalTime();
+        }
+
+        if (Objects.nonNull(arrival)) {
+            this.arrivalDate = arrival.toLocalDate();
+            this.arrivalTime = arrival.toLocalTime();
+        }
+    }
+
     @Data
     @NoArgsConstructor
     public static class FlightPassenger {
@@ -51,6 +85,24 @@ public class FlightData {
         private String passengerEmail;
         private String passengerSeatNumber;
 
+        /**
+         * FlightPassenger constructor for read-only query projections
+         * 
+         * @param passengerId
+         * @param passengerFirstName
+         * @param passengerLastName
+         * @param passengerEmail
+         * @param passengerSeatNumber
+         */
+        public FlightPassenger(Long passengerId, String passengerFirstName, String passengerLastName,
+                String passengerEmail, String passengerSeatNumber) {
+            this.passengerId = passengerId;
+            this.passengerFirstName = passengerFirstName;
+            this.passengerLastName = passengerLastName;
+            this.passengerEmail = passengerEmail;
+            this.passengerSeatNumber = passengerSeatNumber;
+        }
+
         /**
          * FlightPassenger constructor sets the passenger data
          * 
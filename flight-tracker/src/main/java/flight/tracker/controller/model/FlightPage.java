@@ -0,0 +1,27 @@
+package flight.tracker.controller.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class FlightPage {
+
+    private List<FlightData> flights = new ArrayList<>();
+    private String nextPageToken;
+
+    /**
+     * FlightPage constructor sets the page data
+     * 
+     * @param flights
+     * @param nextPageToken - null on the last page
+     */
+    public FlightPage(List<FlightData> flights, String nextPageToken) {
+        this.flights = flights;
+        this.nextPageToken = nextPageToken;
+    }
+
+}
@@ -0,0 +1,43 @@
+package flight.tracker.controller.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Objects;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class FlightStatistics {
+
+    private Long flightNumber;
+    private LocalDate departureDate;
+    private LocalTime departureTime;
+    private long passengers;
+    private int totalSeats;
+    private double loadFactor;
+
+    /**
+     * FlightStatistics constructor sets the counts and the load factor
+     * 
+     * @param flightNumber
+     * @param departure
+     * @param passengers
+     * @param totalSeats
+     */
+    public FlightStatistics(Long flightNumber, LocalDateTime departure, long passengers, int totalSeats) {
+        this.flightNumber = flightNumber;
+
+        if (Objects.nonNull(departure)) {
+            this.departureDate = departure.toLocalDate();
+            this.departureTime = departure.toLocalTime();
+        }
+
+        this.passengers = passengers;
+        this.totalSeats = totalSeats;
+        this.loadFactor = totalSeats == 0 ? 0 : (double) passengers / totalSeats;
+    }
+
+}
@@ -0,0 +1,79 @@
+package flight.tracker.controller.model;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+
+import flight.tracker.entity.Job;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class JobInfo {
+
+    private Long jobId;
+    private JobType jobType;
+    private JobStatus status;
+    private Map<String, String> parameters;
+    private long processed;
+    private long rejected;
+    private Long total;
+    private Double progress;
+    private boolean cancelRequested;
+    private String error;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    /**
+     * JobInfo constructor sets the job's state and its progress, null while the
+     * total is unknown
+     * 
+     * @param job
+     * @param parameters
+     */
+    public JobInfo(Job job, Map<String, String> parameters) {
+        this.jobId = job.getJobId();
+        this.jobType = job.getJobType();
+        this.status = job.getStatus();
+        this.parameters = parameters;
+        this.processed = job.getProcessed();
+        this.rejected = job.getRejected();
+        this.total = job.getTotal();
+        this.progress = job.getStatus() == JobStatus.SUCCEEDED ? Double.valueOf(1)
+                : Objects.isNull(total) || total == 0 ? null : Math.min(1, (double) processed / total);
+        this.cancelRequested = job.isCancelRequested();
+        this.error = job.getError();
+        this.createdAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+    }
+
+    public enum JobType {
+        AIRLINE_PURGE, SCHEDULE_IMPORT
+    }
+
+    /**
+     * A RUNNING job whose instance stopped goes back to QUEUED and resumes from
+     * its last checkpoint
+     */
+    public enum JobStatus {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    /**
+     * An item a job rejected, such as a line of an import, and why
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JobItemError {
+
+        private long item;
+        private String message;
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package flight.tracker.controller.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import flight.tracker.controller.model.JobInfo.JobType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class JobRequest {
+
+    private JobType jobType;
+    private Map<String, String> parameters = new HashMap<>();
+
+}
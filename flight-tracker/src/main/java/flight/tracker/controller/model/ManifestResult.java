@@ -0,0 +1,67 @@
+package flight.tracker.controller.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ManifestResult {
+
+    private Long flightNumber;
+    private int added;
+    private int rejected;
+    private List<ManifestRowResult> rows = new ArrayList<>();
+
+    /**
+     * ManifestResult constructor sets the flight number
+     * 
+     * @param flightNumber
+     */
+    public ManifestResult(Long flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+
+    /**
+     * Records a passenger that was added to the flight
+     * 
+     * @param row
+     * @param passengerId
+     */
+    public void addAdded(int row, Long passengerId) {
+        rows.add(new ManifestRowResult(row, RowStatus.ADDED, passengerId, null));
+        added++;
+    }
+
+    /**
+     * Records a manifest row that was rejected
+     * 
+     * @param row
+     * @param passengerId
+     * @param error
+     */
+    public void addRejected(int row, Long passengerId, String error) {
+        rows.add(new ManifestRowResult(row, RowStatus.REJECTED, passengerId, error));
+        rejected++;
+    }
+
+    public enum RowStatus {
+        ADDED, REJECTED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ManifestRowResult {
+
+        private int row;
+        private RowStatus status;
+        private Long passengerId;
+        private String error;
+
+    }
+
+}
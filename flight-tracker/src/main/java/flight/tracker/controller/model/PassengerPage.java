@@ -0,0 +1,28 @@
+package flight.tracker.controller.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class PassengerPage {
+
+    private List<FlightPassenger> passengers = new ArrayList<>();
+    private String nextPageToken;
+
+    /**
+     * PassengerPage constructor sets the page data
+     * 
+     * @param passengers
+     * @param nextPageToken - null on the last page
+     */
+    public PassengerPage(List<FlightPassenger> passengers, String nextPageToken) {
+        this.passengers = passengers;
+        this.nextPageToken = nextPageToken;
+    }
+
+}
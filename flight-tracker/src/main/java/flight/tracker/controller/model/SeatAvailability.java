@@ -0,0 +1,32 @@
+package flight.tracker.controller.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class SeatAvailability {
+
+    private Long flightNumber;
+    private int totalSeats;
+    private int availableSeatCount;
+    private List<String> availableSeats = new ArrayList<>();
+
+    /**
+     * SeatAvailability constructor sets the availability data
+     * 
+     * @param flightNumber
+     * @param totalSeats
+     * @param availableSeats
+     */
+    public SeatAvailability(Long flightNumber, int totalSeats, List<String> availableSeats) {
+        this.flightNumber = flightNumber;
+        this.totalSeats = totalSeats;
+        this.availableSeatCount = availableSeats.size();
+        this.availableSeats = availableSeats;
+    }
+
+}
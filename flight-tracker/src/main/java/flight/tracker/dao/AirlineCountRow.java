@@ -0,0 +1,18 @@
+package flight.tracker.dao;
+
+import lombok.Value;
+
+/***
+ * 
+ * Read-only projection of one airline's flight, passenger and upcoming
+ * departure counts
+ */
+@Value
+public class AirlineCountRow {
+
+    private Long airlineCode;
+    private long flights;
+    private long passengers;
+    private long upcomingDepartures;
+
+}
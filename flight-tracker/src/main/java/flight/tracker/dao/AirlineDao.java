@@ -1,6 +1,11 @@
 package flight.tracker.dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import flight.tracker.entity.Airline;
 
@@ -10,4 +15,13 @@ import flight.tracker.entity.Airline;
  */
 public interface AirlineDao extends JpaRepository<Airline, Long> {
 
+    /**
+     * Codes of the given airlines that exist, without loading the airlines
+     * 
+     * @param airlineCodes
+     * @return existing airline codes
+     */
+    @Query("select a.airlineCode from Airline a where a.airlineCode in :airlineCodes")
+    List<Long> findExistingAirlineCodes(@Param("airlineCodes") Collection<Long> airlineCodes);
+
 }
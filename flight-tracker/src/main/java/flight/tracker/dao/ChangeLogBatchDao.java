@@ -0,0 +1,52 @@
+package flight.tracker.dao;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Objects;
+import java.util.TimeZone;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import flight.tracker.entity.ChangeLogEntry;
+import io.micrometer.core.annotation.Timed;
+
+/***
+ *
+ * ChangeLogBatchDao writes change_log rows with JDBC batch inserts, which
+ * Hibernate cannot do for an identity column. It joins the surrounding JPA
+ * transaction. Times are written in UTC, as Hibernate writes an Instant.
+ */
+@Repository
+@Timed("flight.tracker.dao")
+public class ChangeLogBatchDao {
+
+    private static final String INSERT_CHANGE_SQL = "insert into change_log"
+            + " (entity_type, entity_id, operation, flight_number, changed_at) values (?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts change_log rows in batches, in list order, so their sequence
+     * numbers follow it
+     *
+     * @param entries
+     */
+    public void insertChanges(List<ChangeLogEntry> entries) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+        jdbcTemplate.batchUpdate(INSERT_CHANGE_SQL, entries, BATCH_SIZE, (statement, entry) -> {
+            statement.setString(1, Objects.isNull(entry.getEntityType()) ? null : entry.getEntityType().name());
+            statement.setObject(2, entry.getEntityId(), Types.BIGINT);
+            statement.setString(3, entry.getOperation().name());
+            statement.setObject(4, entry.getFlightNumber(), Types.BIGINT);
+            statement.setTimestamp(5, Timestamp.from(entry.getChangedAt()), utc);
+        });
+    }
+
+}
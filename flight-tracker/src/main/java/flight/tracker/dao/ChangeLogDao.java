@@ -0,0 +1,71 @@
+package flight.tracker.dao;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import flight.tracker.entity.ChangeLogEntry;
+
+/***
+ *
+ * ChangeLogDao interface extends JpaRepository
+ */
+public interface ChangeLogDao extends JpaRepository<ChangeLogEntry, Long> {
+
+    /**
+     * Changes after a sequence number, in sequence order
+     *
+     * @param since
+     * @param pageable
+     * @return change log entries
+     */
+    @Query("select c from ChangeLogEntry c where c.sequence > :since order by c.sequence")
+    List<ChangeLogEntry> findChangesAfter(@Param("since") Long since, Pageable pageable);
+
+    /**
+     * @return highest sequence number, null if the change log is empty
+     */
+    @Query("select max(c.sequence) from ChangeLogEntry c")
+    Long findLatestSequence();
+
+    /**
+     * Entries followed by a later entry for the same entity and flight. A client
+     * that reads the later entry needs nothing from these.
+     *
+     * @param after    - sequence number to continue after
+     * @param pageable
+     * @return sequence numbers of the superseded entries
+     */
+    @Query("""
+            select c.sequence from ChangeLogEntry c
+            where c.sequence > :after and c.entityId is not null and exists (
+                select l.sequence from ChangeLogEntry l
+                where l.entityType = c.entityType and l.entityId = c.entityId and l.sequence > c.sequence
+                and (l.flightNumber = c.flightNumber or (l.flightNumber is null and c.flightNumber is null)))
+            order by c.sequence""")
+    List<Long> findSupersededSequences(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * @param changedBefore
+     * @return highest sequence number of the entries written before the given
+     *         time, null if there are none
+     */
+    @Query("select max(c.sequence) from ChangeLogEntry c where c.changedAt < :changedBefore")
+    Long findLatestSequenceBefore(@Param("changedBefore") Instant changedBefore);
+
+    /**
+     * Deletes the entries before a sequence number in one statement
+     *
+     * @param sequence
+     * @return deleted rows
+     */
+    @Modifying
+    @Query("delete from ChangeLogEntry c where c.sequence < :sequence")
+    int deleteBySequenceLessThan(@Param("sequence") Long sequence);
+
+}
@@ -0,0 +1,91 @@
+package flight.tracker.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.annotation.Timed;
+
+/***
+ * 
+ * FlightAggregateDao counts flights and passengers with GROUP BY queries.
+ * The counts are read from indexes alone: idx_flight_airline_departure holds
+ * the airline, departure and, in InnoDB, the flight number of every flight,
+ * and the primary key of flight_passenger its flight number and passenger
+ * id.
+ */
+@Repository
+@Timed("flight.tracker.dao")
+public class FlightAggregateDao {
+
+    private static final String COUNT_BY_AIRLINE_SQL = "select a.airline_code,"
+            + " count(distinct f.flight_number) flights, count(fp.passenger_id) passengers,"
+            + " count(distinct case when f.departure >= ? and f.departure < ? then f.flight_number end) upcoming"
+            + " from airline a left join flight f on f.airline_code = a.airline_code"
+            + " left join flight_passenger fp on fp.flight_number = f.flight_number"
+            + " group by a.airline_code order by a.airline_code";
+    private static final String COUNT_BY_FLIGHT_SQL = "select f.flight_number, f.airline_code, f.departure,"
+            + " count(fp.passenger_id) passengers"
+            + " from flight f left join flight_passenger fp on fp.flight_number = f.flight_number";
+    private static final String GROUP_BY_FLIGHT_SQL = " group by f.flight_number, f.airline_code, f.departure";
+    private static final String SELECT_AIRLINE_CODES_SQL = "select airline_code from airline";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Flights, passengers and departures in a time window of every airline
+     * 
+     * @param from - inclusive
+     * @param to   - exclusive
+     * @return counts ordered by airline code
+     */
+    public List<AirlineCountRow> countByAirline(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(COUNT_BY_AIRLINE_SQL,
+                (resultSet, rowNum) -> new AirlineCountRow(resultSet.getLong(1), resultSet.getLong(2),
+                        resultSet.getLong(3), resultSet.getLong(4)),
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Passengers of every flight
+     * 
+     * @return counts
+     */
+    public List<FlightCountRow> countByFlight() {
+        return jdbcTemplate.query(COUNT_BY_FLIGHT_SQL + GROUP_BY_FLIGHT_SQL, FlightAggregateDao::toFlightCountRow);
+    }
+
+    /**
+     * Passengers of the flights of an airline
+     * 
+     * @param airlineCode
+     * @return counts ordered by departure and flight number
+     */
+    public List<FlightCountRow> countByFlight(Long airlineCode) {
+        return jdbcTemplate.query(COUNT_BY_FLIGHT_SQL + " where f.airline_code = ?" + GROUP_BY_FLIGHT_SQL
+                + " order by f.departure, f.flight_number", FlightAggregateDao::toFlightCountRow, airlineCode);
+    }
+
+    /**
+     * Codes of every airline, with or without flights
+     * 
+     * @return airline codes
+     */
+    public List<Long> findAirlineCodes() {
+        return jdbcTemplate.queryForList(SELECT_AIRLINE_CODES_SQL, Long.class);
+    }
+
+    private static FlightCountRow toFlightCountRow(ResultSet resultSet, int rowNum) throws SQLException {
+        Timestamp departure = resultSet.getTimestamp(3);
+        return new FlightCountRow(resultSet.getLong(1), resultSet.getLong(2),
+                departure == null ? null : departure.toLocalDateTime(), resultSet.getLong(4));
+    }
+
+}
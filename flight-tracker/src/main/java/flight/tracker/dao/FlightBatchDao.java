@@ -0,0 +1,83 @@
+package flight.tracker.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.annotation.Timed;
+
+/***
+ * 
+ * FlightBatchDao deletes flights, their flight_passenger rows and the
+ * passengers left without a flight with set-based JDBC statements, one
+ * statement per table for a whole chunk of flights. It joins the surrounding
+ * JPA transaction and bypasses the second level cache; the caller evicts.
+ */
+@Repository
+@Timed("flight.tracker.dao")
+public class FlightBatchDao {
+
+    private static final String SELECT_PASSENGER_IDS_SQL = "select distinct passenger_id from flight_passenger"
+            + " where flight_number in (:flightNumbers)";
+    private static final String DELETE_FLIGHT_PASSENGERS_SQL = "delete from flight_passenger"
+            + " where flight_number in (:flightNumbers)";
+    private static final String DELETE_FLIGHTS_SQL = "delete from flight where flight_number in (:flightNumbers)";
+    private static final String SELECT_ORPHANED_PASSENGERS_SQL = "select p.passenger_id from passenger p"
+            + " where p.passenger_id in (:passengerIds) and not exists"
+            + " (select 1 from flight_passenger fp where fp.passenger_id = p.passenger_id) for update";
+    private static final String DELETE_PASSENGERS_SQL = "delete from passenger where passenger_id in (:passengerIds)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Passengers on any of the given flights
+     * 
+     * @param flightNumbers
+     * @return passenger ids
+     */
+    public List<Long> findPassengerIds(Collection<Long> flightNumbers) {
+        return jdbcTemplate.queryForList(SELECT_PASSENGER_IDS_SQL, Map.of("flightNumbers", flightNumbers),
+                Long.class);
+    }
+
+    /**
+     * Deletes the flights with their flight_passenger rows
+     * 
+     * @param flightNumbers
+     * @return deleted flights
+     */
+    public int deleteFlights(Collection<Long> flightNumbers) {
+        Map<String, Object> parameters = Map.of("flightNumbers", flightNumbers);
+        jdbcTemplate.update(DELETE_FLIGHT_PASSENGERS_SQL, parameters);
+        return jdbcTemplate.update(DELETE_FLIGHTS_SQL, parameters);
+    }
+
+    /**
+     * Deletes those of the given passengers that are on no flight. They are
+     * locked first, so a concurrent boarding either commits before and keeps
+     * its passenger, or waits and fails on the missing passenger.
+     * 
+     * @param passengerIds - candidates
+     * @return ids of the deleted passengers
+     */
+    public List<Long> deleteOrphanedPassengers(Collection<Long> passengerIds) {
+        if (passengerIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orphans = jdbcTemplate.queryForList(SELECT_ORPHANED_PASSENGERS_SQL,
+                Map.of("passengerIds", passengerIds), Long.class);
+
+        if (!orphans.isEmpty()) {
+            jdbcTemplate.update(DELETE_PASSENGERS_SQL, Map.of("passengerIds", orphans));
+        }
+
+        return orphans;
+    }
+
+}
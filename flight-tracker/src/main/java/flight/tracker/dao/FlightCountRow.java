@@ -0,0 +1,19 @@
+package flight.tracker.dao;
+
+import java.time.LocalDateTime;
+
+import lombok.Value;
+
+/***
+ * 
+ * Read-only projection of one flight with its number of passengers
+ */
+@Value
+public class FlightCountRow {
+
+    private Long flightNumber;
+    private Long airlineCode;
+    private LocalDateTime departure;
+    private long passengers;
+
+}
@@ -1,7 +1,21 @@
 package flight.tracker.dao;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
+import flight.tracker.controller.model.FlightData;
 import flight.tracker.entity.Flight;
 
 /***
@@ -10,4 +24,190 @@ import flight.tracker.entity.Flight;
  */
 public interface FlightDao extends JpaRepository<Flight, Long> {
 
+    String FLIGHT_DATA_SELECT = "select new flight.tracker.controller.model.FlightData(f.flightNumber,"
+            + " f.departure, f.arrival, a.airlineCode)"
+            + " from Flight f left join f.airline a";
+
+    String PASSENGER_ROW_SELECT = "select new flight.tracker.dao.FlightPassengerRow(f.flightNumber,"
+            + " p.passengerId, p.passengerFirstName, p.passengerLastName, p.passengerEmail,"
+            + " coalesce(s.seatNumber, p.passengerSeatNumber))"
+            + " from Flight f join f.passengers p left join SeatAssignment s"
+            + " on s.flightNumber = f.flightNumber and s.passengerId = p.passengerId";
+
+    /**
+     * Streams all flights with their airline from a server-side cursor, read-only
+     * so no snapshots are kept. Must be consumed inside a transaction and closed.
+     * 
+     * @return stream of flights ordered by flight number
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("select f from Flight f left join fetch f.airline order by f.flightNumber")
+    Stream<Flight> streamAllOrderByFlightNumber();
+
+    /**
+     * Keyset page of flight numbers, starting after the given flight number.
+     * Only the first page of the pageable is used, so deep pages cost the same
+     * as the first one.
+     * 
+     * @param afterFlightNumber
+     * @param airlineCode       - optional filter
+     * @param departureFrom     - optional filter, inclusive
+     * @param departureTo       - exclusive, required with departureFrom
+     * @param pageable
+     * @return flight numbers after afterFlightNumber
+     */
+    @Query("select f.flightNumber from Flight f where f.flightNumber > :afterFlightNumber"
+            + " and (:airlineCode is null or f.airline.airlineCode = :airlineCode)"
+            + " and (:departureFrom is null or (f.departure >= :departureFrom and f.departure < :departureTo))"
+            + " order by f.flightNumber")
+    List<Long> findFlightNumbersAfter(@Param("afterFlightNumber") Long afterFlightNumber,
+            @Param("airlineCode") Long airlineCode, @Param("departureFrom") LocalDateTime departureFrom,
+            @Param("departureTo") LocalDateTime departureTo, Pageable pageable);
+
+    /**
+     * A chunk of the flights of an airline, read from
+     * idx_flight_airline_departure
+     * 
+     * @param airlineCode
+     * @param pageable    - chunk size
+     * @return flight numbers
+     */
+    @Query("select f.flightNumber from Flight f where f.airline.airlineCode = :airlineCode")
+    List<Long> findFlightNumbersByAirlineCode(@Param("airlineCode") Long airlineCode, Pageable pageable);
+
+    /**
+     * @param airlineCode
+     * @return number of flights of the airline
+     */
+    @Query("select count(f) from Flight f where f.airline.airlineCode = :airlineCode")
+    long countByAirlineCode(@Param("airlineCode") Long airlineCode);
+
+    /**
+     * Flights of the given airlines departing at any of the given times, read
+     * from idx_flight_airline_departure. Schedule imports match their rows
+     * against these by airline and departure.
+     * 
+     * @param airlineCodes
+     * @param departures
+     * @return flights ordered by flight number
+     */
+    @Query("select f from Flight f join fetch f.airline a"
+            + " where a.airlineCode in :airlineCodes and f.departure in :departures order by f.flightNumber")
+    List<Flight> findByAirlineCodeInAndDepartureIn(@Param("airlineCodes") Collection<Long> airlineCodes,
+            @Param("departures") Collection<LocalDateTime> departures);
+
+    /**
+     * Flight numbers departing in [from, to), as a range scan of the departure
+     * index
+     * 
+     * @param from
+     * @param to
+     * @param pageable
+     * @return flight numbers ordered by departure
+     */
+    @Query("select f.flightNumber from Flight f where f.departure >= :from and f.departure < :to"
+            + " order by f.departure, f.flightNumber")
+    List<Long> findFlightNumbersDepartingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    /**
+     * Flight numbers of one airline departing in [from, to), as a range scan of
+     * the airline and departure index
+     * 
+     * @param airlineCode
+     * @param from
+     * @param to
+     * @param pageable
+     * @return flight numbers ordered by departure
+     */
+    @Query("select f.flightNumber from Flight f where f.airline.airlineCode = :airlineCode"
+            + " and f.departure >= :from and f.departure < :to order by f.departure, f.flightNumber")
+    List<Long> findFlightNumbersByAirlineDepartingBetween(@Param("airlineCode") Long airlineCode,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    /**
+     * Flight numbers arriving in [from, to), as a range scan of the arrival index
+     * 
+     * @param from
+     * @param to
+     * @param pageable
+     * @return flight numbers ordered by arrival
+     */
+    @Query("select f.flightNumber from Flight f where f.arrival >= :from and f.arrival < :to"
+            + " order by f.arrival, f.flightNumber")
+    List<Long> findFlightNumbersArrivingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    /**
+     * Flight numbers of one airline arriving in [from, to), as a range scan of
+     * the airline and arrival index
+     * 
+     * @param airlineCode
+     * @param from
+     * @param to
+     * @param pageable
+     * @return flight numbers ordered by arrival
+     */
+    @Query("select f.flightNumber from Flight f where f.airline.airlineCode = :airlineCode"
+            + " and f.arrival >= :from and f.arrival < :to order by f.arrival, f.flightNumber")
+    List<Long> findFlightNumbersByAirlineArrivingBetween(@Param("airlineCode") Long airlineCode,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    /**
+     * Flight projected straight into FlightData, without its passengers and
+     * without loading managed entities, from the query cache when possible
+     * 
+     * @param flightNumber
+     * @return FlightData
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(FLIGHT_DATA_SELECT + " where f.flightNumber = :flightNumber")
+    Optional<FlightData> findFlightDataByFlightNumber(@Param("flightNumber") Long flightNumber);
+
+    /**
+     * All flights projected straight into FlightData, without their passengers
+     * 
+     * @return FlightData ordered by flight number
+     */
+    @Query(FLIGHT_DATA_SELECT + " order by f.flightNumber")
+    List<FlightData> findAllFlightData();
+
+    /**
+     * Flights projected straight into FlightData, without their passengers
+     * 
+     * @param flightNumbers
+     * @return FlightData ordered by flight number
+     */
+    @Query(FLIGHT_DATA_SELECT + " where f.flightNumber in :flightNumbers order by f.flightNumber")
+    List<FlightData> findFlightDataByFlightNumberIn(@Param("flightNumbers") Collection<Long> flightNumbers);
+
+    /**
+     * Passengers of all flights as read-only rows
+     * 
+     * @return passenger rows
+     */
+    @Query(PASSENGER_ROW_SELECT)
+    List<FlightPassengerRow> findAllPassengerRows();
+
+    /**
+     * Passengers of one flight as read-only rows, from the query cache when
+     * possible
+     * 
+     * @param flightNumber
+     * @return passenger rows
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(PASSENGER_ROW_SELECT + " where f.flightNumber = :flightNumber")
+    List<FlightPassengerRow> findPassengerRowsByFlightNumber(@Param("flightNumber") Long flightNumber);
+
+    /**
+     * Passengers of the given flights as read-only rows
+     * 
+     * @param flightNumbers
+     * @return passenger rows
+     */
+    @Query(PASSENGER_ROW_SELECT + " where f.flightNumber in :flightNumbers")
+    List<FlightPassengerRow> findPassengerRowsByFlightNumberIn(@Param("flightNumbers") Collection<Long> flightNumbers);
+
 }
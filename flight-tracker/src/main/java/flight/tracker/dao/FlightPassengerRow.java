@@ -0,0 +1,30 @@
+package flight.tracker.dao;
+
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import lombok.Value;
+
+/***
+ * 
+ * Read-only projection of one flight_passenger row joined to its passenger
+ */
+@Value
+public class FlightPassengerRow {
+
+    private Long flightNumber;
+    private Long passengerId;
+    private String passengerFirstName;
+    private String passengerLastName;
+    private String passengerEmail;
+    private String passengerSeatNumber;
+
+    /**
+     * Converts the row to the passenger part of FlightData
+     * 
+     * @return FlightPassenger
+     */
+    public FlightPassenger toFlightPassenger() {
+        return new FlightPassenger(passengerId, passengerFirstName, passengerLastName, passengerEmail,
+                passengerSeatNumber);
+    }
+
+}
@@ -0,0 +1,43 @@
+package flight.tracker.dao;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import flight.tracker.controller.model.JobInfo.JobStatus;
+import flight.tracker.entity.Job;
+
+/***
+ *
+ * JobDao interface extends JpaRepository
+ */
+public interface JobDao extends JpaRepository<Job, Long> {
+
+    /**
+     * Jobs in a status, oldest first
+     *
+     * @param status
+     * @param pageable
+     * @return jobs
+     */
+    List<Job> findByStatusOrderByJobId(JobStatus status, Pageable pageable);
+
+    /**
+     * Jobs in a status whose heartbeat is older than the given time, such as
+     * running jobs of a stopped instance
+     *
+     * @param status
+     * @param heartbeatAt
+     * @return jobs
+     */
+    List<Job> findByStatusAndHeartbeatAtBefore(JobStatus status, Instant heartbeatAt);
+
+    /**
+     * @param status
+     * @return number of jobs in the status
+     */
+    long countByStatus(JobStatus status);
+
+}
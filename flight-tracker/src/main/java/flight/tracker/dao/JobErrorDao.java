@@ -0,0 +1,26 @@
+package flight.tracker.dao;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import flight.tracker.entity.JobError;
+
+/***
+ *
+ * JobErrorDao interface extends JpaRepository
+ */
+public interface JobErrorDao extends JpaRepository<JobError, Long> {
+
+    /**
+     * Rejected items of a job after the given item, in item order
+     *
+     * @param jobId
+     * @param item
+     * @param pageable
+     * @return job errors
+     */
+    List<JobError> findByJobIdAndItemGreaterThanOrderByItem(Long jobId, long item, Pageable pageable);
+
+}
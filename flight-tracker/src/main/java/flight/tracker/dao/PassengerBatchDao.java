@@ -0,0 +1,96 @@
+package flight.tracker.dao;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.annotation.Timed;
+
+/***
+ * 
+ * PassengerBatchDao writes flight_passenger and seat_assignment rows with JDBC
+ * batch inserts. It joins the surrounding JPA transaction. Its methods are
+ * timed as flight.tracker.dao; the JpaRepository DAOs are timed by Spring
+ * Boot as spring.data.repository.invocations.
+ */
+@Repository
+@Timed("flight.tracker.dao")
+public class PassengerBatchDao {
+
+    private static final String INSERT_FLIGHT_PASSENGER_SQL = "insert into flight_passenger"
+            + " (flight_number, passenger_id) values (?, ?)";
+    private static final String INSERT_SEAT_ASSIGNMENT_SQL = "insert into seat_assignment"
+            + " (flight_number, passenger_id, seat_number) values (?, ?, ?)";
+    private static final String SELECT_PASSENGER_FLIGHTS_SQL = "select flight_number from flight_passenger"
+            + " where passenger_id = ?";
+    private static final String DELETE_PASSENGER_FLIGHTS_SQL = "delete from flight_passenger where passenger_id = ?";
+    private static final String DELETE_SEAT_ASSIGNMENT_SQL = "delete from seat_assignment"
+            + " where flight_number = ? and passenger_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts flight_passenger rows in one batch
+     * 
+     * @param flightNumber
+     * @param passengerIds
+     */
+    public void insertFlightPassengers(Long flightNumber, List<Long> passengerIds) {
+        jdbcTemplate.batchUpdate(INSERT_FLIGHT_PASSENGER_SQL, passengerIds, passengerIds.size(),
+                (statement, passengerId) -> {
+                    statement.setLong(1, flightNumber);
+                    statement.setLong(2, passengerId);
+                });
+    }
+
+    /**
+     * Inserts seat_assignment rows in one batch
+     * 
+     * @param flightNumber
+     * @param seatNumbers  - seat number by passenger id
+     */
+    public void insertSeatAssignments(Long flightNumber, Map<Long, String> seatNumbers) {
+        List<Map.Entry<Long, String>> seats = List.copyOf(seatNumbers.entrySet());
+
+        jdbcTemplate.batchUpdate(INSERT_SEAT_ASSIGNMENT_SQL, seats, seats.size(), (statement, seat) -> {
+            statement.setLong(1, flightNumber);
+            statement.setLong(2, seat.getKey());
+            statement.setString(3, seat.getValue());
+        });
+    }
+
+    /**
+     * Flights of a passenger, read from flight_passenger rather than the cached
+     * Flight.passengers collections
+     * 
+     * @param passengerId
+     * @return flight numbers
+     */
+    public List<Long> findFlightNumbers(Long passengerId) {
+        return jdbcTemplate.queryForList(SELECT_PASSENGER_FLIGHTS_SQL, Long.class, passengerId);
+    }
+
+    /**
+     * Deletes the flight_passenger rows of a passenger
+     * 
+     * @param passengerId
+     */
+    public void deleteFlightPassengers(Long passengerId) {
+        jdbcTemplate.update(DELETE_PASSENGER_FLIGHTS_SQL, passengerId);
+    }
+
+    /**
+     * Deletes the seat assignment of a passenger on a flight
+     * 
+     * @param flightNumber
+     * @param passengerId
+     */
+    public void deleteSeatAssignment(Long flightNumber, Long passengerId) {
+        jdbcTemplate.update(DELETE_SEAT_ASSIGNMENT_SQL, flightNumber, passengerId);
+    }
+
+}
@@ -1,6 +1,18 @@
 package flight.tracker.dao;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
 import flight.tracker.entity.Passenger;
 
@@ -10,4 +22,76 @@ import flight.tracker.entity.Passenger;
  */
 public interface PassengerDao extends JpaRepository<Passenger, Long> {
 
+    String PASSENGER_ROW_SELECT = "select new flight.tracker.dao.PassengerRow(p.passengerId,"
+            + " p.passengerFirstName, p.passengerLastName, p.passengerEmail, p.passengerSeatNumber, p.version)"
+            + " from Passenger p";
+
+    /**
+     * Ids of the given passengers that exist, without loading the passengers
+     * 
+     * @param passengerIds
+     * @return existing passenger ids
+     */
+    @Query("select p.passengerId from Passenger p where p.passengerId in :passengerIds")
+    List<Long> findExistingPassengerIds(@Param("passengerIds") Collection<Long> passengerIds);
+
+    /**
+     * Every passenger as a projection, read with a cursor to build the search
+     * index; the caller must close the stream inside a transaction
+     * 
+     * @return stream of passenger rows
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(PASSENGER_ROW_SELECT)
+    Stream<PassengerRow> streamAllPassengerRows();
+
+    /**
+     * Keyset page of the passengers whose last name starts with a prefix, an
+     * index range scan on idx_passenger_last_name. The column collation decides
+     * whether the match ignores case and accents.
+     * 
+     * @param prefix           - LIKE pattern, escaped with '!'
+     * @param afterLastName    - last name of the previous page's last row
+     * @param afterPassengerId - passenger id of the previous page's last row
+     * @param pageable         - page size
+     * @return passenger rows ordered by last name and passenger id
+     */
+    @Query(PASSENGER_ROW_SELECT + " where p.passengerLastName like :prefix escape '!'"
+            + " and (p.passengerLastName > :afterLastName"
+            + " or (p.passengerLastName = :afterLastName and p.passengerId > :afterPassengerId))"
+            + " order by p.passengerLastName, p.passengerId")
+    List<PassengerRow> findByLastNamePrefix(@Param("prefix") String prefix,
+            @Param("afterLastName") String afterLastName, @Param("afterPassengerId") Long afterPassengerId,
+            Pageable pageable);
+
+    /**
+     * Keyset page of the passengers with an email address, an index lookup on
+     * idx_passenger_email
+     * 
+     * @param email
+     * @param afterPassengerId - passenger id of the previous page's last row
+     * @param pageable         - page size
+     * @return passenger rows ordered by passenger id
+     */
+    @Query(PASSENGER_ROW_SELECT + " where p.passengerEmail = :email and p.passengerId > :afterPassengerId"
+            + " order by p.passengerId")
+    List<PassengerRow> findByEmail(@Param("email") String email, @Param("afterPassengerId") Long afterPassengerId,
+            Pageable pageable);
+
+    /**
+     * The passenger in a seat of a flight, a lookup on the flight and seat
+     * unique key of seat_assignment
+     * 
+     * @param flightNumber
+     * @param seatNumber
+     * @return passenger row with the seat of this flight
+     */
+    @Query("select new flight.tracker.dao.PassengerRow(p.passengerId, p.passengerFirstName,"
+            + " p.passengerLastName, p.passengerEmail, s.seatNumber, p.version)"
+            + " from SeatAssignment s join Passenger p on p.passengerId = s.passengerId"
+            + " where s.flightNumber = :flightNumber and s.seatNumber = :seatNumber")
+    Optional<PassengerRow> findBySeat(@Param("flightNumber") Long flightNumber,
+            @Param("seatNumber") String seatNumber);
+
 }
@@ -0,0 +1,44 @@
+package flight.tracker.dao;
+
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.entity.Passenger;
+import lombok.Value;
+
+/***
+ * 
+ * Read-only projection of one passenger row, as returned by the passenger
+ * search and held by the in-memory search index
+ */
+@Value
+public class PassengerRow {
+
+    private Long passengerId;
+    private String passengerFirstName;
+    private String passengerLastName;
+    private String passengerEmail;
+    private String passengerSeatNumber;
+    private long version;
+
+    /**
+     * Snapshot of a passenger entity
+     * 
+     * @param passenger
+     * @return PassengerRow
+     */
+    public static PassengerRow of(Passenger passenger) {
+        return new PassengerRow(passenger.getPassengerId(), passenger.getPassengerFirstName(),
+                passenger.getPassengerLastName(), passenger.getPassengerEmail(), passenger.getPassengerSeatNumber(),
+                passenger.getVersion());
+    }
+
+    /**
+     * Converts the row to the passenger part of FlightData
+     * 
+     * @return FlightPassenger
+     */
+    public FlightPassenger toFlightPassenger() {
+        return new FlightPassenger(passengerId, passengerFirstName, passengerLastName, passengerEmail,
+                passengerSeatNumber);
+    }
+
+}
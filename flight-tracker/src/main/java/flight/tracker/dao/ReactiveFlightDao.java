@@ -0,0 +1,132 @@
+package flight.tracker.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/***
+ * 
+ * ReactiveFlightDao reads flights, passengers and airlines over R2DBC from the
+ * tables the JPA entities map, without blocking a thread per query. Rows are
+ * emitted as the subscriber requests them.
+ */
+@Repository
+public class ReactiveFlightDao {
+
+    private static final String FLIGHT_SELECT = "select flight_number, departure, arrival, airline_code from flight";
+    private static final String PASSENGER_ROW_SELECT = "select fp.flight_number, p.passenger_id,"
+            + " p.passenger_first_name, p.passenger_last_name, p.passenger_email,"
+            + " coalesce(s.seat_number, p.passenger_seat_number) as seat_number"
+            + " from flight_passenger fp join passenger p on p.passenger_id = fp.passenger_id"
+            + " left join seat_assignment s on s.flight_number = fp.flight_number and s.passenger_id = fp.passenger_id"
+            + " where fp.flight_number in (:flightNumbers)";
+    private static final String AIRLINE_SELECT = "select airline_code, airline_name, airline_phone_number,"
+            + " airline_website, airline_country from airline";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Flights ordered by flight number
+     * 
+     * @param airlineCode - optional filter
+     * @return flights without passengers
+     */
+    public Flux<FlightData> findFlights(Long airlineCode) {
+        GenericExecuteSpec query;
+
+        if (Objects.isNull(airlineCode)) {
+            query = databaseClient.sql(FLIGHT_SELECT + " order by flight_number");
+        } else {
+            query = databaseClient.sql(FLIGHT_SELECT + " where airline_code = :airlineCode order by flight_number")
+                    .bind("airlineCode", airlineCode);
+        }
+
+        return query.map(this::toFlightData).all();
+    }
+
+    /**
+     * Flight by flight number
+     * 
+     * @param flightNumber
+     * @return flight without passengers, empty if not found
+     */
+    public Mono<FlightData> findFlight(Long flightNumber) {
+        return databaseClient.sql(FLIGHT_SELECT + " where flight_number = :flightNumber")
+                .bind("flightNumber", flightNumber).map(this::toFlightData).one();
+    }
+
+    /**
+     * Passengers of the given flights as read-only rows
+     * 
+     * @param flightNumbers - not empty
+     * @return passenger rows
+     */
+    public Flux<FlightPassengerRow> findPassengerRows(Collection<Long> flightNumbers) {
+        return databaseClient.sql(PASSENGER_ROW_SELECT).bind("flightNumbers", flightNumbers)
+                .map(row -> new FlightPassengerRow(row.get("flight_number", Long.class),
+                        row.get("passenger_id", Long.class), row.get("passenger_first_name", String.class),
+                        row.get("passenger_last_name", String.class), row.get("passenger_email", String.class),
+                        row.get("seat_number", String.class)))
+                .all();
+    }
+
+    /**
+     * Airlines ordered by airline code
+     * 
+     * @return airlines
+     */
+    public Flux<FlightAirline> findAirlines() {
+        return databaseClient.sql(AIRLINE_SELECT + " order by airline_code").map(this::toFlightAirline).all();
+    }
+
+    /**
+     * Airline by airline code
+     * 
+     * @param airlineCode
+     * @return airline, empty if not found
+     */
+    public Mono<FlightAirline> findAirline(Long airlineCode) {
+        return databaseClient.sql(AIRLINE_SELECT + " where airline_code = :airlineCode")
+                .bind("airlineCode", airlineCode).map(this::toFlightAirline).one();
+    }
+
+    /**
+     * Maps a flight row
+     * 
+     * @param row
+     * @return FlightData
+     */
+    private FlightData toFlightData(Readable row) {
+        return new FlightData(row.get("flight_number", Long.class), row.get("departure", LocalDateTime.class),
+                row.get("arrival", LocalDateTime.class), row.get("airline_code", Long.class));
+    }
+
+    /**
+     * Maps an airline row
+     * 
+     * @param row
+     * @return FlightAirline
+     */
+    private FlightAirline toFlightAirline(Readable row) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineCode(row.get("airline_code", Long.class));
+        airline.setAirlineName(row.get("airline_name", String.class));
+        airline.setAirlinePhoneNumber(row.get("airline_phone_number", String.class));
+        airline.setAirlineWebsite(row.get("airline_website", String.class));
+        airline.setAirlineCountry(row.get("airline_country", String.class));
+        return airline;
+    }
+
+}
@@ -0,0 +1,73 @@
+package flight.tracker.dao;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.annotation.Timed;
+
+/***
+ * 
+ * ScheduleUploadDao stores uploaded schedules in schedule_upload_part with
+ * JDBC, a part per statement, so neither an upload nor a download holds more
+ * than one part in memory or in a persistence context. It joins the
+ * surrounding JPA transaction, if any.
+ */
+@Repository
+@Timed("flight.tracker.dao")
+public class ScheduleUploadDao {
+
+    private static final String INSERT_PART_SQL = "insert into schedule_upload_part (file_name, part_number, content)"
+            + " values (:fileName, :partNumber, :content)";
+    private static final String COUNT_PARTS_SQL = "select count(*) from schedule_upload_part"
+            + " where file_name = :fileName";
+    private static final String SELECT_PART_SQL = "select content from schedule_upload_part"
+            + " where file_name = :fileName and part_number = :partNumber";
+    private static final String DELETE_PARTS_SQL = "delete from schedule_upload_part where file_name = :fileName";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Saves a part of an upload
+     * 
+     * @param fileName
+     * @param partNumber - 0 for the first part
+     * @param content
+     */
+    public void savePart(String fileName, int partNumber, byte[] content) {
+        jdbcTemplate.update(INSERT_PART_SQL,
+                Map.of("fileName", fileName, "partNumber", partNumber, "content", content));
+    }
+
+    /**
+     * @param fileName
+     * @return parts of the upload, 0 if there is no such upload
+     */
+    public int countParts(String fileName) {
+        return jdbcTemplate.queryForObject(COUNT_PARTS_SQL, Map.of("fileName", fileName), Integer.class);
+    }
+
+    /**
+     * @param fileName
+     * @param partNumber
+     * @return content of the part
+     */
+    public byte[] findPart(String fileName, int partNumber) {
+        return jdbcTemplate.queryForObject(SELECT_PART_SQL, Map.of("fileName", fileName, "partNumber", partNumber),
+                byte[].class);
+    }
+
+    /**
+     * Deletes an upload
+     * 
+     * @param fileName
+     * @return deleted parts
+     */
+    public int deleteParts(String fileName) {
+        return jdbcTemplate.update(DELETE_PARTS_SQL, Map.of("fileName", fileName));
+    }
+
+}
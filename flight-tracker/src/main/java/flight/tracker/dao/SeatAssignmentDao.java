@@ -0,0 +1,49 @@
+package flight.tracker.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import flight.tracker.entity.SeatAssignment;
+import flight.tracker.entity.SeatAssignment.SeatAssignmentId;
+
+/***
+ * 
+ * SeatAssignmentDao interface extends JpaRepository
+ */
+public interface SeatAssignmentDao extends JpaRepository<SeatAssignment, SeatAssignmentId> {
+
+    /**
+     * Taken seats of a flight
+     * 
+     * @param flightNumber
+     * @return seat numbers
+     */
+    @Query("select s.seatNumber from SeatAssignment s where s.flightNumber = :flightNumber")
+    List<String> findSeatNumbersByFlightNumber(@Param("flightNumber") Long flightNumber);
+
+    /**
+     * Deletes the seat assignments of the given flights in one statement
+     * 
+     * @param flightNumbers
+     * @return deleted rows
+     */
+    @Modifying
+    @Query("delete from SeatAssignment s where s.flightNumber in :flightNumbers")
+    int deleteByFlightNumberIn(@Param("flightNumbers") Collection<Long> flightNumbers);
+
+    /**
+     * Deletes the seat assignments of a passenger in one statement
+     * 
+     * @param passengerId
+     * @return deleted rows
+     */
+    @Modifying
+    @Query("delete from SeatAssignment s where s.passengerId = :passengerId")
+    int deleteByPassengerId(@Param("passengerId") Long passengerId);
+
+}
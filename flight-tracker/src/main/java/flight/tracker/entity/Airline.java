@@ -3,12 +3,16 @@ package flight.tracker.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -19,6 +23,8 @@ import lombok.ToString;
  * 
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "airline")
 @Data
 public class Airline {
 
@@ -26,7 +32,8 @@ public class Airline {
      * Airline entity fields
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "airline_id")
+    @TableGenerator(name = "airline_id", table = "id_generator", pkColumnName = "id_name", valueColumnName = "next_id", pkColumnValue = "airline", allocationSize = 50)
     private Long airlineCode;
 
     private String airlineName;
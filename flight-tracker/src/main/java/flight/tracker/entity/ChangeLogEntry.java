@@ -0,0 +1,74 @@
+package flight.tracker.entity;
+
+import java.time.Instant;
+
+import flight.tracker.controller.model.ChangeEvent.EntityType;
+import flight.tracker.controller.model.ChangeEvent.Operation;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/***
+ * Outbox row of one change, written in the transaction that made the change
+ * by ChangeLogBatchDao. The identity column gives the changes their sequence. A RESYNC row without
+ * an entity marks where retention has removed older rows.
+ *
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_entity", columnList = "entity_type, entity_id, sequence"),
+        @Index(name = "idx_change_log_changed_at", columnList = "changed_at") })
+@Data
+@NoArgsConstructor
+public class ChangeLogEntry {
+
+    /**
+     * ChangeLogEntry entity fields
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    private Long flightNumber;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    /**
+     * ChangeLogEntry constructor sets the change
+     *
+     * @param entityType
+     * @param entityId
+     * @param operation
+     * @param flightNumber
+     * @param changedAt
+     */
+    public ChangeLogEntry(EntityType entityType, Long entityId, Operation operation, Long flightNumber,
+            Instant changedAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.flightNumber = flightNumber;
+        this.changedAt = changedAt;
+    }
+
+}
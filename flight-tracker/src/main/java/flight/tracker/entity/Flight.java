@@ -1,17 +1,27 @@
 package flight.tracker.entity;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -22,6 +32,13 @@ import lombok.ToString;
  * 
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_flight_airline_departure", columnList = "airline_code, departure"),
+        @Index(name = "idx_flight_airline_arrival", columnList = "airline_code, arrival"),
+        @Index(name = "idx_flight_departure", columnList = "departure"),
+        @Index(name = "idx_flight_arrival", columnList = "arrival") })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "flight")
 @Data
 public class Flight {
 
@@ -29,19 +46,30 @@ public class Flight {
      * Flight entity fields
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "flight_id")
+    @TableGenerator(name = "flight_id", table = "id_generator", pkColumnName = "id_name", valueColumnName = "next_id", pkColumnValue = "flight", allocationSize = 50)
     private Long flightNumber;
 
-    private String departureDate;
-    private String departureTime;
-    private String arrivalDate;
-    private String arrivalTime;
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
 
     /**
-     * Flight entity many to many relationship with passenger
+     * Optimistic lock version, bumped by every change to the fields above
+     */
+    @Version
+    @EqualsAndHashCode.Exclude
+    private long version;
+
+    /**
+     * Flight entity many to many relationship with passenger. Boarding only
+     * inserts join rows, so it leaves the version alone and concurrent boardings
+     * of one flight don't conflict.
      */
     @EqualsAndHashCode.Exclude
     @ToString.Exclude
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "flight-passengers")
+    @OptimisticLock(excluded = true)
     @ManyToMany(cascade = CascadeType.PERSIST)
     @JoinTable(name = "flight_passenger", joinColumns = @JoinColumn(name = "flight_number"), inverseJoinColumns = @JoinColumn(name = "passenger_id"))
     private Set<Passenger> passengers = new HashSet<>();
@@ -51,7 +79,7 @@ public class Flight {
      */
     @EqualsAndHashCode.Exclude
     @ToString.Exclude
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne
     @JoinColumn(name = "airline_code")
     private Airline airline;
 
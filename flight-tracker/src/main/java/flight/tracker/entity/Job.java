@@ -0,0 +1,91 @@
+package flight.tracker.entity;
+
+import java.time.Instant;
+
+import flight.tracker.controller.model.JobInfo.JobStatus;
+import flight.tracker.controller.model.JobInfo.JobType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/***
+ * Background job, see flight.tracker.service.JobService. The checkpoint, the
+ * counts and the rejected items in job_error are written in the transaction of
+ * each chunk, so a job resumes after the last committed chunk. The version keeps two instances
+ * from running the same job.
+ *
+ */
+@Entity
+@Table(name = "job", indexes = @Index(name = "idx_job_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+public class Job {
+
+    /**
+     * Job entity fields
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "job_id")
+    @TableGenerator(name = "job_id", table = "id_generator", pkColumnName = "id_name", valueColumnName = "next_id", pkColumnValue = "job", allocationSize = 50)
+    private Long jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private JobType jobType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobStatus status;
+
+    @Column(length = 4000)
+    private String parameters;
+
+    @Column(length = 1000)
+    private String checkpoint;
+
+    private long processed;
+    private long rejected;
+    private Long total;
+    private boolean cancelRequested;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(length = 64)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant startedAt;
+    private Instant heartbeatAt;
+    private Instant finishedAt;
+
+    @Version
+    private long version;
+
+    /**
+     * Job constructor creates a queued job
+     *
+     * @param jobType
+     * @param parameters - JSON object
+     * @param createdAt
+     */
+    public Job(JobType jobType, String parameters, Instant createdAt) {
+        this.jobType = jobType;
+        this.status = JobStatus.QUEUED;
+        this.parameters = parameters;
+        this.createdAt = createdAt;
+    }
+
+}
@@ -0,0 +1,54 @@
+package flight.tracker.entity;
+
+import flight.tracker.controller.model.JobInfo.JobItemError;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/***
+ * An item a job rejected, written with the chunk that rejected it. Pooled ids
+ * let a chunk's errors be inserted in batches.
+ *
+ */
+@Entity
+@Table(name = "job_error", indexes = @Index(name = "idx_job_error_job", columnList = "jobId, item"))
+@Data
+@NoArgsConstructor
+public class JobError {
+
+    /**
+     * JobError entity fields
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "job_error_id")
+    @TableGenerator(name = "job_error_id", table = "id_generator", pkColumnName = "id_name", valueColumnName = "next_id", pkColumnValue = "job_error", allocationSize = 50)
+    private Long jobErrorId;
+
+    @Column(nullable = false)
+    private Long jobId;
+
+    private long item;
+
+    @Column(length = 1000)
+    private String message;
+
+    /**
+     * JobError constructor sets the job and the rejected item
+     *
+     * @param jobId
+     * @param itemError
+     */
+    public JobError(Long jobId, JobItemError itemError) {
+        this.jobId = jobId;
+        this.item = itemError.getItem();
+        this.message = itemError.getMessage();
+    }
+
+}
@@ -3,17 +3,30 @@ package flight.tracker.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_passenger_last_name", columnList = "passengerLastName"),
+        @Index(name = "idx_passenger_email", columnList = "passengerEmail") })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "passenger")
 @Data
 public class Passenger {
 
@@ -21,7 +34,8 @@ public class Passenger {
      * Passenger entity fields
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "passenger_id")
+    @TableGenerator(name = "passenger_id", table = "id_generator", pkColumnName = "id_name", valueColumnName = "next_id", pkColumnValue = "passenger", allocationSize = 50)
     private Long passengerId;
 
     private String passengerFirstName;
@@ -29,11 +43,19 @@ public class Passenger {
     private String passengerEmail;
     private String passengerSeatNumber;
 
+    /**
+     * Optimistic lock version, bumped by every change to the fields above
+     */
+    @Version
+    @EqualsAndHashCode.Exclude
+    private long version;
+
     /**
      * Passenger entity many to many relationship with flight
      */
     @EqualsAndHashCode.Exclude
     @ToString.Exclude
+    @OptimisticLock(excluded = true)
     @ManyToMany(mappedBy = "passengers", cascade = CascadeType.PERSIST)
     private Set<Flight> flights = new HashSet<>();
 
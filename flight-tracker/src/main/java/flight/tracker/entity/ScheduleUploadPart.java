@@ -0,0 +1,56 @@
+package flight.tracker.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/***
+ * A part of an uploaded flight schedule. Uploads are kept in the database so
+ * the instance that claims their import job can read them, whichever instance
+ * received them; see ScheduleUploadDao, which reads and writes the parts.
+ *
+ */
+@Entity
+@Table(name = "schedule_upload_part")
+@IdClass(ScheduleUploadPart.ScheduleUploadPartId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleUploadPart {
+
+    public static final int MAX_PART_BYTES = 1 << 20;
+
+    /**
+     * ScheduleUploadPart entity fields
+     */
+    @Id
+    @Column(name = "file_name", length = 64)
+    private String fileName;
+
+    @Id
+    @Column(name = "part_number")
+    private Integer partNumber;
+
+    @Column(nullable = false, length = MAX_PART_BYTES)
+    private byte[] content;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScheduleUploadPartId implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String fileName;
+        private Integer partNumber;
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package flight.tracker.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/***
+ * Seat of a passenger on a flight. The unique constraint on flight and seat is
+ * the final check against double booking behind the in-memory seat maps.
+ *
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_seat_assignment_flight_seat", columnNames = {
+        "flight_number", "seat_number" }))
+@IdClass(SeatAssignment.SeatAssignmentId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAssignment {
+
+    /**
+     * SeatAssignment entity fields
+     */
+    @Id
+    @Column(name = "flight_number")
+    private Long flightNumber;
+
+    @Id
+    @Column(name = "passenger_id")
+    private Long passengerId;
+
+    @Column(name = "seat_number", nullable = false)
+    private String seatNumber;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SeatAssignmentId implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long flightNumber;
+        private Long passengerId;
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package flight.tracker.service;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import flight.tracker.controller.model.JobInfo.JobType;
+import flight.tracker.dao.AirlineDao;
+import flight.tracker.dao.FlightDao;
+
+/***
+ * Deletes an airline with all of its flights as a job, a chunk of flights at
+ * a time, see FlightTrackerService.deleteAirlineById. Each chunk deletes the
+ * airline's next flights, so no checkpoint is needed to resume. Parameter:
+ * airlineCode.
+ *
+ */
+@Component
+public class AirlinePurgeStep implements JobStep {
+
+    static final String AIRLINE_CODE = "airlineCode";
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private AirlineDao airlineDao;
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Override
+    public JobType getJobType() {
+        return JobType.AIRLINE_PURGE;
+    }
+
+    @Override
+    public void validate(Map<String, String> parameters) {
+        Long airlineCode = JobStep.longParameter(parameters, AIRLINE_CODE);
+
+        if (!airlineDao.existsById(airlineCode)) {
+            throw new NoSuchElementException("AirlineCode not found: " + airlineCode);
+        }
+    }
+
+    @Override
+    public Long countWork(Map<String, String> parameters) {
+        return flightDao.countByAirlineCode(JobStep.longParameter(parameters, AIRLINE_CODE));
+    }
+
+    @Override
+    public Chunk runChunk(Map<String, String> parameters, String checkpoint) {
+        Long airlineCode = JobStep.longParameter(parameters, AIRLINE_CODE);
+        int deleted = flightTrackerService.deleteAirlineFlights(airlineCode);
+
+        if (deleted == 0) {
+            return new Chunk(0, null, flightTrackerService.deleteEmptyAirline(airlineCode));
+        }
+
+        return new Chunk(deleted, null, false);
+    }
+
+}
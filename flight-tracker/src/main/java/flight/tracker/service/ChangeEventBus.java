@@ -0,0 +1,165 @@
+package flight.tracker.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import flight.tracker.controller.model.ChangeEvent;
+import flight.tracker.controller.model.ChangeEvent.Operation;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/***
+ * In-process bus of committed changes. Every change gets the next sequence
+ * number once its transaction has committed and is handed to each subscriber.
+ * The most recent events are kept so a reconnecting subscriber can resume
+ * after the last sequence number it saw.
+ * 
+ * Each subscriber has its own bounded buffer. A subscriber that falls so far
+ * behind that its buffer overflows has its stream completed at once instead of
+ * slowing the others down or growing without bound; it reconnects and resumes
+ * from its last sequence.
+ * 
+ */
+@Component
+@Slf4j
+public class ChangeEventBus {
+
+    private final int historySize;
+    private final int subscriberBufferSize;
+    private final Deque<ChangeEvent> history = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private long sequence;
+
+    /**
+     * ChangeEventBus constructor sets the history and buffer bounds
+     * 
+     * @param historySize
+     * @param subscriberBufferSize
+     */
+    public ChangeEventBus(@Value("${flight-tracker.change-events.history-size:10000}") int historySize,
+            @Value("${flight-tracker.change-events.subscriber-buffer-size:256}") int subscriberBufferSize) {
+        this.historySize = historySize;
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+
+    /**
+     * Publishes a change once the transaction that made it has committed
+     * 
+     * @param change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChange change) {
+        publish(change);
+    }
+
+    /**
+     * Assigns the next sequence number to a change and hands it to the
+     * subscribers. Synchronized so that sequence order, history order and
+     * delivery order are the same.
+     * 
+     * @param change
+     * @return published event
+     */
+    public synchronized ChangeEvent publish(EntityChange change) {
+        ChangeEvent event = new ChangeEvent(++sequence, change.getEntityType(), change.getEntityId(),
+                change.getOperation(), change.getFlightNumber(), Instant.now());
+
+        history.addLast(event);
+
+        if (history.size() > historySize) {
+            history.removeFirst();
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.events.tryEmitNext(event).isFailure()) {
+                log.warn("Disconnecting change event subscriber that fell {} events behind", subscriberBufferSize);
+                subscribers.remove(subscriber);
+                subscriber.disconnect.tryEmitEmpty();
+            }
+        }
+
+        return event;
+    }
+
+    /**
+     * Subscribes to the changes after a sequence number. The missed events that
+     * are still kept are replayed first, followed by the live events, with no
+     * gap or duplicate in between.
+     * 
+     * @param afterSequence - last sequence number seen, null for live events only
+     * @return events
+     */
+    public Flux<ChangeEvent> subscribe(Long afterSequence) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(subscriberBufferSize);
+            List<ChangeEvent> replay = register(subscriber, afterSequence);
+
+            // Completing doesn't wait for demand, unlike events or an error.
+            return Flux.fromIterable(replay).concatWith(subscriber.events.asFlux())
+                    .takeUntilOther(subscriber.disconnect.asMono())
+                    .doFinally(signal -> subscribers.remove(subscriber));
+        });
+    }
+
+    /**
+     * Registers a subscriber and collects what it has to replay. Synchronized
+     * with publish, so every event lands either in the replay or in the
+     * subscriber's buffer.
+     * 
+     * @param subscriber
+     * @param afterSequence
+     * @return events to replay
+     */
+    private synchronized List<ChangeEvent> register(Subscriber subscriber, Long afterSequence) {
+        subscribers.add(subscriber);
+        List<ChangeEvent> replay = new ArrayList<>();
+
+        if (Objects.isNull(afterSequence) || afterSequence == sequence) {
+            return replay;
+        }
+
+        long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().getSequence();
+
+        // Events were dropped from the history, or the sequence is from before a
+        // restart: the client can't catch up by replay.
+        if (afterSequence < oldest - 1 || afterSequence > sequence) {
+            replay.add(new ChangeEvent(sequence, null, null, Operation.RESYNC, null, Instant.now()));
+            return replay;
+        }
+
+        for (ChangeEvent event : history) {
+            if (event.getSequence() > afterSequence) {
+                replay.add(event);
+            }
+        }
+
+        return replay;
+    }
+
+    /**
+     * Bounded event buffer of one subscriber and the signal that disconnects it
+     */
+    private static final class Subscriber {
+
+        private final Sinks.Many<ChangeEvent> events;
+        private final Sinks.Empty<Void> disconnect = Sinks.empty();
+
+        private Subscriber(int bufferSize) {
+            this.events = Sinks.many().unicast().onBackpressureBuffer(Queues.<ChangeEvent>get(bufferSize).get());
+        }
+
+    }
+
+}
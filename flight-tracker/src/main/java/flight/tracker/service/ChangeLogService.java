@@ -0,0 +1,315 @@
+package flight.tracker.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import flight.tracker.config.ReadWriteRoutingDataSource;
+import flight.tracker.controller.model.ChangeBatch;
+import flight.tracker.controller.model.ChangeEvent;
+import flight.tracker.controller.model.ChangeEvent.Operation;
+import flight.tracker.dao.ChangeLogBatchDao;
+import flight.tracker.dao.ChangeLogDao;
+import flight.tracker.entity.ChangeLogEntry;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * Transactional outbox of the changes made by FlightTrackerService. Every
+ * change is written to change_log in the transaction that makes it, so the log
+ * holds exactly the committed changes. Clients sync incrementally by reading
+ * the log after the last sequence number they have seen.
+ *
+ * Sequence numbers are assigned at insert, but transactions commit in any
+ * order: a reader could see sequence 10 while 9 is still uncommitted, move
+ * past it and never see 9. Reads therefore stop at the first entry younger
+ * than the commit lag, which has to be longer than the time between writing
+ * the entry and committing. A transaction's entries are collected and written
+ * in one batch just before it commits, so that time does not grow with the
+ * length of the transaction. That order only holds on the primary: a lagging
+ * replica can show a later entry before an earlier one, so the log is always
+ * read from the primary.
+ *
+ * Compaction removes entries followed by a later entry for the same entity,
+ * retention removes everything older than the retention period and leaves a
+ * RESYNC marker in their place.
+ *
+ */
+@Service
+@Timed("flight.tracker.service")
+@Slf4j
+public class ChangeLogService {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int COMPACTION_BATCH_SIZE = 1000;
+
+    private final Duration commitLag;
+    private final Duration retention;
+
+    @Autowired
+    private ChangeLogDao changeLogDao;
+
+    @Autowired
+    private ChangeLogBatchDao changeLogBatchDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * ChangeLogService constructor sets the commit lag and retention period
+     *
+     * @param commitLag
+     * @param retention
+     */
+    public ChangeLogService(@Value("${flight-tracker.change-log.commit-lag:PT2S}") Duration commitLag,
+            @Value("${flight-tracker.change-log.retention:P7D}") Duration retention) {
+        this.commitLag = commitLag;
+        this.retention = retention;
+    }
+
+    /**
+     * Writes a change to the log in the transaction that made it, once that
+     * transaction is about to commit
+     *
+     * @param change
+     */
+    @EventListener
+    public void onEntityChange(EntityChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeChanges(List.of(change));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<EntityChange> pending = (List<EntityChange>) TransactionSynchronizationManager.getResource(this);
+
+        if (Objects.isNull(pending)) {
+            List<EntityChange> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    writeChanges(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(ChangeLogService.this);
+                }
+            });
+            pending = changes;
+        }
+
+        pending.add(change);
+    }
+
+    /**
+     * Inserts changes in one batch, stamped with the time of the insert
+     *
+     * @param changes
+     */
+    private void writeChanges(List<EntityChange> changes) {
+        Instant changedAt = Instant.now();
+        changeLogBatchDao.insertChanges(changes.stream().map(change -> new ChangeLogEntry(change.getEntityType(),
+                change.getEntityId(), change.getOperation(), change.getFlightNumber(), changedAt)).toList());
+    }
+
+    /**
+     * Retrieves the changes after a sequence number. Only the latest change of
+     * each entity in the batch is returned.
+     *
+     * @param since - last sequence number the client has applied, null for a
+     *              client without data
+     * @param limit - batch size, capped at MAX_BATCH_SIZE
+     * @return batch of changes
+     */
+    @Transactional(readOnly = true)
+    public ChangeBatch retrieveChanges(Long since, Integer limit) {
+        int batchSize = resolveBatchSize(limit);
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> readChanges(since, batchSize));
+    }
+
+    /**
+     * Reads the changes after a sequence number in the current transaction
+     *
+     * @param since
+     * @param batchSize
+     * @return batch of changes
+     */
+    private ChangeBatch readChanges(Long since, int batchSize) {
+        Instant cutoff = Instant.now().minus(commitLag);
+
+        if (Objects.isNull(since)) {
+            return resync(cutoff);
+        }
+
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative: " + since);
+        }
+
+        // Fetch one extra entry to find out whether another batch exists.
+        List<ChangeLogEntry> entries = changeLogDao.findChangesAfter(since, PageRequest.of(0, batchSize + 1));
+
+        if (entries.isEmpty()) {
+            Long latestSequence = changeLogDao.findLatestSequence();
+
+            // A sequence the log never reached, e.g. from before a database restore.
+            return since > Objects.requireNonNullElse(latestSequence, 0L) ? resync(cutoff)
+                    : new ChangeBatch(new ArrayList<>(), since, false, false);
+        }
+
+        if (entries.get(0).getOperation() == Operation.RESYNC) {
+            return resync(cutoff);
+        }
+
+        Map<List<Object>, ChangeEvent> latestChanges = new LinkedHashMap<>();
+        long nextSince = since;
+        boolean hasMore = entries.size() > batchSize;
+
+        for (ChangeLogEntry entry : entries.subList(0, Math.min(batchSize, entries.size()))) {
+            if (entry.getChangedAt().isAfter(cutoff)) {
+                hasMore = false;
+                break;
+            }
+
+            List<Object> key = Arrays.asList(entry.getEntityType(), entry.getEntityId(), entry.getFlightNumber());
+            latestChanges.remove(key);
+            latestChanges.put(key, toChangeEvent(entry));
+            nextSince = entry.getSequence();
+        }
+
+        return new ChangeBatch(new ArrayList<>(latestChanges.values()), nextSince, hasMore, false);
+    }
+
+    /**
+     * Batch telling the client to reload its data and continue from the latest
+     * sequence number older than the cutoff
+     *
+     * @param cutoff
+     * @return resync batch
+     */
+    private ChangeBatch resync(Instant cutoff) {
+        Long latestSequence = changeLogDao.findLatestSequenceBefore(cutoff);
+        return new ChangeBatch(new ArrayList<>(), Objects.requireNonNullElse(latestSequence, 0L), false, true);
+    }
+
+    /**
+     * Validates the requested batch size
+     *
+     * @param limit
+     * @return batch size
+     */
+    private int resolveBatchSize(Integer limit) {
+        if (Objects.isNull(limit)) {
+            return DEFAULT_BATCH_SIZE;
+        }
+
+        if (limit < 1 || limit > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_BATCH_SIZE + ": " + limit);
+        }
+
+        return limit;
+    }
+
+    /**
+     * Converts a change log entry to its response
+     *
+     * @param entry
+     * @return change event
+     */
+    private ChangeEvent toChangeEvent(ChangeLogEntry entry) {
+        return new ChangeEvent(entry.getSequence(), entry.getEntityType(), entry.getEntityId(), entry.getOperation(),
+                entry.getFlightNumber(), entry.getChangedAt());
+    }
+
+    /**
+     * Deletes the entries superseded by a later entry for the same entity and
+     * flight, one batch per transaction
+     *
+     * @return deleted entries
+     */
+    @Scheduled(fixedDelayString = "${flight-tracker.change-log.compaction-interval:PT5M}")
+    public int compact() {
+        int deleted = 0;
+        long after = 0;
+
+        while (true) {
+            List<Long> sequences = changeLogDao.findSupersededSequences(after,
+                    PageRequest.of(0, COMPACTION_BATCH_SIZE));
+
+            if (sequences.isEmpty()) {
+                break;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> changeLogDao.deleteAllByIdInBatch(sequences));
+            deleted += sequences.size();
+            after = sequences.get(sequences.size() - 1);
+        }
+
+        if (deleted > 0) {
+            log.info("Compacted {} change log entries", deleted);
+        }
+
+        return deleted;
+    }
+
+    /**
+     * Removes the entries older than the retention period
+     *
+     * @return deleted entries
+     */
+    @Scheduled(fixedDelayString = "${flight-tracker.change-log.retention-interval:PT1H}")
+    public int purge() {
+        return purgeBefore(Instant.now().minus(retention));
+    }
+
+    /**
+     * Removes the entries written before the given time. The newest of them
+     * becomes a RESYNC marker, so a client still behind it learns that it has
+     * missed changes.
+     *
+     * @param changedBefore
+     * @return deleted entries
+     */
+    public int purgeBefore(Instant changedBefore) {
+        int deleted = transactionTemplate.execute(status -> {
+            Long markerSequence = changeLogDao.findLatestSequenceBefore(changedBefore);
+
+            if (Objects.isNull(markerSequence)) {
+                return 0;
+            }
+
+            ChangeLogEntry marker = changeLogDao.getReferenceById(markerSequence);
+            marker.setEntityType(null);
+            marker.setEntityId(null);
+            marker.setOperation(Operation.RESYNC);
+            marker.setFlightNumber(null);
+
+            return changeLogDao.deleteBySequenceLessThan(markerSequence);
+        });
+
+        if (deleted > 0) {
+            log.info("Purged {} change log entries written before {}", deleted, changedBefore);
+        }
+
+        return deleted;
+    }
+
+}
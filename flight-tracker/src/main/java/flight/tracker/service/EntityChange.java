@@ -0,0 +1,25 @@
+package flight.tracker.service;
+
+import flight.tracker.controller.model.ChangeEvent.EntityType;
+import flight.tracker.controller.model.ChangeEvent.Operation;
+import lombok.Value;
+
+/***
+ * Application event published by FlightTrackerService for every change it
+ * makes, inside the changing transaction
+ * 
+ */
+@Value
+public class EntityChange {
+
+    private EntityType entityType;
+    private Long entityId;
+    private Operation operation;
+
+    /**
+     * Flight the change belongs to, e.g. the flight a passenger was added to,
+     * null when there is none
+     */
+    private Long flightNumber;
+
+}
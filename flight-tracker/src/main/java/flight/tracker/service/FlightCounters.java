@@ -0,0 +1,285 @@
+package flight.tracker.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import flight.tracker.dao.AirlineCountRow;
+import flight.tracker.dao.FlightCountRow;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/***
+ * In-memory flight and passenger counts per airline and flight, so the
+ * statistics don't count rows on every read. FlightTrackerService updates
+ * them after each commit; the counts are LongAdders, so boardings of one
+ * flight add to them without contending.
+ *
+ * The counts start out unloaded. The reconciliation in
+ * FlightStatisticsService loads them from the database and periodically
+ * replaces them, which corrects the changes they missed: those made by other
+ * instances and those that committed while the reconciliation was reading.
+ *
+ */
+@Component
+public class FlightCounters {
+
+    private static final Comparator<FlightCount> BY_DEPARTURE = Comparator
+            .comparing(FlightCount::getDeparture, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FlightCount::getFlightNumber);
+
+    private volatile Counts counts;
+
+    /**
+     * Whether the counts have been loaded from the database
+     *
+     * @return true after the first reconciliation
+     */
+    public boolean isLoaded() {
+        return Objects.nonNull(counts);
+    }
+
+    /**
+     * Records a committed airline, so it is counted before its first flight
+     *
+     * @param airlineCode
+     */
+    public void airlineSaved(Long airlineCode) {
+        Counts current = counts;
+
+        if (Objects.nonNull(current)) {
+            current.airline(airlineCode);
+        }
+    }
+
+    /**
+     * Records a committed new or updated flight
+     *
+     * @param flightNumber
+     * @param airlineCode
+     * @param departure
+     */
+    public void flightSaved(Long flightNumber, Long airlineCode, LocalDateTime departure) {
+        Counts current = counts;
+
+        if (Objects.nonNull(current)) {
+            current.flights.compute(flightNumber, (key, flight) -> {
+                if (Objects.isNull(flight)) {
+                    AirlineCount airline = current.airline(airlineCode);
+                    FlightCount created = new FlightCount(flightNumber, airline, departure, new LongAdder());
+                    airline.flights.increment();
+                    airline.departures.add(created);
+                    return created;
+                }
+
+                if (Objects.equals(flight.departure, departure)) {
+                    return flight;
+                }
+
+                // Re-sorted by its new departure, still adding to the same count.
+                FlightCount moved = new FlightCount(flightNumber, flight.airline, departure, flight.passengers);
+                flight.airline.departures.remove(flight);
+                flight.airline.departures.add(moved);
+                return moved;
+            });
+        }
+    }
+
+    /**
+     * Records committed boardings of a flight
+     *
+     * @param flightNumber
+     * @param boarded      - number of passengers added
+     */
+    public void passengersBoarded(Long flightNumber, long boarded) {
+        Counts current = counts;
+
+        if (Objects.nonNull(current) && boarded != 0) {
+            FlightCount flight = current.flights.get(flightNumber);
+
+            if (Objects.nonNull(flight)) {
+                flight.passengers.add(boarded);
+                flight.airline.passengers.add(boarded);
+            }
+        }
+    }
+
+    /**
+     * Records a committed passenger delete
+     *
+     * @param flightNumbers - flights the passenger was on
+     */
+    public void passengerRemoved(Collection<Long> flightNumbers) {
+        flightNumbers.forEach(flightNumber -> passengersBoarded(flightNumber, -1));
+    }
+
+    /**
+     * Records a committed flight delete
+     *
+     * @param flightNumber
+     */
+    public void flightDeleted(Long flightNumber) {
+        Counts current = counts;
+
+        if (Objects.nonNull(current)) {
+            current.flights.computeIfPresent(flightNumber, (key, flight) -> {
+                flight.airline.flights.decrement();
+                flight.airline.passengers.add(-flight.passengers.sum());
+                flight.airline.departures.remove(flight);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Records a committed airline delete, with its flights
+     *
+     * @param airlineCode
+     */
+    public void airlineDeleted(Long airlineCode) {
+        Counts current = counts;
+
+        if (Objects.nonNull(current)) {
+            AirlineCount airline = current.airlines.remove(airlineCode);
+
+            if (Objects.nonNull(airline)) {
+                airline.departures.forEach(flight -> current.flights.remove(flight.flightNumber, flight));
+            }
+        }
+    }
+
+    /**
+     * Flights, passengers and departures in a time window of every airline
+     *
+     * @param from - inclusive
+     * @param to   - exclusive
+     * @return counts ordered by airline code
+     */
+    public List<AirlineCountRow> countByAirline(LocalDateTime from, LocalDateTime to) {
+        List<AirlineCountRow> rows = new ArrayList<>();
+        FlightCount fromKey = new FlightCount(Long.MIN_VALUE, null, from, null);
+        FlightCount toKey = new FlightCount(Long.MIN_VALUE, null, to, null);
+
+        counts.airlines.forEach((airlineCode, airline) -> rows.add(new AirlineCountRow(airlineCode,
+                airline.flights.sum(), airline.passengers.sum(), airline.departures.subSet(fromKey, toKey).size())));
+        rows.sort(Comparator.comparing(AirlineCountRow::getAirlineCode));
+        return rows;
+    }
+
+    /**
+     * Passengers of the flights of an airline
+     *
+     * @param airlineCode
+     * @return counts ordered by departure and flight number, null for an
+     *         unknown airline
+     */
+    public List<FlightCountRow> countByFlight(Long airlineCode) {
+        AirlineCount airline = counts.airlines.get(airlineCode);
+
+        if (Objects.isNull(airline)) {
+            return null;
+        }
+
+        return airline.departures.stream().map(flight -> new FlightCountRow(flight.flightNumber, airlineCode,
+                flight.departure, flight.passengers.sum())).toList();
+    }
+
+    /**
+     * Replaces the counts with those read from the database
+     *
+     * @param airlineCodes
+     * @param flights
+     * @return number of airlines and flights whose counts were off
+     */
+    public int load(Collection<Long> airlineCodes, Collection<FlightCountRow> flights) {
+        Counts loaded = new Counts();
+        airlineCodes.forEach(loaded::airline);
+
+        for (FlightCountRow row : flights) {
+            AirlineCount airline = loaded.airline(row.getAirlineCode());
+            LongAdder passengers = new LongAdder();
+            passengers.add(row.getPassengers());
+            FlightCount flight = new FlightCount(row.getFlightNumber(), airline, row.getDeparture(), passengers);
+            loaded.flights.put(row.getFlightNumber(), flight);
+            airline.flights.increment();
+            airline.passengers.add(row.getPassengers());
+            airline.departures.add(flight);
+        }
+
+        int drift = Objects.isNull(counts) ? 0 : drift(counts, loaded);
+        counts = loaded;
+        return drift;
+    }
+
+    /**
+     * Counts the flights and airlines that differ between two generations
+     *
+     * @param previous
+     * @param loaded
+     * @return number of differences
+     */
+    private static int drift(Counts previous, Counts loaded) {
+        int drift = 0;
+
+        for (Map.Entry<Long, FlightCount> entry : loaded.flights.entrySet()) {
+            FlightCount counted = previous.flights.get(entry.getKey());
+
+            if (Objects.isNull(counted) || counted.passengers.sum() != entry.getValue().passengers.sum()) {
+                drift++;
+            }
+        }
+
+        for (Long airlineCode : previous.airlines.keySet()) {
+            if (!loaded.airlines.containsKey(airlineCode)) {
+                drift++;
+            }
+        }
+
+        return drift + (int) previous.flights.keySet().stream().filter(key -> !loaded.flights.containsKey(key))
+                .count();
+    }
+
+    /**
+     * One generation of counts, replaced as a whole by a reconciliation
+     */
+    private static class Counts {
+
+        private final Map<Long, AirlineCount> airlines = new ConcurrentHashMap<>();
+        private final Map<Long, FlightCount> flights = new ConcurrentHashMap<>();
+
+        AirlineCount airline(Long airlineCode) {
+            return airlines.computeIfAbsent(airlineCode, key -> new AirlineCount());
+        }
+
+    }
+
+    private static class AirlineCount {
+
+        private final LongAdder flights = new LongAdder();
+        private final LongAdder passengers = new LongAdder();
+        private final NavigableSet<FlightCount> departures = new ConcurrentSkipListSet<>(BY_DEPARTURE);
+
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class FlightCount {
+
+        private final Long flightNumber;
+        private final AirlineCount airline;
+        private final LocalDateTime departure;
+        private final LongAdder passengers;
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package flight.tracker.service;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import flight.tracker.config.ReadWriteRoutingDataSource;
+import flight.tracker.controller.model.FlightData;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/***
+ * Bounded cache of serialized FlightData responses per flight number. Every
+ * entry gets a new version when it is built, and its strong ETag is derived
+ * from that version, so an ETag never names two different responses.
+ * 
+ */
+@Component
+public class FlightResponseCache {
+
+    /**
+     * Distinguishes versions handed out before and after a restart
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong versions = new AtomicLong();
+    private final Cache<Long, CachedFlight> cache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * FlightResponseCache constructor sets the cache bound
+     * 
+     * @param maximumSize
+     */
+    public FlightResponseCache(@Value("${flight-tracker.response-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    /**
+     * Gets the cached response for a flight, loading and serializing it on a
+     * miss. An invalidation that arrives while the flight is being loaded
+     * waits for the load and then removes its result. Loads read from the
+     * primary: a response cached from a lagging replica would outlive the lag.
+     * 
+     * @param flightNumber
+     * @param loader
+     * @return cached response
+     */
+    public CachedFlight get(Long flightNumber, Function<Long, FlightData> loader) {
+        return cache.get(flightNumber,
+                key -> serialize(ReadWriteRoutingDataSource.readFromPrimary(() -> loader.apply(key))));
+    }
+
+    /**
+     * Invalidates the cached responses of the given flights
+     * 
+     * @param flightNumbers
+     */
+    public void invalidate(Collection<Long> flightNumbers) {
+        cache.invalidateAll(flightNumbers);
+    }
+
+    /**
+     * Serializes a flight under a new version
+     * 
+     * @param flight
+     * @return cached response
+     */
+    private CachedFlight serialize(FlightData flight) {
+        try {
+            String eTag = "\"" + flight.getFlightNumber() + "-" + epoch + "-" + versions.incrementAndGet() + "\"";
+            return new CachedFlight(eTag, objectMapper.writeValueAsBytes(flight));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Unable to serialize flight " + flight.getFlightNumber(), e);
+        }
+    }
+
+    /**
+     * Serialized flight response with its strong ETag
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedFlight {
+
+        private final String eTag;
+        private final byte[] json;
+
+    }
+
+}
@@ -0,0 +1,128 @@
+package flight.tracker.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import flight.tracker.config.ReadWriteRoutingDataSource;
+import flight.tracker.controller.model.AirlineStatistics;
+import flight.tracker.controller.model.FlightStatistics;
+import flight.tracker.dao.AirlineDao;
+import flight.tracker.dao.FlightAggregateDao;
+import flight.tracker.dao.FlightCountRow;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * Airline and flight statistics for the ops dashboards: flights, passengers
+ * and load factor per airline, upcoming departures per airline and
+ * passengers per flight. They are served from FlightCounters; until the
+ * counters are loaded, from GROUP BY queries.
+ *
+ * The reconciliation reloads the counters from the primary at startup and
+ * then periodically. A change that commits while it reads can be counted
+ * twice or not at all until the next run.
+ *
+ */
+@Service
+@Timed("flight.tracker.service")
+@Slf4j
+public class FlightStatisticsService {
+
+    private static final int DEFAULT_UPCOMING_HOURS = 24;
+    private static final int MAX_UPCOMING_HOURS = 24 * 30;
+
+    @Autowired
+    private FlightCounters flightCounters;
+
+    @Autowired
+    private FlightAggregateDao flightAggregateDao;
+
+    @Autowired
+    private AirlineDao airlineDao;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Retrieves the statistics of every airline
+     * 
+     * @param upcomingHours - departures window from now, optional
+     * @return statistics ordered by airline code
+     */
+    @Transactional(readOnly = true)
+    public List<AirlineStatistics> retrieveAirlineStatistics(Integer upcomingHours) {
+        int hours = Objects.isNull(upcomingHours) ? DEFAULT_UPCOMING_HOURS : upcomingHours;
+
+        if (hours < 1 || hours > MAX_UPCOMING_HOURS) {
+            throw new IllegalArgumentException(
+                    "upcomingHours must be between 1 and " + MAX_UPCOMING_HOURS + ": " + upcomingHours);
+        }
+
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusHours(hours);
+        int seatsPerFlight = seatInventory.getTotalSeats();
+
+        return (flightCounters.isLoaded() ? flightCounters.countByAirline(from, to)
+                : flightAggregateDao.countByAirline(from, to)).stream()
+                .map(row -> new AirlineStatistics(row.getAirlineCode(), row.getFlights(), row.getPassengers(),
+                        seatsPerFlight, row.getUpcomingDepartures()))
+                .toList();
+    }
+
+    /**
+     * Retrieves the statistics of the flights of an airline
+     * 
+     * @param airlineCode
+     * @return statistics ordered by departure and flight number
+     */
+    @Transactional(readOnly = true)
+    public List<FlightStatistics> retrieveFlightStatistics(Long airlineCode) {
+        List<FlightCountRow> rows = flightCounters.isLoaded() ? flightCounters.countByFlight(airlineCode) : null;
+
+        if (Objects.isNull(rows)) {
+            if (!airlineDao.existsById(airlineCode)) {
+                throw new NoSuchElementException("Airline with airlineCode=" + airlineCode + " not found.");
+            }
+
+            rows = flightAggregateDao.countByFlight(airlineCode);
+        }
+
+        int seatsPerFlight = seatInventory.getTotalSeats();
+        return rows.stream().map(row -> new FlightStatistics(row.getFlightNumber(), row.getDeparture(),
+                row.getPassengers(), seatsPerFlight)).toList();
+    }
+
+    /**
+     * Reloads the counters from the primary, in one read-only transaction so
+     * airlines and flights are read at the same point
+     * 
+     * @return number of airlines and flights whose counts were off
+     */
+    @Scheduled(fixedDelayString = "${flight-tracker.statistics.reconciliation-interval:PT5M}")
+    public int reconcile() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        int drift = ReadWriteRoutingDataSource.readFromPrimary(() -> readOnly.execute(status -> flightCounters
+                .load(flightAggregateDao.findAirlineCodes(), flightAggregateDao.countByFlight())));
+
+        if (drift > 0) {
+            log.info("Reconciled flight counters, {} airlines or flights were off", drift);
+        }
+
+        return drift;
+    }
+
+}
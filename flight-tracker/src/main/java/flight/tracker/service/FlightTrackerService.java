@@ -1,34 +1,123 @@
 package flight.tracker.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import flight.tracker.config.ReadWriteRoutingDataSource;
+import flight.tracker.controller.model.CacheStatistics;
+import flight.tracker.controller.model.CacheStatistics.RegionStatistics;
+import flight.tracker.controller.model.ChangeEvent.EntityType;
+import flight.tracker.controller.model.ChangeEvent.Operation;
 import flight.tracker.controller.model.FlightData;
 import flight.tracker.controller.model.FlightData.FlightAirline;
 import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.controller.model.FlightPage;
+import flight.tracker.controller.model.ManifestResult;
+import flight.tracker.controller.model.ManifestResult.ManifestRowResult;
+import flight.tracker.controller.model.SeatAvailability;
 import flight.tracker.dao.AirlineDao;
+import flight.tracker.dao.FlightBatchDao;
 import flight.tracker.dao.FlightDao;
+import flight.tracker.dao.FlightPassengerRow;
+import flight.tracker.dao.PassengerBatchDao;
 import flight.tracker.dao.PassengerDao;
+import flight.tracker.dao.PassengerRow;
+import flight.tracker.dao.SeatAssignmentDao;
 import flight.tracker.entity.Airline;
 import flight.tracker.entity.Flight;
 import flight.tracker.entity.Passenger;
+import flight.tracker.entity.SeatAssignment;
+import flight.tracker.entity.SeatAssignment.SeatAssignmentId;
+import flight.tracker.service.SeatInventory.SeatClaim;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 
 import org.springframework.transaction.annotation.Transactional;
 
 /***
- * Service class for FlightTracker
+ * Service class for FlightTracker. Every public method is timed as
+ * flight.tracker.service, tagged with the class and method.
  * 
  */
 @Service
+@Timed("flight.tracker.service")
 public class FlightTrackerService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String PAGE_TOKEN_PREFIX = "flight:";
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int AIRLINE_DELETE_CHUNK_SIZE = 500;
+    private static final int MAX_MANIFEST_SIZE = 1000;
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern SEAT_NUMBER_PATTERN = Pattern.compile("^[1-9][0-9]{0,2}[A-Z]$");
+    private static final String FLIGHT_PASSENGERS_ROLE = Flight.class.getName() + ".passengers";
+    private static final int MAX_BOARDING_ATTEMPTS = 5;
+    private static final long BOARDING_BACKOFF_MILLIS = 10;
+
     @Autowired
     private FlightDao flightDao;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FlightResponseCache flightResponseCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatAssignmentDao seatAssignmentDao;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Creates & saves new flight to airline
      * 
@@ -46,7 +135,137 @@ public class FlightTrackerService {
 
         airline.getFlights().add(flight);
 
-        return new FlightData(flightDao.save(flight));
+        Flight dbFlight = flightDao.save(flight);
+        LocalDateTime departure = dbFlight.getDeparture();
+        afterCommit(() -> flightCounters.flightSaved(dbFlight.getFlightNumber(), airlineCode, departure));
+        invalidateFlightResponses(List.of(dbFlight.getFlightNumber()));
+        publishChange(EntityType.FLIGHT, dbFlight.getFlightNumber(),
+                Objects.isNull(flightData.getFlightNumber()) ? Operation.CREATED : Operation.UPDATED,
+                dbFlight.getFlightNumber());
+        return new FlightData(dbFlight);
+    }
+
+    /**
+     * Saves a chunk of a flight schedule in the current transaction, the new
+     * flights with batched inserts. In upsert mode a row updates the flight with
+     * its flightNumber or, without one, the flight of its airline with the same
+     * departure, and an unchanged flight is left alone, so importing a schedule
+     * again changes nothing. The rows' airlines must exist.
+     * 
+     * @param flights - schedule rows, each with an airlineCode and a departure
+     * @param upsert
+     * @return error message by row index, for the rows not saved
+     */
+    @Transactional(readOnly = false)
+    public Map<Integer, String> importFlights(List<FlightData> flights, boolean upsert) {
+        Map<Long, Flight> flightsByNumber = new HashMap<>();
+        Map<List<Object>, Flight> flightsByDeparture = new HashMap<>();
+
+        if (upsert) {
+            List<Long> flightNumbers = flights.stream().map(FlightData::getFlightNumber).filter(Objects::nonNull)
+                    .toList();
+            List<FlightData> scheduled = flights.stream().filter(row -> Objects.isNull(row.getFlightNumber())
+                    && Objects.nonNull(row.getDepartureDate()) && Objects.nonNull(row.getDepartureTime())).toList();
+
+            flightDao.findAllById(flightNumbers)
+                    .forEach(flight -> flightsByNumber.put(flight.getFlightNumber(), flight));
+
+            if (!scheduled.isEmpty()) {
+                flightDao.findByAirlineCodeInAndDepartureIn(
+                        scheduled.stream().map(FlightData::getAirlineCode).collect(Collectors.toSet()),
+                        scheduled.stream().map(row -> LocalDateTime.of(row.getDepartureDate(), row.getDepartureTime()))
+                                .collect(Collectors.toSet()))
+                        .forEach(flight -> flightsByDeparture.putIfAbsent(departureKey(flight), flight));
+            }
+        }
+
+        Map<Integer, String> errors = new HashMap<>();
+        List<Flight> created = new ArrayList<>();
+        Map<Long, Flight> updated = new LinkedHashMap<>();
+
+        for (int index = 0; index < flights.size(); index++) {
+            FlightData row = flights.get(index);
+
+            try {
+                LocalDateTime departure = toDateTime("departure", row.getDepartureDate(), row.getDepartureTime());
+                LocalDateTime arrival = toDateTime("arrival", row.getArrivalDate(), row.getArrivalTime());
+
+                if (Objects.isNull(departure)) {
+                    throw new IllegalArgumentException("departure is required");
+                }
+
+                if (Objects.nonNull(arrival) && arrival.isBefore(departure)) {
+                    throw new IllegalArgumentException("arrival must not be before departure");
+                }
+
+                Flight flight;
+
+                if (Objects.nonNull(row.getFlightNumber())) {
+                    if (!upsert) {
+                        throw new IllegalArgumentException("flightNumber requires upsert mode: " + row.getFlightNumber());
+                    }
+
+                    flight = flightsByNumber.get(row.getFlightNumber());
+
+                    if (Objects.isNull(flight) || !flight.getAirline().getAirlineCode().equals(row.getAirlineCode())) {
+                        throw new IllegalArgumentException("FlightNumber not found: " + row.getFlightNumber()
+                                + " for airlineCode: " + row.getAirlineCode());
+                    }
+                } else {
+                    flight = flightsByDeparture.get(List.of(row.getAirlineCode(), departure));
+                }
+
+                if (Objects.isNull(flight)) {
+                    flight = new Flight();
+                    flight.setAirline(airlineDao.getReferenceById(row.getAirlineCode()));
+                    created.add(flight);
+                } else if (departure.equals(flight.getDeparture()) && Objects.equals(arrival, flight.getArrival())) {
+                    continue;
+                } else if (Objects.nonNull(flight.getFlightNumber())) {
+                    updated.put(flight.getFlightNumber(), flight);
+                }
+
+                // Later rows of the chunk for the same departure update this flight.
+                if (upsert && Objects.nonNull(flight.getDeparture())) {
+                    flightsByDeparture.remove(departureKey(flight), flight);
+                }
+
+                flight.setDeparture(departure);
+                flight.setArrival(arrival);
+
+                if (upsert) {
+                    flightsByDeparture.put(departureKey(flight), flight);
+                }
+            } catch (IllegalArgumentException e) {
+                errors.put(index, e.getMessage());
+            }
+        }
+
+        // Pooled ids let Hibernate batch these inserts.
+        flightDao.saveAll(created);
+
+        List<FlightData> saved = Stream.concat(created.stream(), updated.values().stream())
+                .map(flight -> new FlightData(flight.getFlightNumber(), flight.getDeparture(), flight.getArrival(),
+                        flight.getAirline().getAirlineCode()))
+                .toList();
+        afterCommit(() -> saved.forEach(flight -> flightCounters.flightSaved(flight.getFlightNumber(),
+                flight.getAirlineCode(), LocalDateTime.of(flight.getDepartureDate(), flight.getDepartureTime()))));
+        invalidateFlightResponses(List.copyOf(updated.keySet()));
+        created.forEach(flight -> publishChange(EntityType.FLIGHT, flight.getFlightNumber(), Operation.CREATED,
+                flight.getFlightNumber()));
+        updated.keySet().forEach(
+                flightNumber -> publishChange(EntityType.FLIGHT, flightNumber, Operation.UPDATED, flightNumber));
+        return errors;
+    }
+
+    /**
+     * Key of a flight by airline and departure, for matching schedule rows
+     * 
+     * @param flight
+     * @return airline code and departure
+     */
+    private List<Object> departureKey(Flight flight) {
+        return List.of(flight.getAirline().getAirlineCode(), flight.getDeparture());
     }
 
     /**
@@ -57,11 +276,34 @@ public class FlightTrackerService {
      */
     private void copyFlightsFields(Flight flight, FlightData flightData) {
         flight.setFlightNumber(flightData.getFlightNumber());
-        flight.setDepartureDate(flightData.getDepartureDate());
-        flight.setDepartureTime(flightData.getDepartureTime());
-        flight.setArrivalDate(flightData.getArrivalDate());
-        flight.setArrivalTime(flightData.getArrivalTime());
+        flight.setDeparture(toDateTime("departure", flightData.getDepartureDate(), flightData.getDepartureTime()));
+        flight.setArrival(toDateTime("arrival", flightData.getArrivalDate(), flightData.getArrivalTime()));
 
+        if (Objects.nonNull(flight.getDeparture()) && Objects.nonNull(flight.getArrival())
+                && flight.getArrival().isBefore(flight.getDeparture())) {
+            throw new IllegalArgumentException("arrival must not be before departure");
+        }
+
+    }
+
+    /**
+     * Combines a date and time, both must be given or neither
+     * 
+     * @param field
+     * @param date
+     * @param time
+     * @return date time or null
+     */
+    private LocalDateTime toDateTime(String field, LocalDate date, LocalTime time) {
+        if (Objects.isNull(date) && Objects.isNull(time)) {
+            return null;
+        }
+
+        if (Objects.isNull(date) || Objects.isNull(time)) {
+            throw new IllegalArgumentException(field + " requires both a date and a time");
+        }
+
+        return LocalDateTime.of(date, time);
     }
 
     /**
@@ -123,8 +365,241 @@ public class FlightTrackerService {
     @Transactional(readOnly = true)
     public List<FlightData> retrieveAllFlights() {
 
-        return flightDao.findAll().stream().map(FlightData::new).toList();
+        return attachPassengers(flightDao.findAllFlightData(), flightDao.findAllPassengerRows());
+
+    }
+
+    /**
+     * Streams every flight with its passengers to the consumer. Flights are read
+     * from a database cursor and the persistence context is cleared after each
+     * chunk, so memory use does not grow with the number of flights.
+     * 
+     * @param consumer
+     */
+    @Transactional(readOnly = true)
+    public void exportFlights(Consumer<FlightData> consumer) {
+        try (Stream<Flight> flights = flightDao.streamAllOrderByFlightNumber()) {
+            List<Flight> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            Iterator<Flight> iterator = flights.iterator();
+
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    exportChunk(chunk, consumer);
+                }
+            }
+
+            exportChunk(chunk, consumer);
+        }
+    }
+
+    /**
+     * Loads the passengers of a chunk of flights in one query, hands the flights
+     * to the consumer and detaches them
+     * 
+     * @param chunk
+     * @param consumer
+     */
+    private void exportChunk(List<Flight> chunk, Consumer<FlightData> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<FlightData> flights = chunk.stream()
+                .map(flight -> new FlightData(flight.getFlightNumber(), flight.getDeparture(), flight.getArrival(),
+                        flight.getAirline().getAirlineCode()))
+                .toList();
+        List<Long> flightNumbers = flights.stream().map(FlightData::getFlightNumber).toList();
+
+        attachPassengers(flights, flightDao.findPassengerRowsByFlightNumberIn(flightNumbers)).forEach(consumer);
+
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    /**
+     * Adds the passenger rows to their projected flights
+     * 
+     * @param flights
+     * @param passengerRows
+     * @return flights
+     */
+    private List<FlightData> attachPassengers(List<FlightData> flights, List<FlightPassengerRow> passengerRows) {
+        Map<Long, FlightData> flightsByNumber = flights.stream()
+                .collect(Collectors.toMap(FlightData::getFlightNumber, Function.identity()));
+
+        for (FlightPassengerRow row : passengerRows) {
+            FlightData flight = flightsByNumber.get(row.getFlightNumber());
+
+            if (Objects.nonNull(flight)) {
+                flight.getPassengers().add(row.toFlightPassenger());
+            }
+        }
+
+        return flights;
+    }
+
+    /**
+     * Retrieves one keyset page of flights ordered by flight number
+     * 
+     * @param pageToken     - continuation token from the previous page, or null
+     * @param limit         - page size, capped at MAX_PAGE_SIZE
+     * @param airlineCode   - optional filter
+     * @param departureDate - optional filter
+     * @return page of flights with the token for the next page
+     */
+    @Transactional(readOnly = true)
+    public FlightPage retrieveFlightPage(String pageToken, Integer limit, Long airlineCode, LocalDate departureDate) {
+        int pageSize = resolvePageSize(limit);
+        Long afterFlightNumber = decodePageToken(pageToken);
+        LocalDateTime departureFrom = Objects.isNull(departureDate) ? null : departureDate.atStartOfDay();
+        LocalDateTime departureTo = Objects.isNull(departureDate) ? null : departureDate.plusDays(1).atStartOfDay();
+
+        // Fetch one extra key to find out whether another page exists.
+        List<Long> flightNumbers = flightDao.findFlightNumbersAfter(afterFlightNumber, airlineCode, departureFrom,
+                departureTo, PageRequest.of(0, pageSize + 1));
+        boolean hasNextPage = flightNumbers.size() > pageSize;
+
+        if (hasNextPage) {
+            flightNumbers = flightNumbers.subList(0, pageSize);
+        }
+
+        List<FlightData> flights = attachPassengers(flightDao.findFlightDataByFlightNumberIn(flightNumbers),
+                flightDao.findPassengerRowsByFlightNumberIn(flightNumbers));
+
+        return new FlightPage(flights, hasNextPage ? encodePageToken(flightNumbers.get(pageSize - 1)) : null);
+    }
+
+    /**
+     * Retrieves flights departing in [from, to), optionally of one airline,
+     * ordered by departure
+     * 
+     * @param from
+     * @param to
+     * @param airlineCode - optional filter
+     * @param limit       - optional page size
+     * @return flights departing in the window
+     */
+    @Transactional(readOnly = true)
+    public List<FlightData> retrieveFlightsDepartingBetween(LocalDateTime from, LocalDateTime to, Long airlineCode,
+            Integer limit) {
+        validateWindow(from, to);
+        PageRequest page = PageRequest.of(0, resolvePageSize(limit));
+
+        List<Long> flightNumbers = Objects.isNull(airlineCode)
+                ? flightDao.findFlightNumbersDepartingBetween(from, to, page)
+                : flightDao.findFlightNumbersByAirlineDepartingBetween(airlineCode, from, to, page);
+
+        return retrieveFlightsInOrder(flightNumbers);
+    }
+
+    /**
+     * Retrieves flights arriving in [from, to), optionally of one airline,
+     * ordered by arrival
+     * 
+     * @param from
+     * @param to
+     * @param airlineCode - optional filter
+     * @param limit       - optional page size
+     * @return flights arriving in the window
+     */
+    @Transactional(readOnly = true)
+    public List<FlightData> retrieveFlightsArrivingBetween(LocalDateTime from, LocalDateTime to, Long airlineCode,
+            Integer limit) {
+        validateWindow(from, to);
+        PageRequest page = PageRequest.of(0, resolvePageSize(limit));
+
+        List<Long> flightNumbers = Objects.isNull(airlineCode)
+                ? flightDao.findFlightNumbersArrivingBetween(from, to, page)
+                : flightDao.findFlightNumbersByAirlineArrivingBetween(airlineCode, from, to, page);
+
+        return retrieveFlightsInOrder(flightNumbers);
+    }
+
+    /**
+     * Validates a time window
+     * 
+     * @param from
+     * @param to
+     */
+    private void validateWindow(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to: " + from + " - " + to);
+        }
+    }
+
+    /**
+     * Loads the projected flights and passengers, keeping the order of the flight
+     * numbers
+     * 
+     * @param flightNumbers
+     * @return flights
+     */
+    private List<FlightData> retrieveFlightsInOrder(List<Long> flightNumbers) {
+        if (flightNumbers.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, FlightData> flightsByNumber = attachPassengers(
+                flightDao.findFlightDataByFlightNumberIn(flightNumbers),
+                flightDao.findPassengerRowsByFlightNumberIn(flightNumbers)).stream()
+                .collect(Collectors.toMap(FlightData::getFlightNumber, Function.identity()));
 
+        return flightNumbers.stream().map(flightsByNumber::get).toList();
+    }
+
+    /**
+     * Validates the requested page size
+     * 
+     * @param limit
+     * @return page size
+     */
+    private int resolvePageSize(Integer limit) {
+        if (Objects.isNull(limit)) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+
+        return limit;
+    }
+
+    /**
+     * Encodes the last flight number of a page as an opaque token
+     * 
+     * @param flightNumber
+     * @return page token
+     */
+    private String encodePageToken(Long flightNumber) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PAGE_TOKEN_PREFIX + flightNumber).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a page token into the last flight number of the previous page
+     * 
+     * @param pageToken
+     * @return flight number to continue after, 0 for the first page
+     */
+    private Long decodePageToken(String pageToken) {
+        if (Objects.isNull(pageToken) || pageToken.isBlank()) {
+            return 0L;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+
+            if (!decoded.startsWith(PAGE_TOKEN_PREFIX)) {
+                throw new IllegalArgumentException("Invalid pageToken: " + pageToken);
+            }
+
+            return Long.valueOf(decoded.substring(PAGE_TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid pageToken: " + pageToken);
+        }
     }
 
     @Autowired
@@ -143,6 +618,9 @@ public class FlightTrackerService {
         copyAirlineFields(airline, flightAirline);
 
         Airline dbAirline = airlineDao.save(airline);
+        afterCommit(() -> flightCounters.airlineSaved(dbAirline.getAirlineCode()));
+        publishChange(EntityType.AIRLINE, dbAirline.getAirlineCode(),
+                Objects.isNull(airlineCode) ? Operation.CREATED : Operation.UPDATED, null);
         return new FlightAirline(dbAirline);
 
     }
@@ -196,26 +674,338 @@ public class FlightTrackerService {
     @Autowired
     private PassengerDao passengerDao;
 
+    @Autowired
+    private PassengerBatchDao passengerBatchDao;
+
+    @Autowired
+    private PassengerSearchIndex passengerSearchIndex;
+
+    @Autowired
+    private FlightCounters flightCounters;
+
+    @Autowired
+    private FlightBatchDao flightBatchDao;
+
     /**
-     * Adds passenger to flight
+     * Adds passenger to flight, retrying when a concurrent change conflicts
      * 
      * @param flightPassenger
      * @param flightNumber
      * @return new FlightPassenger in PassengerDao
      */
-    @Transactional(readOnly = false)
     public FlightPassenger addPassenger(FlightPassenger flightPassenger, Long flightNumber) {
-        Flight flight = findFlightbyFlightNumber(flightNumber);
+        return retryOnConflict(() -> boardPassenger(flightPassenger, flightNumber));
+    }
+
+    /**
+     * Adds passenger to flight in the current transaction
+     * 
+     * @param flightPassenger
+     * @param flightNumber
+     * @return new FlightPassenger in PassengerDao
+     */
+    private FlightPassenger boardPassenger(FlightPassenger flightPassenger, Long flightNumber) {
+        if (!flightDao.existsById(flightNumber)) {
+            throw new NoSuchElementException("Flight with flightNumber=" + flightNumber + "not found.");
+        }
+
+        // "01A" is seat "1A", compared and stored as such.
+        String requestedSeat = seatInventory.canonicalSeatNumber(flightPassenger.getPassengerSeatNumber());
         Passenger passenger = findOrCreatePassenger(flightPassenger.getPassengerId());
+        List<Long> flightNumbers = new ArrayList<>(
+                passenger.getFlights().stream().map(Flight::getFlightNumber).toList());
+        boolean boarded = flightNumbers.contains(flightNumber);
+        String currentSeat = boarded ? seatAssignmentDao
+                .findById(new SeatAssignmentId(flightNumber, passenger.getPassengerId()))
+                .map(SeatAssignment::getSeatNumber).orElse(null) : null;
+        String seatNumber = Objects.isNull(requestedSeat) ? currentSeat : requestedSeat;
+        boolean seatChanged = !boarded || (Objects.nonNull(seatNumber) && !seatNumber.equals(currentSeat));
+        SeatClaim claim = seatChanged ? claimSeat(flightNumber, seatNumber) : null;
+
+        if (Objects.nonNull(claim)) {
+            seatNumber = claim.getSeatNumber();
+        }
 
         copyPassengerFields(passenger, flightPassenger);
-        passenger.getFlights().add(flight);
-        flight.getPassengers().add(passenger);
+        passenger.setPassengerSeatNumber(seatNumber);
+        Passenger dbPassenger = passengerDao.saveAndFlush(passenger);
+        Long passengerId = dbPassenger.getPassengerId();
+        PassengerRow indexed = PassengerRow.of(dbPassenger);
+        afterCommit(() -> passengerSearchIndex.put(indexed));
+
+        // A single join row insert instead of loading and rewriting the flight's
+        // passengers; concurrent boardings of one flight don't touch each other.
+        if (!boarded) {
+            passengerBatchDao.insertFlightPassengers(flightNumber, List.of(passengerId));
+            flightNumbers.add(flightNumber);
+            afterCommit(() -> flightCounters.passengersBoarded(flightNumber, 1));
+        }
+
+        if (seatChanged) {
+            if (boarded) {
+                passengerBatchDao.deleteSeatAssignment(flightNumber, passengerId);
+            }
+
+            if (Objects.nonNull(currentSeat)) {
+                afterCommit(() -> seatInventory.release(flightNumber, currentSeat));
+            }
+
+            if (Objects.nonNull(claim)) {
+                insertSeatAssignments(flightNumber, Map.of(passengerId, claim.getSeatNumber()));
+            }
+
+            afterCommit(() -> evictFlightPassengers(flightNumber));
+        }
+
+        // The passenger's details show up in every flight it is on.
+        invalidateFlightResponses(flightNumbers);
+
+        publishChange(EntityType.PASSENGER, passengerId,
+                Objects.isNull(flightPassenger.getPassengerId()) ? Operation.CREATED : Operation.UPDATED,
+                flightNumber);
 
-        return new FlightPassenger(passengerDao.save(passenger));
+        return new FlightPassenger(dbPassenger);
 
     }
 
+    /**
+     * Adds a whole passenger manifest to a flight in one transaction. Rows
+     * without a passengerId create new passengers, rows with one add that
+     * existing passenger as is. Invalid rows are rejected and reported, the
+     * valid ones are written with batched inserts.
+     * 
+     * @param manifest
+     * @param flightNumber
+     * @return per-row results
+     */
+    public ManifestResult addPassengerManifest(List<FlightPassenger> manifest, Long flightNumber) {
+        if (manifest.isEmpty() || manifest.size() > MAX_MANIFEST_SIZE) {
+            throw new IllegalArgumentException(
+                    "Manifest must contain between 1 and " + MAX_MANIFEST_SIZE + " passengers: " + manifest.size());
+        }
+
+        return retryOnConflict(() -> boardManifest(manifest, flightNumber));
+    }
+
+    /**
+     * Adds a passenger manifest to a flight in the current transaction
+     * 
+     * @param manifest
+     * @param flightNumber
+     * @return per-row results
+     */
+    private ManifestResult boardManifest(List<FlightPassenger> manifest, Long flightNumber) {
+
+        if (!flightDao.existsById(flightNumber)) {
+            throw new NoSuchElementException("Flight with flightNumber=" + flightNumber + "not found.");
+        }
+
+        Set<Long> boardedIds = flightDao.findPassengerRowsByFlightNumberIn(List.of(flightNumber)).stream()
+                .map(FlightPassengerRow::getPassengerId).collect(Collectors.toCollection(HashSet::new));
+        Set<Long> existingIds = new HashSet<>(passengerDao.findExistingPassengerIds(
+                manifest.stream().map(FlightPassenger::getPassengerId).filter(Objects::nonNull).toList()));
+
+        ManifestResult result = new ManifestResult(flightNumber);
+        List<Passenger> newPassengers = new ArrayList<>();
+        List<Integer> newPassengerRows = new ArrayList<>();
+        List<SeatClaim> newPassengerClaims = new ArrayList<>();
+        List<Long> boardingIds = new ArrayList<>();
+        Map<Long, String> seatNumbers = new LinkedHashMap<>();
+
+        for (int index = 0; index < manifest.size(); index++) {
+            int row = index + 1;
+            FlightPassenger passenger = manifest.get(index);
+            String error = validateManifestRow(passenger, existingIds, boardedIds);
+            SeatClaim claim = null;
+
+            if (Objects.isNull(error)) {
+                try {
+                    claim = claimSeat(flightNumber, passenger.getPassengerSeatNumber());
+                } catch (IllegalStateException e) {
+                    error = e.getMessage();
+                }
+            }
+
+            if (Objects.nonNull(error)) {
+                result.addRejected(row, passenger.getPassengerId(), error);
+            } else if (Objects.isNull(passenger.getPassengerId())) {
+                Passenger newPassenger = new Passenger();
+                copyPassengerFields(newPassenger, passenger);
+
+                if (Objects.nonNull(claim)) {
+                    newPassenger.setPassengerSeatNumber(claim.getSeatNumber());
+                }
+
+                newPassengers.add(newPassenger);
+                newPassengerRows.add(row);
+                newPassengerClaims.add(claim);
+            } else {
+                boardingIds.add(passenger.getPassengerId());
+
+                if (Objects.nonNull(claim)) {
+                    seatNumbers.put(passenger.getPassengerId(), claim.getSeatNumber());
+                }
+
+                result.addAdded(row, passenger.getPassengerId());
+            }
+        }
+
+        // Pooled ids let Hibernate batch these inserts; flush before the join rows
+        // reference them.
+        passengerDao.saveAll(newPassengers);
+        passengerDao.flush();
+
+        for (int index = 0; index < newPassengers.size(); index++) {
+            Long passengerId = newPassengers.get(index).getPassengerId();
+            result.addAdded(newPassengerRows.get(index), passengerId);
+            boardingIds.add(passengerId);
+
+            if (Objects.nonNull(newPassengerClaims.get(index))) {
+                seatNumbers.put(passengerId, newPassengerClaims.get(index).getSeatNumber());
+            }
+        }
+
+        passengerBatchDao.insertFlightPassengers(flightNumber, boardingIds);
+        insertSeatAssignments(flightNumber, seatNumbers);
+        afterCommit(() -> flightCounters.passengersBoarded(flightNumber, boardingIds.size()));
+
+        List<PassengerRow> indexed = newPassengers.stream().map(PassengerRow::of).toList();
+        afterCommit(() -> passengerSearchIndex.putAll(indexed));
+
+        // The join rows bypass Hibernate, so its caches don't know about them.
+        afterCommit(() -> evictFlightPassengers(flightNumber));
+        invalidateFlightResponses(List.of(flightNumber));
+
+        if (result.getAdded() > 0) {
+            publishChange(EntityType.FLIGHT, flightNumber, Operation.UPDATED, flightNumber);
+        }
+
+        result.getRows().sort(Comparator.comparingInt(ManifestRowResult::getRow));
+        return result;
+    }
+
+    /**
+     * Runs the work in its own transaction. When it loses an optimistic lock, a
+     * lock wait or a duplicate join row to a concurrent transaction, the work is
+     * run again in a fresh transaction, which sees the winner's changes.
+     * 
+     * @param work
+     * @return result of the work
+     */
+    private <T> T retryOnConflict(Supplier<T> work) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException | DuplicateKeyException e) {
+                if (attempt == MAX_BOARDING_ATTEMPTS) {
+                    throw e;
+                }
+
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Waits a random, growing time before the next attempt so that the
+     * conflicting transactions don't collide again
+     * 
+     * @param attempt
+     * @param conflict
+     */
+    private void backOff(int attempt, RuntimeException conflict) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BOARDING_BACKOFF_MILLIS << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    /**
+     * Validates one manifest row against the flight and the rows before it
+     * 
+     * @param passenger
+     * @param existingIds - passenger ids that exist
+     * @param boardedIds  - passengers already on the flight, updated when valid
+     * @return error message, or null if the row is valid
+     */
+    private String validateManifestRow(FlightPassenger passenger, Set<Long> existingIds, Set<Long> boardedIds) {
+        Long passengerId = passenger.getPassengerId();
+
+        if (Objects.nonNull(passengerId)) {
+            if (!existingIds.contains(passengerId)) {
+                return "Passenger with passengerId=" + passengerId + " not found.";
+            }
+
+            if (!boardedIds.add(passengerId)) {
+                return "Passenger with passengerId=" + passengerId + " is already on the flight.";
+            }
+        } else {
+            if (Objects.isNull(passenger.getPassengerFirstName()) || passenger.getPassengerFirstName().isBlank()) {
+                return "passengerFirstName is required.";
+            }
+
+            if (Objects.isNull(passenger.getPassengerLastName()) || passenger.getPassengerLastName().isBlank()) {
+                return "passengerLastName is required.";
+            }
+
+            String email = passenger.getPassengerEmail();
+
+            if (Objects.nonNull(email) && !EMAIL_PATTERN.matcher(email).matches()) {
+                return "Invalid passengerEmail: " + email;
+            }
+        }
+
+        String seatNumber = passenger.getPassengerSeatNumber();
+
+        if (Objects.nonNull(seatNumber) && !SEAT_NUMBER_PATTERN.matcher(seatNumber).matches()) {
+            return "Invalid passengerSeatNumber: " + seatNumber;
+        }
+
+        return null;
+    }
+
+    /**
+     * Claims a seat on the flight in memory. The seat is released again if the
+     * current transaction rolls back. A seat number outside the seat layout is
+     * not tracked, the passenger keeps it as given; a passenger without one
+     * boards a full flight without a seat.
+     * 
+     * @param flightNumber
+     * @param seatNumber   - null claims the first free seat
+     * @return claim, null if no seat of the layout was claimed
+     */
+    private SeatClaim claimSeat(Long flightNumber, String seatNumber) {
+        if (Objects.nonNull(seatNumber) && !seatInventory.isOnSeatMap(seatNumber)) {
+            return null;
+        }
+
+        SeatClaim claim = seatInventory.claim(flightNumber, seatNumber);
+
+        if (Objects.nonNull(claim)) {
+            afterRollback(claim::release);
+        }
+
+        return claim;
+    }
+
+    /**
+     * Inserts the seat assignments of a flight. A duplicate seat means the seat
+     * map was out of date, it is dropped so the retry reloads it.
+     * 
+     * @param flightNumber
+     * @param seatNumbers  - seat number by passenger id
+     */
+    private void insertSeatAssignments(Long flightNumber, Map<Long, String> seatNumbers) {
+        try {
+            passengerBatchDao.insertSeatAssignments(flightNumber, seatNumbers);
+        } catch (DuplicateKeyException e) {
+            seatInventory.evict(List.of(flightNumber));
+            throw e;
+        }
+    }
+
     /**
      * Copies passenger data to passenger
      * 
@@ -270,8 +1060,10 @@ public class FlightTrackerService {
      */
     @Transactional(readOnly = true)
     public FlightData retrieveFlight(Long flightNumber) {
-        Flight flight = findFlightbyFlightNumber(flightNumber);
-        return new FlightData(flight);
+        FlightData flight = flightDao.findFlightDataByFlightNumber(flightNumber)
+                .orElseThrow(
+                        () -> new NoSuchElementException("Flight with flightNumber=" + flightNumber + "not found."));
+        return attachPassengers(List.of(flight), flightDao.findPassengerRowsByFlightNumber(flightNumber)).get(0);
     }
 
     /**
@@ -282,18 +1074,103 @@ public class FlightTrackerService {
     @Transactional(readOnly = false)
     public void deleteFlightById(Long flightNumber) {
         Flight flight = findFlightbyFlightNumber(flightNumber);
+        seatAssignmentDao.deleteByFlightNumberIn(List.of(flightNumber));
         flightDao.delete(flight);
+        afterCommit(() -> flightCounters.flightDeleted(flightNumber));
+        evictSeatMaps(List.of(flightNumber));
+        invalidateFlightResponses(List.of(flightNumber));
+        publishChange(EntityType.FLIGHT, flightNumber, Operation.DELETED, flightNumber);
     }
 
     /**
-     * Deletes airline by airline code
+     * Deletes airline by airline code. Its flights are deleted in chunks, each
+     * in its own transaction with one statement per table, so a large airline
+     * neither loads its flights nor holds their locks until the end. The
+     * passengers left without a flight are deleted with them. The airline goes
+     * last, with any flights added in the meantime; should a chunk fail, the
+     * airline keeps the flights not yet deleted and deleting it again finishes
+     * the job.
      * 
      * @param airlineCode
      */
-    @Transactional(readOnly = false)
     public void deleteAirlineById(Long airlineCode) {
-        Airline airline = findAirlineByAirlineCode(airlineCode);
-        airlineDao.delete(airline);
+        findAirlineByAirlineCode(airlineCode);
+
+        int deleted;
+
+        do {
+            deleted = transactionTemplate.execute(status -> deleteFlightChunk(airlineCode));
+        } while (deleted == AIRLINE_DELETE_CHUNK_SIZE);
+
+        while (!transactionTemplate.execute(status -> deleteEmptyAirline(airlineCode))) {
+            // Flights were added faster than a chunk at a time, delete those first.
+        }
+    }
+
+    /**
+     * Deletes the next chunk of the flights of an airline, see
+     * deleteAirlineById. Step of the airline purge job, which calls it until no
+     * flights are left and then deleteEmptyAirline.
+     * 
+     * @param airlineCode
+     * @return deleted flights, 0 once none are left
+     */
+    @Transactional(readOnly = false)
+    public int deleteAirlineFlights(Long airlineCode) {
+        return deleteFlightChunk(airlineCode);
+    }
+
+    /**
+     * Deletes an airline whose flights have been deleted, with any flights added
+     * in the meantime. Like every chunk it deletes at most a chunk of flights:
+     * should a full chunk have been added, only those are deleted and the
+     * airline is left for the next call.
+     * 
+     * @param airlineCode
+     * @return true if the airline was deleted
+     */
+    @Transactional(readOnly = false)
+    public boolean deleteEmptyAirline(Long airlineCode) {
+        if (deleteFlightChunk(airlineCode) == AIRLINE_DELETE_CHUNK_SIZE) {
+            return false;
+        }
+
+        airlineDao.delete(findAirlineByAirlineCode(airlineCode));
+        afterCommit(() -> flightCounters.airlineDeleted(airlineCode));
+        publishChange(EntityType.AIRLINE, airlineCode, Operation.DELETED, null);
+        return true;
+    }
+
+    /**
+     * Deletes a chunk of the flights of an airline in the current transaction,
+     * with their seat assignments and flight_passenger rows, and the passengers
+     * they leave without a flight. Each chunk commits on its own, so it logs its
+     * own deletions: a delete or purge that stops partway leaves no deleted
+     * flight out of the change log.
+     * 
+     * @param airlineCode
+     * @return deleted flights, fewer than a chunk once none are left
+     */
+    private int deleteFlightChunk(Long airlineCode) {
+        List<Long> flightNumbers = flightDao.findFlightNumbersByAirlineCode(airlineCode,
+                PageRequest.ofSize(AIRLINE_DELETE_CHUNK_SIZE));
+
+        if (flightNumbers.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> passengerIds = flightBatchDao.findPassengerIds(flightNumbers);
+        seatAssignmentDao.deleteByFlightNumberIn(flightNumbers);
+        flightBatchDao.deleteFlights(flightNumbers);
+        List<Long> orphanIds = flightBatchDao.deleteOrphanedPassengers(passengerIds);
+
+        afterCommit(() -> evictDeletedFlights(flightNumbers, orphanIds));
+        evictSeatMaps(flightNumbers);
+        invalidateFlightResponses(flightNumbers);
+        flightNumbers.forEach(
+                flightNumber -> publishChange(EntityType.FLIGHT, flightNumber, Operation.DELETED, flightNumber));
+        orphanIds.forEach(passengerId -> publishChange(EntityType.PASSENGER, passengerId, Operation.DELETED, null));
+        return flightNumbers.size();
     }
 
     /**
@@ -304,7 +1181,165 @@ public class FlightTrackerService {
     @Transactional(readOnly = false)
     public void deletePassengerById(Long passengerId) {
         Passenger passenger = findPassengerByPassengerId(passengerId);
+
+        // Boarding writes the join rows with JDBC, so a cached Flight.passengers
+        // collection can miss one; delete them directly and evict the collections.
+        List<Long> flightNumbers = passengerBatchDao.findFlightNumbers(passengerId);
+        passengerBatchDao.deleteFlightPassengers(passengerId);
+
+        seatAssignmentDao.deleteByPassengerId(passengerId);
         passengerDao.delete(passenger);
+        afterCommit(() -> flightNumbers.forEach(this::evictFlightPassengers));
+        afterCommit(() -> passengerSearchIndex.remove(passengerId));
+        afterCommit(() -> flightCounters.passengerRemoved(flightNumbers));
+        evictSeatMaps(flightNumbers);
+        invalidateFlightResponses(flightNumbers);
+        publishChange(EntityType.PASSENGER, passengerId, Operation.DELETED, null);
+    }
+
+    /**
+     * Retrieves the free seats of a flight from its seat map. Reads from the
+     * primary: a seat map loaded from a lagging replica would stay cached.
+     * 
+     * @param flightNumber
+     * @return SeatAvailability
+     */
+    @Transactional(readOnly = true)
+    public SeatAvailability retrieveSeatAvailability(Long flightNumber) {
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> {
+            if (!flightDao.existsById(flightNumber)) {
+                throw new NoSuchElementException("Flight with flightNumber=" + flightNumber + "not found.");
+            }
+
+            return seatInventory.availability(flightNumber);
+        });
+    }
+
+    /**
+     * Retrieves second-level and query cache statistics
+     * 
+     * @return hit, miss and put counts overall and per cache region
+     */
+    public CacheStatistics retrieveCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CacheStatistics cacheStatistics = new CacheStatistics();
+
+        cacheStatistics.setSecondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount());
+        cacheStatistics.setSecondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount());
+        cacheStatistics.setSecondLevelCachePutCount(statistics.getSecondLevelCachePutCount());
+        cacheStatistics.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        cacheStatistics.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        cacheStatistics.setQueryCachePutCount(statistics.getQueryCachePutCount());
+
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+
+            if (Objects.nonNull(region)) {
+                cacheStatistics.getRegions().put(regionName,
+                        new RegionStatistics(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+
+        return cacheStatistics;
+    }
+
+    /**
+     * Evicts the cached passengers collection of a flight and the cached query
+     * results
+     * 
+     * @param flightNumber
+     */
+    private void evictFlightPassengers(Long flightNumber) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictCollectionData(FLIGHT_PASSENGERS_ROLE, flightNumber);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Evicts flights and passengers deleted with JDBC from the second level
+     * cache, the flight counters and the passenger search index
+     * 
+     * @param flightNumbers
+     * @param passengerIds
+     */
+    private void evictDeletedFlights(List<Long> flightNumbers, List<Long> passengerIds) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+
+        for (Long flightNumber : flightNumbers) {
+            cache.evictEntityData(Flight.class, flightNumber);
+            cache.evictCollectionData(FLIGHT_PASSENGERS_ROLE, flightNumber);
+            flightCounters.flightDeleted(flightNumber);
+        }
+
+        for (Long passengerId : passengerIds) {
+            cache.evictEntityData(Passenger.class, passengerId);
+            passengerSearchIndex.remove(passengerId);
+        }
+
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Invalidates the cached responses of the given flights once the current
+     * transaction has committed
+     * 
+     * @param flightNumbers
+     */
+    private void invalidateFlightResponses(List<Long> flightNumbers) {
+        afterCommit(() -> flightResponseCache.invalidate(flightNumbers));
+    }
+
+    /**
+     * Publishes a change of this transaction, ChangeEventBus delivers it after
+     * commit
+     * 
+     * @param entityType
+     * @param entityId
+     * @param operation
+     * @param flightNumber - flight the change belongs to, may be null
+     */
+    private void publishChange(EntityType entityType, Long entityId, Operation operation, Long flightNumber) {
+        eventPublisher.publishEvent(new EntityChange(entityType, entityId, operation, flightNumber));
+    }
+
+    /**
+     * Drops the seat maps of the given flights once the current transaction has
+     * committed, so they are reloaded without the deleted seat assignments
+     * 
+     * @param flightNumbers
+     */
+    private void evictSeatMaps(List<Long> flightNumbers) {
+        afterCommit(() -> seatInventory.evict(flightNumbers));
+    }
+
+    /**
+     * Runs the action once the current transaction has rolled back
+     * 
+     * @param action
+     */
+    private void afterRollback(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the action once the current transaction has committed
+     * 
+     * @param action
+     */
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
 }
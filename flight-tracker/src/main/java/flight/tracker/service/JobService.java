@@ -0,0 +1,501 @@
+package flight.tracker.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import flight.tracker.controller.model.JobInfo;
+import flight.tracker.controller.model.JobInfo.JobItemError;
+import flight.tracker.controller.model.JobInfo.JobStatus;
+import flight.tracker.controller.model.JobInfo.JobType;
+import flight.tracker.controller.model.JobRequest;
+import flight.tracker.dao.JobDao;
+import flight.tracker.dao.JobErrorDao;
+import flight.tracker.entity.Job;
+import flight.tracker.entity.JobError;
+import flight.tracker.service.JobStep.Chunk;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * Runs long bulk operations in the background. A submitted job is saved to
+ * the job table as QUEUED and the caller gets its id to poll. The dispatcher
+ * claims queued jobs while a runner thread is idle; the job table is the
+ * queue, the executor only has a thread per runner.
+ *
+ * A runner runs the job's JobStep one chunk at a time, each chunk in a
+ * transaction that also saves the checkpoint, the progress, the items the
+ * chunk rejected and a heartbeat. Cancelling takes effect at the next chunk.
+ * A job whose heartbeat stops, because its instance stopped, is queued again
+ * and resumes from its last checkpoint; a chunk must finish well within the
+ * heartbeat timeout.
+ *
+ */
+@Service
+@Timed("flight.tracker.service")
+@Slf4j
+public class JobService {
+
+    private static final int MAX_CHUNK_ATTEMPTS = 5;
+    private static final long CHUNK_BACKOFF_MILLIS = 10;
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int DEFAULT_ERROR_PAGE_SIZE = 100;
+    private static final int MAX_ERROR_PAGE_SIZE = 1000;
+
+    private final int threads;
+    private final int maxQueued;
+    private final Duration heartbeatTimeout;
+    private final String owner = UUID.randomUUID().toString();
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean stopping;
+
+    @Autowired
+    private JobDao jobDao;
+
+    @Autowired
+    private JobErrorDao jobErrorDao;
+
+    @Autowired
+    private List<JobStep> jobSteps;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * JobService constructor sets the runner threads, the queue limit and the
+     * heartbeat timeout
+     *
+     * @param threads          - jobs running at once on this instance
+     * @param maxQueued        - queued jobs beyond which submitting fails
+     * @param heartbeatTimeout - time without a heartbeat after which a running
+     *                         job is queued again
+     */
+    public JobService(@Value("${flight-tracker.jobs.threads:2}") int threads,
+            @Value("${flight-tracker.jobs.max-queued:100}") int maxQueued,
+            @Value("${flight-tracker.jobs.heartbeat-timeout:PT5M}") Duration heartbeatTimeout) {
+        this.threads = threads;
+        this.maxQueued = maxQueued;
+        this.heartbeatTimeout = heartbeatTimeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads), new CustomizableThreadFactory("job-runner-"));
+    }
+
+    /**
+     * Every transaction of the service is a new one: dispatch also runs after a
+     * submit commits, when the submit's transaction is still bound
+     */
+    @PostConstruct
+    public void createTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Submits a job, which starts once a runner is idle
+     *
+     * @param jobRequest
+     * @return JobInfo of the queued job
+     */
+    @Transactional(readOnly = false)
+    public JobInfo submitJob(JobRequest jobRequest) {
+        if (Objects.isNull(jobRequest.getJobType())) {
+            throw new IllegalArgumentException("jobType is required");
+        }
+
+        Map<String, String> parameters = Objects.requireNonNullElse(jobRequest.getParameters(), Map.of());
+        findStep(jobRequest.getJobType()).validate(parameters);
+
+        if (jobDao.countByStatus(JobStatus.QUEUED) >= maxQueued) {
+            throw new IllegalStateException("Job queue is full: " + maxQueued + " jobs queued");
+        }
+
+        Job job = jobDao.save(new Job(jobRequest.getJobType(), writeParameters(parameters), Instant.now()));
+        afterCommit(this::dispatch);
+        return new JobInfo(job, parameters);
+    }
+
+    /**
+     * Retrieves a job's status and progress
+     *
+     * @param jobId
+     * @return JobInfo
+     */
+    @Transactional(readOnly = true)
+    public JobInfo retrieveJob(Long jobId) {
+        Job job = findJob(jobId);
+        return new JobInfo(job, readParameters(job));
+    }
+
+    /**
+     * Retrieves the items a job rejected, such as the invalid lines of an import
+     *
+     * @param jobId
+     * @param after - item to continue after, optional
+     * @param limit - page size, capped at MAX_ERROR_PAGE_SIZE
+     * @return rejected items in item order
+     */
+    @Transactional(readOnly = true)
+    public List<JobItemError> retrieveJobErrors(Long jobId, Long after, Integer limit) {
+        int pageSize = Objects.isNull(limit) ? DEFAULT_ERROR_PAGE_SIZE : limit;
+
+        if (pageSize < 1 || pageSize > MAX_ERROR_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_ERROR_PAGE_SIZE + ": " + limit);
+        }
+
+        findJob(jobId);
+        return jobErrorDao.findByJobIdAndItemGreaterThanOrderByItem(jobId, Objects.requireNonNullElse(after, 0L),
+                PageRequest.ofSize(pageSize)).stream()
+                .map(error -> new JobItemError(error.getItem(), error.getMessage())).toList();
+    }
+
+    /**
+     * Cancels a job. A queued job is cancelled at once, a running one at its
+     * next chunk; the chunks already run stay done.
+     *
+     * @param jobId
+     * @return JobInfo
+     */
+    public JobInfo cancelJob(Long jobId) {
+        return retryOnConflict(() -> {
+            Job job = findJob(jobId);
+
+            if (job.getStatus() != JobStatus.QUEUED && job.getStatus() != JobStatus.RUNNING) {
+                throw new IllegalStateException("Job " + jobId + " has already finished: " + job.getStatus());
+            }
+
+            job.setCancelRequested(true);
+
+            if (job.getStatus() == JobStatus.QUEUED) {
+                finish(job, JobStatus.CANCELLED, null);
+            }
+
+            return new JobInfo(job, readParameters(job));
+        });
+    }
+
+    /**
+     * Queues the running jobs whose heartbeat stopped again and hands queued
+     * jobs to the idle runners. Runs after every submit too.
+     */
+    @Scheduled(fixedDelayString = "${flight-tracker.jobs.poll-interval:PT5S}")
+    public synchronized void dispatch() {
+        if (stopping) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> requeueStaleJobs());
+        } catch (ConcurrencyFailureException e) {
+            log.debug("Stale jobs changed concurrently, requeueing at the next poll: {}", e.getMessage());
+        }
+
+        int idle = threads - inFlight.get();
+
+        if (idle <= 0) {
+            return;
+        }
+
+        List<Long> jobIds = transactionTemplate.execute(status -> jobDao
+                .findByStatusOrderByJobId(JobStatus.QUEUED, PageRequest.ofSize(idle)).stream()
+                .map(Job::getJobId).toList());
+
+        for (Long jobId : jobIds) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> claim(jobId)))) {
+                    start(jobId);
+                }
+            } catch (ConcurrencyFailureException e) {
+                // Claimed or cancelled by someone else.
+                log.debug("Job {} changed while claiming it: {}", jobId, e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Job {} could not be started", jobId, e);
+                fail(jobId, e);
+            }
+        }
+    }
+
+    /**
+     * Lets the running chunks finish and queues their jobs again, so the next
+     * instance to start resumes them without waiting for the heartbeat timeout
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Jobs still running at shutdown resume after the heartbeat timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues running jobs without a recent heartbeat again, in the current
+     * transaction
+     */
+    private void requeueStaleJobs() {
+        for (Job job : jobDao.findByStatusAndHeartbeatAtBefore(JobStatus.RUNNING,
+                Instant.now().minus(heartbeatTimeout))) {
+            log.warn("Job {} of {} stopped sending heartbeats, queueing it again", job.getJobId(), job.getOwner());
+            job.setStatus(JobStatus.QUEUED);
+            job.setOwner(null);
+        }
+    }
+
+    /**
+     * Claims a queued job for this instance in the current transaction. Its
+     * version keeps another instance from claiming it too.
+     *
+     * @param jobId
+     * @return true if claimed
+     */
+    private boolean claim(Long jobId) {
+        Job job = jobDao.findById(jobId).orElse(null);
+
+        if (Objects.isNull(job) || job.getStatus() != JobStatus.QUEUED) {
+            return false;
+        }
+
+        if (Objects.isNull(job.getTotal())) {
+            job.setTotal(findStep(job.getJobType()).countWork(readParameters(job)));
+        }
+
+        Instant now = Instant.now();
+        job.setStatus(JobStatus.RUNNING);
+        job.setOwner(owner);
+        job.setHeartbeatAt(now);
+
+        if (Objects.isNull(job.getStartedAt())) {
+            job.setStartedAt(now);
+        }
+
+        log.info("Starting job {} {} at checkpoint {}", jobId, job.getJobType(), job.getCheckpoint());
+        return true;
+    }
+
+    /**
+     * Hands a claimed job to a runner. A job the executor rejects, because the
+     * instance is stopping, is queued again rather than failed.
+     *
+     * @param jobId
+     */
+    private void start(Long jobId) {
+        inFlight.incrementAndGet();
+
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            log.info("Job {} could not be handed to a runner, queueing it again: {}", jobId, e.getMessage());
+            release(jobId);
+        }
+    }
+
+    /**
+     * Runs a claimed job chunk by chunk until it is done, cancelled, taken over
+     * or the instance stops
+     *
+     * @param jobId
+     */
+    private void run(Long jobId) {
+        try {
+            boolean stopped = false;
+
+            while (!stopped) {
+                if (stopping) {
+                    release(jobId);
+                    return;
+                }
+
+                stopped = retryOnConflict(() -> runChunk(jobId));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Job {} failed", jobId, e);
+            fail(jobId, e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs the next chunk of a job in the current transaction and saves its
+     * checkpoint
+     *
+     * @param jobId
+     * @return true if the job stopped
+     */
+    private boolean runChunk(Long jobId) {
+        Job job = jobDao.findById(jobId).orElse(null);
+
+        // Queued again as stale, or cancelled while queued: whoever holds it now
+        // carries on.
+        if (Objects.isNull(job) || job.getStatus() != JobStatus.RUNNING || !owner.equals(job.getOwner())) {
+            return true;
+        }
+
+        if (job.isCancelRequested()) {
+            finish(job, JobStatus.CANCELLED, null);
+            log.info("Job {} cancelled after {} of {}", jobId, job.getProcessed(), job.getTotal());
+            return true;
+        }
+
+        Chunk chunk = findStep(job.getJobType()).runChunk(readParameters(job), job.getCheckpoint());
+        job.setCheckpoint(chunk.getCheckpoint());
+        job.setProcessed(job.getProcessed() + chunk.getProcessed());
+        job.setRejected(job.getRejected() + chunk.getErrors().size());
+        jobErrorDao.saveAll(chunk.getErrors().stream().map(error -> new JobError(jobId, error)).toList());
+        job.setHeartbeatAt(Instant.now());
+
+        if (chunk.isDone()) {
+            finish(job, JobStatus.SUCCEEDED, null);
+            log.info("Job {} succeeded after {}", jobId, job.getProcessed());
+        }
+
+        return chunk.isDone();
+    }
+
+    /**
+     * Queues a job of this instance again
+     *
+     * @param jobId
+     */
+    private void release(Long jobId) {
+        transactionTemplate.executeWithoutResult(status -> jobDao.findById(jobId)
+                .filter(job -> job.getStatus() == JobStatus.RUNNING && owner.equals(job.getOwner()))
+                .ifPresent(job -> {
+                    job.setStatus(JobStatus.QUEUED);
+                    job.setOwner(null);
+                }));
+    }
+
+    /**
+     * Marks a job failed, unless another instance holds it
+     *
+     * @param jobId
+     * @param failure
+     */
+    private void fail(Long jobId, RuntimeException failure) {
+        String error = Objects.requireNonNullElse(failure.getMessage(), failure.getClass().getName());
+        String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobDao.findById(jobId)
+                    .filter(job -> job.getStatus() == JobStatus.QUEUED
+                            || job.getStatus() == JobStatus.RUNNING && owner.equals(job.getOwner()))
+                    .ifPresent(job -> finish(job, JobStatus.FAILED, truncated)));
+        } catch (RuntimeException e) {
+            log.error("Job {} could not be marked failed, it resumes after the heartbeat timeout", jobId, e);
+        }
+    }
+
+    private void finish(Job job, JobStatus status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setOwner(null);
+        job.setFinishedAt(Instant.now());
+    }
+
+    private Job findJob(Long jobId) {
+        return jobDao.findById(jobId).orElseThrow(() -> new NoSuchElementException("Job not found: " + jobId));
+    }
+
+    private JobStep findStep(JobType jobType) {
+        return jobSteps.stream().filter(step -> step.getJobType() == jobType).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported jobType: " + jobType));
+    }
+
+    private String writeParameters(Map<String, String> parameters) {
+        try {
+            return objectMapper.writeValueAsString(parameters);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid job parameters: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, String> readParameters(Job job) {
+        try {
+            return objectMapper.readValue(job.getParameters(), new TypeReference<Map<String, String>>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable parameters of job " + job.getJobId(), e);
+        }
+    }
+
+    /**
+     * Runs the work in its own transaction, again in a fresh one when it loses
+     * to a concurrent transaction
+     *
+     * @param work
+     * @return result of the work
+     */
+    private <T> T retryOnConflict(Supplier<T> work) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException | DuplicateKeyException e) {
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(CHUNK_BACKOFF_MILLIS << attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
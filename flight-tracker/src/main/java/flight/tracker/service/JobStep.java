@@ -0,0 +1,100 @@
+package flight.tracker.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import flight.tracker.controller.model.JobInfo.JobItemError;
+import flight.tracker.controller.model.JobInfo.JobType;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/***
+ * The work of one job type, run by JobService one chunk at a time. Each chunk
+ * runs in a transaction that also saves the job's checkpoint and progress, so
+ * the FlightTrackerService operations a step calls must join the current
+ * transaction rather than start their own. When a chunk loses to a concurrent
+ * transaction it is rolled back together with its checkpoint and run again.
+ *
+ */
+public interface JobStep {
+
+    /**
+     * @return job type the step runs
+     */
+    JobType getJobType();
+
+    /**
+     * Validates the parameters of a job being submitted
+     *
+     * @param parameters
+     * @throws IllegalArgumentException if they are invalid
+     */
+    void validate(Map<String, String> parameters);
+
+    /**
+     * Counts the work of a job as it starts, for its progress
+     *
+     * @param parameters
+     * @return units of work, null if unknown
+     */
+    Long countWork(Map<String, String> parameters);
+
+    /**
+     * Runs the next chunk of a job in the current transaction
+     *
+     * @param parameters
+     * @param checkpoint - checkpoint of the previous chunk, null for the first
+     * @return processed units, the rejected ones among them, next checkpoint and
+     *         whether the job is done
+     */
+    Chunk runChunk(Map<String, String> parameters, String checkpoint);
+
+    /**
+     * Reads a required numeric parameter
+     *
+     * @param parameters
+     * @param name
+     * @return value
+     * @throws IllegalArgumentException if it is missing or not a number
+     */
+    static Long longParameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+
+        if (Objects.isNull(value)) {
+            throw new IllegalArgumentException("Missing job parameter: " + name);
+        }
+
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid job parameter " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Result of one chunk
+     */
+    @Value
+    @AllArgsConstructor
+    class Chunk {
+
+        int processed;
+        String checkpoint;
+        boolean done;
+        List<JobItemError> errors;
+
+        /**
+         * Chunk constructor for a chunk without rejected items
+         *
+         * @param processed
+         * @param checkpoint
+         * @param done
+         */
+        public Chunk(int processed, String checkpoint, boolean done) {
+            this(processed, checkpoint, done, List.of());
+        }
+
+    }
+
+}
@@ -0,0 +1,321 @@
+package flight.tracker.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import flight.tracker.config.ReadWriteRoutingDataSource;
+import flight.tracker.dao.PassengerDao;
+import flight.tracker.dao.PassengerRow;
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * Optional in-memory passenger search index, for lookups that can't wait on
+ * the database. Passengers are kept in sorted maps keyed by their normalized
+ * last name and email, lower case without accents, followed by the passenger
+ * id; a prefix search is a range scan of the last name map.
+ *
+ * The index is built after startup from a streaming scan of passenger and
+ * kept current by FlightTrackerService, which hands it every passenger it
+ * writes or deletes once the transaction has committed. A write only replaces
+ * an older version of the passenger, so a scan row read before a concurrent
+ * change can't overwrite it, and passengers deleted during the scan are
+ * remembered until it ends. Until the index is ready searches use the
+ * database.
+ *
+ */
+@Component
+@Slf4j
+public class PassengerSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final String ID_PADDING = "0000000000000000000";
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final boolean enabled;
+    private final Map<Long, PassengerRow> passengers = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, PassengerRow> byLastName = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, PassengerRow> byEmail = new ConcurrentSkipListMap<>();
+    private final Set<Long> deletedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    @Autowired
+    private PassengerDao passengerDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * PassengerSearchIndex constructor
+     *
+     * @param enabled - whether to build and maintain the index
+     */
+    public PassengerSearchIndex(
+            @Value("${flight-tracker.passenger-search.in-memory-index:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts building the index in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuild() {
+        if (!enabled) {
+            return;
+        }
+
+        building = true;
+        Thread builder = new Thread(this::build, "passenger-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Whether searches can use the index
+     *
+     * @return true once the index is built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Number of passengers in the index
+     *
+     * @return indexed passengers
+     */
+    public int size() {
+        return passengers.size();
+    }
+
+    /**
+     * Adds or replaces a committed passenger, unless the index already has the
+     * same or a newer version
+     *
+     * @param passenger
+     */
+    public void put(PassengerRow passenger) {
+        if (enabled) {
+            put(passenger, false);
+        }
+    }
+
+    /**
+     * Adds or replaces committed passengers
+     *
+     * @param rows
+     */
+    public void putAll(Collection<PassengerRow> rows) {
+        rows.forEach(this::put);
+    }
+
+    /**
+     * Removes a deleted passenger
+     *
+     * @param passengerId
+     */
+    public void remove(Long passengerId) {
+        if (!enabled) {
+            return;
+        }
+
+        if (building) {
+            deletedDuringBuild.add(passengerId);
+        }
+
+        passengers.computeIfPresent(passengerId, (id, indexed) -> replace(indexed, null));
+    }
+
+    /**
+     * Passengers whose normalized last name starts with the normalized prefix,
+     * ordered by normalized last name and passenger id
+     *
+     * @param prefix
+     * @param afterLastName    - last name of the previous page's last row, optional
+     * @param afterPassengerId - passenger id of the previous page's last row
+     * @param limit
+     * @return up to limit passengers
+     */
+    public List<PassengerRow> findByLastNamePrefix(String prefix, String afterLastName, Long afterPassengerId,
+            int limit) {
+        String from = normalize(prefix);
+        String to = from + Character.MAX_VALUE;
+        boolean inclusive = true;
+
+        if (Objects.nonNull(afterLastName)) {
+            String after = key(afterLastName, afterPassengerId);
+
+            if (after.compareTo(from) >= 0) {
+                from = after;
+                inclusive = false;
+            }
+        }
+
+        if (from.compareTo(to) >= 0) {
+            return List.of();
+        }
+
+        return first(byLastName.subMap(from, inclusive, to, false), limit);
+    }
+
+    /**
+     * Passengers with the email address, compared normalized, ordered by
+     * passenger id
+     *
+     * @param email
+     * @param afterPassengerId - passenger id of the previous page's last row
+     * @param limit
+     * @return up to limit passengers
+     */
+    public List<PassengerRow> findByEmail(String email, Long afterPassengerId, int limit) {
+        String normalized = normalize(email) + KEY_SEPARATOR;
+        return first(byEmail.subMap(key(email, afterPassengerId), false, normalized + Character.MAX_VALUE, false),
+                limit);
+    }
+
+    /**
+     * Lower case, trimmed and without accents, so "Müller" finds "muller"
+     *
+     * @param value
+     * @return normalized value
+     */
+    static String normalize(String value) {
+        if (Objects.isNull(value)) {
+            return "";
+        }
+
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Scans every passenger into the index, then lets searches use it. The scan
+     * reads the primary: a passenger deleted there but still on a lagging
+     * replica would stay in the index.
+     */
+    private void build() {
+        long start = System.nanoTime();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        try {
+            ReadWriteRoutingDataSource.readFromPrimary(() -> readOnly.execute(status -> {
+                try (Stream<PassengerRow> rows = passengerDao.streamAllPassengerRows()) {
+                    rows.forEach(row -> put(row, true));
+                }
+
+                return null;
+            }));
+            ready = true;
+            log.info("Passenger search index built: {} passengers in {} ms", passengers.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Building the passenger search index failed, searches use the database", e);
+        } finally {
+            building = false;
+            deletedDuringBuild.clear();
+        }
+    }
+
+    /**
+     * Applies a passenger unless the index has the same or a newer version. A
+     * scanned passenger deleted during the build is skipped; the check runs
+     * within the passenger's compute, after which a delete always sees it.
+     *
+     * @param passenger
+     * @param scanned   - read by the build scan
+     */
+    private void put(PassengerRow passenger, boolean scanned) {
+        passengers.compute(passenger.getPassengerId(), (passengerId, indexed) -> {
+            if (scanned && deletedDuringBuild.contains(passengerId)
+                    || Objects.nonNull(indexed) && indexed.getVersion() >= passenger.getVersion()) {
+                return indexed;
+            }
+
+            return replace(indexed, passenger);
+        });
+    }
+
+    /**
+     * Swaps a passenger's entries in the sorted maps, called within the
+     * passenger's compute so writes of one passenger don't interleave
+     *
+     * @param indexed   - current entry, null if none
+     * @param passenger - new entry, null to remove
+     * @return new entry
+     */
+    private PassengerRow replace(PassengerRow indexed, PassengerRow passenger) {
+        if (Objects.nonNull(indexed)) {
+            byLastName.remove(key(indexed.getPassengerLastName(), indexed.getPassengerId()));
+
+            if (Objects.nonNull(indexed.getPassengerEmail())) {
+                byEmail.remove(key(indexed.getPassengerEmail(), indexed.getPassengerId()));
+            }
+        }
+
+        if (Objects.nonNull(passenger)) {
+            byLastName.put(key(passenger.getPassengerLastName(), passenger.getPassengerId()), passenger);
+
+            if (Objects.nonNull(passenger.getPassengerEmail())) {
+                byEmail.put(key(passenger.getPassengerEmail(), passenger.getPassengerId()), passenger);
+            }
+        }
+
+        return passenger;
+    }
+
+    /**
+     * Sort key: normalized value, then the zero-padded passenger id
+     *
+     * @param value
+     * @param passengerId
+     * @return key
+     */
+    private static String key(String value, Long passengerId) {
+        String id = Long.toString(passengerId);
+        return normalize(value) + KEY_SEPARATOR + ID_PADDING.substring(Math.min(id.length(), ID_PADDING.length()))
+                + id;
+    }
+
+    /**
+     * The first rows of a range of a sorted map
+     *
+     * @param range
+     * @param limit
+     * @return up to limit rows
+     */
+    private static List<PassengerRow> first(NavigableMap<String, PassengerRow> range, int limit) {
+        List<PassengerRow> rows = new ArrayList<>(Math.min(limit, 64));
+
+        for (PassengerRow row : range.values()) {
+            if (rows.size() == limit) {
+                break;
+            }
+
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+}
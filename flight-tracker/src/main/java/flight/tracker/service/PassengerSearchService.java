@@ -0,0 +1,182 @@
+package flight.tracker.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import flight.tracker.controller.model.PassengerPage;
+import flight.tracker.dao.PassengerDao;
+import flight.tracker.dao.PassengerRow;
+import io.micrometer.core.annotation.Timed;
+
+/***
+ * Passenger lookups for check-in kiosks and agents: by last name prefix, by
+ * email and by the seat on a flight. Name and email searches use the
+ * in-memory PassengerSearchIndex once it is built, the passenger indexes of
+ * the database otherwise; both page by the same keyset, so a page token
+ * from one works with the other.
+ *
+ */
+@Service
+@Timed("flight.tracker.service")
+public class PassengerSearchService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String PAGE_TOKEN_PREFIX = "passenger:";
+
+    @Autowired
+    private PassengerDao passengerDao;
+
+    @Autowired
+    private PassengerSearchIndex passengerSearchIndex;
+
+    /**
+     * Searches passengers by exactly one criterion: a last name prefix, an
+     * email address, or a flight number with a seat number
+     * 
+     * @param lastName     - last name prefix
+     * @param email
+     * @param flightNumber - with seatNumber
+     * @param seatNumber   - with flightNumber
+     * @param pageToken    - nextPageToken of the previous page, optional
+     * @param limit        - page size, capped at MAX_PAGE_SIZE
+     * @return page of passengers
+     */
+    @Transactional(readOnly = true)
+    public PassengerPage searchPassengers(String lastName, String email, Long flightNumber, String seatNumber,
+            String pageToken, Integer limit) {
+        boolean byLastName = Objects.nonNull(lastName) && !lastName.isBlank();
+        boolean byEmail = Objects.nonNull(email) && !email.isBlank();
+        boolean bySeat = Objects.nonNull(flightNumber) || Objects.nonNull(seatNumber);
+
+        if ((byLastName ? 1 : 0) + (byEmail ? 1 : 0) + (bySeat ? 1 : 0) != 1) {
+            throw new IllegalArgumentException(
+                    "Search by exactly one of lastName, email or flightNumber and seatNumber");
+        }
+
+        if (bySeat) {
+            if (Objects.isNull(flightNumber) || Objects.isNull(seatNumber)) {
+                throw new IllegalArgumentException("flightNumber and seatNumber are both required");
+            }
+
+            return new PassengerPage(passengerDao.findBySeat(flightNumber, seatNumber)
+                    .map(PassengerRow::toFlightPassenger).stream().toList(), null);
+        }
+
+        int pageSize = resolvePageSize(limit);
+        PassengerRow after = decodePageToken(pageToken);
+
+        // One row more than the page tells whether there is a next page.
+        List<PassengerRow> rows = byLastName
+                ? findByLastNamePrefix(lastName.trim(), after, pageSize + 1)
+                : findByEmail(email.trim(), after, pageSize + 1);
+        String nextPageToken = null;
+
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextPageToken = encodePageToken(rows.get(pageSize - 1));
+        }
+
+        return new PassengerPage(rows.stream().map(PassengerRow::toFlightPassenger).toList(), nextPageToken);
+    }
+
+    /**
+     * Last name prefix search in the index, or the database until it is built
+     * 
+     * @param prefix
+     * @param after  - keyset of the previous page's last row
+     * @param limit
+     * @return up to limit passenger rows
+     */
+    private List<PassengerRow> findByLastNamePrefix(String prefix, PassengerRow after, int limit) {
+        if (passengerSearchIndex.isReady()) {
+            return passengerSearchIndex.findByLastNamePrefix(prefix, after.getPassengerLastName(),
+                    after.getPassengerId(), limit);
+        }
+
+        String pattern = prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        return passengerDao.findByLastNamePrefix(pattern, after.getPassengerLastName(), after.getPassengerId(),
+                PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Email search in the index, or the database until it is built
+     * 
+     * @param email
+     * @param after - keyset of the previous page's last row
+     * @param limit
+     * @return up to limit passenger rows
+     */
+    private List<PassengerRow> findByEmail(String email, PassengerRow after, int limit) {
+        if (passengerSearchIndex.isReady()) {
+            return passengerSearchIndex.findByEmail(email, after.getPassengerId(), limit);
+        }
+
+        return passengerDao.findByEmail(email, after.getPassengerId(), PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Validates the requested page size
+     * 
+     * @param limit
+     * @return page size
+     */
+    private int resolvePageSize(Integer limit) {
+        if (Objects.isNull(limit)) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+
+        return limit;
+    }
+
+    /**
+     * Encodes the passenger id and last name of a page's last row as an opaque
+     * token
+     * 
+     * @param last
+     * @return page token
+     */
+    private String encodePageToken(PassengerRow last) {
+        String lastName = Objects.isNull(last.getPassengerLastName()) ? "" : last.getPassengerLastName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (PAGE_TOKEN_PREFIX + last.getPassengerId() + ":" + lastName).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a page token into the keyset of the previous page's last row
+     * 
+     * @param pageToken
+     * @return row with the passenger id and last name to continue after, id 0
+     *         and an empty last name for the first page
+     */
+    private PassengerRow decodePageToken(String pageToken) {
+        if (Objects.isNull(pageToken) || pageToken.isBlank()) {
+            return new PassengerRow(0L, null, "", null, null, 0);
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+
+            if (!decoded.startsWith(PAGE_TOKEN_PREFIX) || decoded.indexOf(':', PAGE_TOKEN_PREFIX.length()) < 0) {
+                throw new IllegalArgumentException("Invalid pageToken: " + pageToken);
+            }
+
+            String[] keyset = decoded.substring(PAGE_TOKEN_PREFIX.length()).split(":", 2);
+            return new PassengerRow(Long.valueOf(keyset[0]), null, keyset[1], null, null, 0);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid pageToken: " + pageToken);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package flight.tracker.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.dao.ReactiveFlightDao;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/***
+ * Non-blocking read side of FlightTracker, on R2DBC
+ * 
+ */
+@Service
+public class ReactiveFlightTrackerService {
+
+    private static final int PASSENGER_CHUNK_SIZE = 500;
+
+    @Autowired
+    private ReactiveFlightDao reactiveFlightDao;
+
+    /**
+     * Streams flights with their passengers, ordered by flight number. Flights
+     * are read as the subscriber requests them and their passengers are loaded
+     * one query per chunk, so memory stays bounded by the chunk size.
+     * 
+     * @param airlineCode - optional filter
+     * @return flights
+     */
+    public Flux<FlightData> retrieveFlights(Long airlineCode) {
+        return reactiveFlightDao.findFlights(airlineCode).buffer(PASSENGER_CHUNK_SIZE)
+                .concatMap(this::attachPassengers, 1);
+    }
+
+    /**
+     * Retrieves flight with its passengers
+     * 
+     * @param flightNumber
+     * @return flight, or NoSuchElementException
+     */
+    public Mono<FlightData> retrieveFlight(Long flightNumber) {
+        return reactiveFlightDao.findFlight(flightNumber)
+                .switchIfEmpty(Mono.error(
+                        () -> new NoSuchElementException("Flight with flightNumber=" + flightNumber + "not found.")))
+                .flatMap(flight -> attachPassengers(List.of(flight)).single());
+    }
+
+    /**
+     * Streams airlines ordered by airline code
+     * 
+     * @return airlines
+     */
+    public Flux<FlightAirline> retrieveAirlines() {
+        return reactiveFlightDao.findAirlines();
+    }
+
+    /**
+     * Retrieves airline
+     * 
+     * @param airlineCode
+     * @return airline, or NoSuchElementException
+     */
+    public Mono<FlightAirline> retrieveAirline(Long airlineCode) {
+        return reactiveFlightDao.findAirline(airlineCode).switchIfEmpty(Mono.error(
+                () -> new NoSuchElementException("AirlineCode not found: " + airlineCode)));
+    }
+
+    /**
+     * Adds the passengers of a chunk of flights in one query
+     * 
+     * @param flights
+     * @return flights, in their original order
+     */
+    private Flux<FlightData> attachPassengers(List<FlightData> flights) {
+        Map<Long, FlightData> flightsByNumber = flights.stream()
+                .collect(Collectors.toMap(FlightData::getFlightNumber, Function.identity()));
+
+        return reactiveFlightDao.findPassengerRows(flightsByNumber.keySet())
+                .doOnNext(row -> flightsByNumber.get(row.getFlightNumber()).getPassengers()
+                        .add(row.toFlightPassenger()))
+                .thenMany(Flux.fromIterable(flights));
+    }
+
+}
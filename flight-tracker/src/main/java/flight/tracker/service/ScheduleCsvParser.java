@@ -0,0 +1,406 @@
+package flight.tracker.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.JobInfo.JobItemError;
+import lombok.Value;
+
+/**
+ * Parses a flight schedule CSV from a memory-mapped file, a chunk at a time.
+ * The first line is a header naming the FlightData fields flightNumber,
+ * airlineCode, departureDate, departureTime, arrivalDate and arrivalTime, in
+ * any order; airlineCode, departureDate and departureTime are required.
+ * Each column appears at most once, a UTF-8 byte order mark before the header
+ * is skipped. Values are comma separated without quoting, dates and times are
+ * ISO-8601.
+ * A chunk's lines are split into segments at line boundaries and the segments
+ * parsed in parallel.
+ */
+final class ScheduleCsvParser {
+
+    static final String FLIGHT_NUMBER = "flightNumber";
+    static final String AIRLINE_CODE = "airlineCode";
+    static final String DEPARTURE_DATE = "departureDate";
+    static final String DEPARTURE_TIME = "departureTime";
+    static final String ARRIVAL_DATE = "arrivalDate";
+    static final String ARRIVAL_TIME = "arrivalTime";
+
+    private static final List<String> COLUMNS = List.of(FLIGHT_NUMBER, AIRLINE_CODE, DEPARTURE_DATE,
+            DEPARTURE_TIME, ARRIVAL_DATE, ARRIVAL_TIME);
+    private static final byte NEWLINE = '\n';
+    private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+    private static final int MAX_HEADER_BYTES = 4096;
+    private static final int MIN_SEGMENT_BYTES = 16 * 1024;
+    private static final int COUNT_REGION_BYTES = 64 * 1024 * 1024;
+
+    private ScheduleCsvParser() {
+    }
+
+    /**
+     * Reads the header line
+     *
+     * @param file
+     * @return column positions and the offset of the first data line
+     * @throws IOException
+     */
+    static Header readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size == 0) {
+                throw new IllegalArgumentException("Schedule is empty");
+            }
+
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, Math.min(size, MAX_HEADER_BYTES));
+            int start = startsWithByteOrderMark(buffer) ? BYTE_ORDER_MARK.length : 0;
+            int newline = indexOf(buffer, start, buffer.limit());
+
+            if (newline < 0 && size > MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("Schedule header is longer than " + MAX_HEADER_BYTES + " bytes");
+            }
+
+            String header = decode(buffer, start, newline < 0 ? buffer.limit() : newline);
+            return new Header(readColumns(header), newline < 0 ? size : newline + 1);
+        }
+    }
+
+    /**
+     * Counts the lines from an offset to the end of the file
+     *
+     * @param file
+     * @param offset
+     * @return lines, the last one counted with or without a line break
+     * @throws IOException
+     */
+    static long countLines(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long lines = 0;
+            byte last = NEWLINE;
+
+            for (long position = offset; position < size; position += COUNT_REGION_BYTES) {
+                MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, position,
+                        Math.min(COUNT_REGION_BYTES, size - position));
+
+                for (int index = 0; index < buffer.limit(); index++) {
+                    if (buffer.get(index) == NEWLINE) {
+                        lines++;
+                    }
+                }
+
+                last = buffer.get(buffer.limit() - 1);
+            }
+
+            return last == NEWLINE ? lines : lines + 1;
+        }
+    }
+
+    /**
+     * Parses the whole lines within maxBytes from an offset
+     *
+     * @param file
+     * @param columns   - column positions of the header
+     * @param offset    - offset of the first line
+     * @param firstLine - line number of the first line
+     * @param maxBytes  - chunk size, at least one line
+     * @return valid rows, invalid lines and where the next chunk starts
+     * @throws IOException
+     */
+    static ParsedChunk parse(Path file, Map<String, Integer> columns, long offset, long firstLine, int maxBytes)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int length = (int) Math.min(maxBytes, size - offset);
+
+            if (length <= 0) {
+                return new ParsedChunk(List.of(), List.of(), 0, offset, true);
+            }
+
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, offset, length);
+            boolean endOfFile = offset + length == size;
+            int end = endOfFile ? length : lastIndexOf(buffer, length) + 1;
+
+            if (end == 0) {
+                throw new IllegalArgumentException("Line " + firstLine + " is longer than " + maxBytes + " bytes");
+            }
+
+            List<ScheduleRow> rows = new ArrayList<>();
+            List<JobItemError> errors = new ArrayList<>();
+            long line = firstLine;
+
+            for (Segment segment : parseSegments(buffer, end, columns)) {
+                for (int index = 0; index < segment.flights.size(); index++) {
+                    rows.add(new ScheduleRow(line + segment.flightLines.get(index), segment.flights.get(index)));
+                }
+
+                for (JobItemError error : segment.errors) {
+                    errors.add(new JobItemError(line + error.getItem(), error.getMessage()));
+                }
+
+                line += segment.lines;
+            }
+
+            return new ParsedChunk(rows, errors, (int) (line - firstLine), offset + end, endOfFile);
+        }
+    }
+
+    /**
+     * Splits the lines before end into one segment per core, at least
+     * MIN_SEGMENT_BYTES each, and parses them in parallel
+     *
+     * @param buffer
+     * @param end
+     * @param columns
+     * @return parsed segments in file order
+     */
+    private static List<Segment> parseSegments(MappedByteBuffer buffer, int end, Map<String, Integer> columns) {
+        int segmentCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), end / MIN_SEGMENT_BYTES));
+        int[] bounds = new int[segmentCount + 1];
+        bounds[segmentCount] = end;
+
+        for (int segment = 1; segment < segmentCount; segment++) {
+            int from = Math.max(bounds[segment - 1], (int) ((long) end * segment / segmentCount));
+            int newline = indexOf(buffer, from, end);
+            bounds[segment] = newline < 0 ? end : newline + 1;
+        }
+
+        return IntStream.range(0, segmentCount).parallel()
+                .mapToObj(segment -> parseSegment(buffer, bounds[segment], bounds[segment + 1], columns)).toList();
+    }
+
+    private static Segment parseSegment(MappedByteBuffer buffer, int from, int to, Map<String, Integer> columns) {
+        Segment segment = new Segment();
+        int start = from;
+
+        while (start < to) {
+            int newline = indexOf(buffer, start, to);
+            int lineEnd = newline < 0 ? to : newline;
+            String line = decode(buffer, start, lineEnd);
+
+            if (!line.isBlank()) {
+                try {
+                    segment.flights.add(parseLine(line, columns));
+                    segment.flightLines.add(segment.lines);
+                } catch (IllegalArgumentException e) {
+                    segment.errors.add(new JobItemError(segment.lines, e.getMessage()));
+                }
+            }
+
+            segment.lines++;
+            start = lineEnd + 1;
+        }
+
+        return segment;
+    }
+
+    /**
+     * Parses and validates one line
+     *
+     * @param line
+     * @param columns
+     * @return FlightData with its airlineCode
+     */
+    private static FlightData parseLine(String line, Map<String, Integer> columns) {
+        String[] values = line.split(",", -1);
+        FlightData flight = new FlightData();
+        flight.setFlightNumber(parseValue(values, columns, FLIGHT_NUMBER, Long::valueOf));
+        flight.setAirlineCode(parseValue(values, columns, AIRLINE_CODE, Long::valueOf));
+        flight.setDepartureDate(parseValue(values, columns, DEPARTURE_DATE, LocalDate::parse));
+        flight.setDepartureTime(parseValue(values, columns, DEPARTURE_TIME, LocalTime::parse));
+        flight.setArrivalDate(parseValue(values, columns, ARRIVAL_DATE, LocalDate::parse));
+        flight.setArrivalTime(parseValue(values, columns, ARRIVAL_TIME, LocalTime::parse));
+
+        if (Objects.isNull(flight.getAirlineCode())) {
+            throw new IllegalArgumentException(AIRLINE_CODE + " is required");
+        }
+
+        if (Objects.isNull(flight.getDepartureDate()) || Objects.isNull(flight.getDepartureTime())) {
+            throw new IllegalArgumentException(DEPARTURE_DATE + " and " + DEPARTURE_TIME + " are required");
+        }
+
+        if (Objects.isNull(flight.getArrivalDate()) != Objects.isNull(flight.getArrivalTime())) {
+            throw new IllegalArgumentException("arrival requires both a date and a time");
+        }
+
+        if (Objects.nonNull(flight.getArrivalDate()) && flight.getArrivalDate().atTime(flight.getArrivalTime())
+                .isBefore(flight.getDepartureDate().atTime(flight.getDepartureTime()))) {
+            throw new IllegalArgumentException("arrival must not be before departure");
+        }
+
+        return flight;
+    }
+
+    /**
+     * Value of a column on one line, null when missing or blank
+     *
+     * @param <T>
+     * @param values
+     * @param columns
+     * @param name
+     * @param parser
+     * @return parsed value
+     */
+    private static <T> T parseValue(String[] values, Map<String, Integer> columns, String name,
+            Function<String, T> parser) {
+        Integer column = columns.get(name);
+
+        if (Objects.isNull(column) || column >= values.length || values[column].isBlank()) {
+            return null;
+        }
+
+        String value = values[column].strip();
+
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Maps header names to column positions
+     *
+     * @param header
+     * @return column positions
+     */
+    private static Map<String, Integer> readColumns(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = header.split(",", -1);
+
+        for (int column = 0; column < names.length; column++) {
+            String name = names[column].strip();
+
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown schedule column: " + name);
+            }
+
+            if (Objects.nonNull(columns.put(name, column))) {
+                throw new IllegalArgumentException("Duplicate schedule column: " + name);
+            }
+        }
+
+        for (String required : List.of(AIRLINE_CODE, DEPARTURE_DATE, DEPARTURE_TIME)) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Schedule header must contain " + required);
+            }
+        }
+
+        return columns;
+    }
+
+    private static boolean startsWithByteOrderMark(MappedByteBuffer buffer) {
+        if (buffer.limit() < BYTE_ORDER_MARK.length) {
+            return false;
+        }
+
+        for (int index = 0; index < BYTE_ORDER_MARK.length; index++) {
+            if (buffer.get(index) != BYTE_ORDER_MARK[index]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, int from, int to) {
+        for (int index = from; index < to; index++) {
+            if (buffer.get(index) == NEWLINE) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int lastIndexOf(MappedByteBuffer buffer, int to) {
+        for (int index = to - 1; index >= 0; index--) {
+            if (buffer.get(index) == NEWLINE) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decodes a line without its line break, absolute reads keep the buffer
+     * usable from several threads
+     *
+     * @param buffer
+     * @param from
+     * @param to
+     * @return line
+     */
+    private static String decode(MappedByteBuffer buffer, int from, int to) {
+        int end = to > from && buffer.get(to - 1) == '\r' ? to - 1 : to;
+        byte[] bytes = new byte[end - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Column positions of a schedule and where its data lines start
+     */
+    @Value
+    static class Header {
+
+        Map<String, Integer> columns;
+        long dataOffset;
+
+    }
+
+    /**
+     * A valid schedule line
+     */
+    @Value
+    static class ScheduleRow {
+
+        long line;
+        FlightData flight;
+
+    }
+
+    /**
+     * The lines of one chunk
+     */
+    @Value
+    static class ParsedChunk {
+
+        List<ScheduleRow> rows;
+        List<JobItemError> errors;
+        int lines;
+        long nextOffset;
+        boolean endOfFile;
+
+    }
+
+    /**
+     * Lines of one segment, numbered from 0 within the segment
+     */
+    private static class Segment {
+
+        private final List<FlightData> flights = new ArrayList<>();
+        private final List<Integer> flightLines = new ArrayList<>();
+        private final List<JobItemError> errors = new ArrayList<>();
+        private int lines;
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package flight.tracker.service;
+
+import java.io.InputStream;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import flight.tracker.controller.model.JobInfo;
+import flight.tracker.controller.model.JobInfo.JobType;
+import flight.tracker.controller.model.JobRequest;
+import flight.tracker.service.ScheduleImportStep.ImportMode;
+import io.micrometer.core.annotation.Timed;
+
+/***
+ * Flight schedule imports. An uploaded schedule is stored in the database and
+ * imported in the background by a SCHEDULE_IMPORT job, which any instance can
+ * run, see ScheduleImportStep.
+ *
+ */
+@Service
+@Timed("flight.tracker.service")
+public class ScheduleImportService {
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ScheduleImportStep scheduleImportStep;
+
+    /**
+     * Stores a schedule and submits its import
+     *
+     * @param csv
+     * @param mode - UPSERT updates the flights a previous import created
+     * @return JobInfo of the queued import
+     */
+    public JobInfo importSchedule(InputStream csv, ImportMode mode) {
+        String file = scheduleImportStep.store(csv);
+        JobRequest jobRequest = new JobRequest();
+        jobRequest.setJobType(JobType.SCHEDULE_IMPORT);
+        jobRequest.setParameters(Map.of(ScheduleImportStep.FILE, file, ScheduleImportStep.MODE, mode.name()));
+
+        try {
+            return jobService.submitJob(jobRequest);
+        } catch (RuntimeException e) {
+            scheduleImportStep.delete(file);
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,389 @@
+package flight.tracker.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import flight.tracker.controller.model.JobInfo.JobItemError;
+import flight.tracker.controller.model.JobInfo.JobType;
+import flight.tracker.dao.AirlineDao;
+import flight.tracker.dao.ScheduleUploadDao;
+import flight.tracker.entity.ScheduleUploadPart;
+import flight.tracker.service.ScheduleCsvParser.Header;
+import flight.tracker.service.ScheduleCsvParser.ParsedChunk;
+import flight.tracker.service.ScheduleCsvParser.ScheduleRow;
+import lombok.extern.slf4j.Slf4j;
+
+/***
+ * Imports a flight schedule CSV as a job, see ScheduleCsvParser for the
+ * format. Each chunk takes the next lines of the file through the pipeline:
+ * parse and validate them in parallel, resolve their airlines and save them
+ * with FlightTrackerService.importFlights. Chunks are bounded by size, and the
+ * next one is only read once the previous one has committed. The checkpoint is
+ * the byte offset and line number of the next line. Parameters: file, the name
+ * of an uploaded schedule, and mode, INSERT or UPSERT.
+ *
+ * Uploads are stored in the database, so whichever instance claims the job can
+ * run it. The parser maps a file, so each instance keeps a copy of the uploads
+ * it imports in its local copy directory, downloaded by the first chunk it
+ * runs; copies of finished imports are swept.
+ *
+ */
+@Component
+@Slf4j
+public class ScheduleImportStep implements JobStep {
+
+    static final String FILE = "file";
+    static final String MODE = "mode";
+
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("^[0-9a-f-]+\\.csv$");
+    private static final long FIRST_DATA_LINE = 2;
+    private static final String PARTIAL_COPY_SUFFIX = ".part";
+
+    private final Path directory;
+    private final int chunkBytes;
+
+    /**
+     * Airlines known to exist. Only hits are cached, an airline created during
+     * an import is found by the next chunk; one deleted meanwhile fails the
+     * chunk that references it.
+     */
+    private final Cache<Long, Boolean> knownAirlines = Caffeine.newBuilder().maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(1)).build();
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private AirlineDao airlineDao;
+
+    @Autowired
+    private ScheduleUploadDao scheduleUploadDao;
+
+    /**
+     * ScheduleImportStep constructor sets the local copy directory and the
+     * chunk size
+     *
+     * @param directory - where this instance keeps copies of the uploads it
+     *                  imports
+     * @param chunkSize - bytes of the file per chunk
+     */
+    public ScheduleImportStep(
+            @Value("${flight-tracker.schedule-import.directory:${java.io.tmpdir}/flight-tracker-schedules}") String directory,
+            @Value("${flight-tracker.schedule-import.chunk-size:256KB}") DataSize chunkSize) {
+        this.directory = Path.of(directory);
+        this.chunkBytes = (int) chunkSize.toBytes();
+    }
+
+    public enum ImportMode {
+        INSERT, UPSERT
+    }
+
+    @Override
+    public JobType getJobType() {
+        return JobType.SCHEDULE_IMPORT;
+    }
+
+    /**
+     * Stores an uploaded schedule in the database, a part at a time, and keeps
+     * a local copy for this instance. The copy only gets its name once the parts
+     * are committed, before that sweepCopies would take it for a finished
+     * import.
+     *
+     * @param csv
+     * @return file name, the file parameter of its import
+     */
+    @Transactional(readOnly = false)
+    public String store(InputStream csv) {
+        String file = UUID.randomUUID() + ".csv";
+        Path partial = null;
+        boolean written = false;
+
+        try {
+            Files.createDirectories(directory);
+            partial = Files.createTempFile(directory, file, PARTIAL_COPY_SUFFIX);
+
+            try (OutputStream copy = Files.newOutputStream(partial)) {
+                int partNumber = 0;
+                byte[] content = csv.readNBytes(ScheduleUploadPart.MAX_PART_BYTES);
+
+                // An empty upload still gets a part; its import fails on the missing header.
+                do {
+                    scheduleUploadDao.savePart(file, partNumber++, content);
+                    copy.write(content);
+                    content = csv.readNBytes(ScheduleUploadPart.MAX_PART_BYTES);
+                } while (content.length > 0);
+            }
+
+            written = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Storing schedule " + file + " failed", e);
+        } finally {
+            if (!written) {
+                deleteQuietly(partial);
+            }
+        }
+
+        publishCopy(partial, directory.resolve(file));
+        return file;
+    }
+
+    /**
+     * Deletes a stored schedule with the local copy of this instance
+     *
+     * @param file
+     */
+    public void delete(String file) {
+        scheduleUploadDao.deleteParts(file);
+        deleteQuietly(directory.resolve(file));
+    }
+
+    /**
+     * Deletes the local copies of uploads that are gone from the database,
+     * because their import finished on another instance
+     */
+    @Scheduled(fixedDelayString = "${flight-tracker.schedule-import.sweep-interval:PT1H}")
+    public void sweepCopies() {
+        try (Stream<Path> copies = Files.list(directory)) {
+            copies.filter(copy -> FILE_NAME_PATTERN.matcher(copy.getFileName().toString()).matches())
+                    .filter(copy -> scheduleUploadDao.countParts(copy.getFileName().toString()) == 0)
+                    .forEach(this::deleteQuietly);
+        } catch (NoSuchFileException e) {
+            // Nothing imported on this instance yet.
+        } catch (IOException e) {
+            log.warn("Sweeping schedule copies failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void validate(Map<String, String> parameters) {
+        mode(parameters);
+
+        try {
+            ScheduleCsvParser.readHeader(file(parameters));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Long countWork(Map<String, String> parameters) {
+        try {
+            Path file = file(parameters);
+            return ScheduleCsvParser.countLines(file, ScheduleCsvParser.readHeader(file).getDataOffset());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Chunk runChunk(Map<String, String> parameters, String checkpoint) {
+        Path file = file(parameters);
+        ParsedChunk parsed;
+        long firstLine;
+
+        try {
+            Header header = ScheduleCsvParser.readHeader(file);
+            long offset = header.getDataOffset();
+            firstLine = FIRST_DATA_LINE;
+
+            if (Objects.nonNull(checkpoint)) {
+                String[] position = checkpoint.split(":");
+                offset = Long.parseLong(position[0]);
+                firstLine = Long.parseLong(position[1]);
+            }
+
+            parsed = ScheduleCsvParser.parse(file, header.getColumns(), offset, firstLine, chunkBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<JobItemError> errors = new ArrayList<>(parsed.getErrors());
+        Set<Long> airlineCodes = resolveAirlines(
+                parsed.getRows().stream().map(row -> row.getFlight().getAirlineCode()).collect(Collectors.toSet()));
+        List<ScheduleRow> rows = new ArrayList<>(parsed.getRows().size());
+
+        for (ScheduleRow row : parsed.getRows()) {
+            if (airlineCodes.contains(row.getFlight().getAirlineCode())) {
+                rows.add(row);
+            } else {
+                errors.add(new JobItemError(row.getLine(), "AirlineCode not found: " + row.getFlight().getAirlineCode()));
+            }
+        }
+
+        flightTrackerService.importFlights(rows.stream().map(ScheduleRow::getFlight).toList(),
+                mode(parameters) == ImportMode.UPSERT)
+                .forEach((index, message) -> errors.add(new JobItemError(rows.get(index).getLine(), message)));
+        errors.sort(Comparator.comparingLong(JobItemError::getItem));
+
+        if (parsed.isEndOfFile()) {
+            scheduleUploadDao.deleteParts(parameters.get(FILE));
+            afterCommit(() -> deleteQuietly(file));
+        }
+
+        return new Chunk(parsed.getLines(), parsed.getNextOffset() + ":" + (firstLine + parsed.getLines()),
+                parsed.isEndOfFile(), errors);
+    }
+
+    /**
+     * The existing airlines among the given ones, the unknown ones looked up
+     * in a single query
+     *
+     * @param airlineCodes
+     * @return existing airline codes
+     */
+    private Set<Long> resolveAirlines(Set<Long> airlineCodes) {
+        List<Long> unknown = airlineCodes.stream().filter(code -> Objects.isNull(knownAirlines.getIfPresent(code)))
+                .toList();
+
+        if (!unknown.isEmpty()) {
+            airlineDao.findExistingAirlineCodes(unknown).forEach(code -> knownAirlines.put(code, Boolean.TRUE));
+        }
+
+        return airlineCodes.stream().filter(code -> Objects.nonNull(knownAirlines.getIfPresent(code)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * The local copy of the schedule of a job, downloaded if this instance has
+     * none yet
+     *
+     * @param parameters
+     * @return path
+     */
+    private Path file(Map<String, String> parameters) {
+        String file = parameters.get(FILE);
+
+        if (Objects.isNull(file) || !FILE_NAME_PATTERN.matcher(file).matches()) {
+            throw new IllegalArgumentException("Unknown schedule file: " + file);
+        }
+
+        Path copy = directory.resolve(file);
+
+        if (!Files.isRegularFile(copy)) {
+            download(file, copy);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Copies an upload from the database, a part at a time. The copy only gets
+     * its name once complete.
+     *
+     * @param file
+     * @param copy
+     */
+    private void download(String file, Path copy) {
+        int parts = scheduleUploadDao.countParts(file);
+
+        if (parts == 0) {
+            throw new IllegalArgumentException("Unknown schedule file: " + file);
+        }
+
+        Path partial = null;
+
+        try {
+            Files.createDirectories(directory);
+            partial = Files.createTempFile(directory, file, PARTIAL_COPY_SUFFIX);
+
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                for (int partNumber = 0; partNumber < parts; partNumber++) {
+                    out.write(scheduleUploadDao.findPart(file, partNumber));
+                }
+            }
+
+            Files.move(partial, copy, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Downloaded schedule {} in {} parts", file, parts);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Downloading schedule " + file + " failed", e);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    /**
+     * Names a local copy once the current transaction commits, and deletes it
+     * if the transaction rolls back. A copy that cannot be named is downloaded
+     * by the first chunk instead.
+     *
+     * @param partial
+     * @param copy
+     */
+    private void publishCopy(Path partial, Path copy) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    try {
+                        Files.move(partial, copy, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        log.warn("Keeping a copy of schedule {} failed: {}", copy.getFileName(), e.getMessage());
+                    }
+                }
+
+                deleteQuietly(partial);
+            }
+        });
+    }
+
+    private void deleteQuietly(Path path) {
+        if (Objects.isNull(path)) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Deleting {} failed: {}", path, e.getMessage());
+        }
+    }
+
+    private ImportMode mode(Map<String, String> parameters) {
+        String mode = parameters.getOrDefault(MODE, ImportMode.INSERT.name());
+
+        try {
+            return ImportMode.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid job parameter " + MODE + ": " + mode);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
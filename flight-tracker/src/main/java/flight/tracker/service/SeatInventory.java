@@ -0,0 +1,202 @@
+package flight.tracker.service;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import flight.tracker.controller.model.SeatAvailability;
+import flight.tracker.dao.SeatAssignmentDao;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/***
+ * In-memory seat maps of the flights, loaded from seat_assignment on first use
+ * and kept up to date by the bookings of this instance. A booking checks and
+ * claims its seat without a query. Bookings made elsewhere only show up after
+ * the map is evicted; the unique constraint on seat_assignment rejects the
+ * double booking in the meantime.
+ *
+ * Maps are loaded in the caller's transaction, which has to be on the primary:
+ * a map loaded from a lagging replica would stay cached.
+ *
+ * Only seats of the configured layout are tracked. Other seat numbers, and
+ * passengers boarding a full flight without a seat, are left to the caller.
+ * 
+ */
+@Component
+public class SeatInventory {
+
+    private final int rows;
+    private final int seatsPerRow;
+    private final SeatMap layout;
+    private final Cache<Long, SeatMap> seatMaps;
+
+    @Autowired
+    private SeatAssignmentDao seatAssignmentDao;
+
+    /**
+     * SeatInventory constructor sets the seat layout and the cache bound
+     * 
+     * @param rows
+     * @param seatsPerRow
+     * @param maximumSize
+     */
+    public SeatInventory(@Value("${flight-tracker.seat-map.rows:40}") int rows,
+            @Value("${flight-tracker.seat-map.seats-per-row:6}") int seatsPerRow,
+            @Value("${flight-tracker.seat-map.maximum-size:10000}") long maximumSize) {
+        // Fails at startup on an invalid layout rather than on the first booking.
+        this.layout = new SeatMap(rows, seatsPerRow);
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.seatMaps = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Claims a seat on a flight
+     * 
+     * @param flightNumber
+     * @param seatNumber   - seat of the layout, null claims the first free seat
+     * @return claim with the seat number as the seat map writes it, to release
+     *         if the booking fails; null if no seat is free when any seat would
+     *         do
+     */
+    public SeatClaim claim(Long flightNumber, String seatNumber) {
+        SeatMap seatMap = seatMap(flightNumber);
+
+        if (Objects.isNull(seatNumber)) {
+            int index = seatMap.claimAny();
+            return index < 0 ? null : new SeatClaim(seatMap, index, seatMap.seatNumberOf(index));
+        }
+
+        int index = seatMap.indexOf(seatNumber);
+
+        if (index < 0) {
+            throw new IllegalArgumentException("Seat " + seatNumber + " is not on the seat map.");
+        }
+
+        if (!seatMap.claim(index)) {
+            throw new IllegalStateException("Seat " + seatNumber + " is already taken.");
+        }
+
+        return new SeatClaim(seatMap, index, seatMap.seatNumberOf(index));
+    }
+
+    /**
+     * @param seatNumber
+     * @return true if the seat is part of the seat layout
+     */
+    public boolean isOnSeatMap(String seatNumber) {
+        return layout.indexOf(seatNumber) >= 0;
+    }
+
+    /**
+     * Seat number as the seat map writes it, "01a" is "1A"
+     * 
+     * @param seatNumber
+     * @return seat number of the layout; seats outside it, and null, as given
+     */
+    public String canonicalSeatNumber(String seatNumber) {
+        int index = Objects.isNull(seatNumber) ? -1 : layout.indexOf(seatNumber);
+        return index < 0 ? seatNumber : layout.seatNumberOf(index);
+    }
+
+    /**
+     * Releases a seat whose assignment was removed
+     * 
+     * @param flightNumber
+     * @param seatNumber
+     */
+    public void release(Long flightNumber, String seatNumber) {
+        SeatMap seatMap = seatMaps.getIfPresent(flightNumber);
+
+        if (Objects.nonNull(seatMap) && seatMap.indexOf(seatNumber) >= 0) {
+            seatMap.release(seatMap.indexOf(seatNumber));
+        }
+    }
+
+    /**
+     * Drops the seat maps of the given flights, they are reloaded on next use
+     * 
+     * @param flightNumbers
+     */
+    public void evict(Collection<Long> flightNumbers) {
+        seatMaps.invalidateAll(flightNumbers);
+    }
+
+    /**
+     * Free seats of a flight
+     * 
+     * @param flightNumber
+     * @return SeatAvailability
+     */
+    public SeatAvailability availability(Long flightNumber) {
+        SeatMap seatMap = seatMap(flightNumber);
+        return new SeatAvailability(flightNumber, seatMap.size(), seatMap.availableSeats());
+    }
+
+    /**
+     * Seats of a flight, from the seat layout
+     * 
+     * @return seats per flight
+     */
+    public int getTotalSeats() {
+        return rows * seatsPerRow;
+    }
+
+    /**
+     * Gets the seat map of a flight, loading it on first use
+     * 
+     * @param flightNumber
+     * @return seat map
+     */
+    private SeatMap seatMap(Long flightNumber) {
+        return seatMaps.get(flightNumber, this::load);
+    }
+
+    /**
+     * Loads the taken seats of a flight. Seats outside the layout are left out.
+     * 
+     * @param flightNumber
+     * @return seat map
+     */
+    private SeatMap load(Long flightNumber) {
+        SeatMap seatMap = new SeatMap(rows, seatsPerRow);
+
+        for (String seatNumber : seatAssignmentDao.findSeatNumbersByFlightNumber(flightNumber)) {
+            int index = seatMap.indexOf(seatNumber);
+
+            if (index >= 0) {
+                seatMap.claim(index);
+            }
+        }
+
+        return seatMap;
+    }
+
+    /**
+     * Seat claimed in a seat map
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SeatClaim {
+
+        private final SeatMap seatMap;
+        private final int index;
+        private final String seatNumber;
+
+        /**
+         * Releases the seat in the map it was claimed in
+         */
+        public void release() {
+            seatMap.release(index);
+        }
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package flight.tracker.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/***
+ * Seat map of one flight, one bit per seat. Seats are claimed and released
+ * with compare-and-set on the word holding their bit, so concurrent bookings
+ * never block each other and a seat can only be claimed once.
+ *
+ * Seats are numbered by row and letter, row 1 seat A is "1A". Their index is
+ * (row - 1) * seatsPerRow + letter. Leading zeros and lowercase letters are
+ * read as the same seat, "01a" is "1A".
+ */
+public class SeatMap {
+
+    private static final int WORD_BITS = Long.SIZE;
+
+    private final int rows;
+    private final int seatsPerRow;
+    private final AtomicLongArray words;
+
+    /**
+     * SeatMap constructor sets the layout, all seats start free
+     *
+     * @param rows
+     * @param seatsPerRow - at most 26
+     */
+    public SeatMap(int rows, int seatsPerRow) {
+        if (rows < 1 || rows > 999 || seatsPerRow < 1 || seatsPerRow > 26) {
+            throw new IllegalArgumentException("Invalid seat map layout: " + rows + "x" + seatsPerRow);
+        }
+
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.words = new AtomicLongArray((size() + WORD_BITS - 1) / WORD_BITS);
+    }
+
+    /**
+     * @return number of seats
+     */
+    public int size() {
+        return rows * seatsPerRow;
+    }
+
+    /**
+     * Index of a seat number
+     *
+     * @param seatNumber
+     * @return index, or -1 if the seat is not on this map
+     */
+    public int indexOf(String seatNumber) {
+        int length = seatNumber.length();
+
+        if (length < 2 || length > 4) {
+            return -1;
+        }
+
+        int seat = Character.toUpperCase(seatNumber.charAt(length - 1)) - 'A';
+        int row = 0;
+
+        for (int i = 0; i < length - 1; i++) {
+            char digit = seatNumber.charAt(i);
+
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+
+            row = row * 10 + (digit - '0');
+        }
+
+        if (row < 1 || row > rows || seat < 0 || seat >= seatsPerRow) {
+            return -1;
+        }
+
+        return (row - 1) * seatsPerRow + seat;
+    }
+
+    /**
+     * Seat number of an index
+     *
+     * @param index
+     * @return seat number
+     */
+    public String seatNumberOf(int index) {
+        return (index / seatsPerRow + 1) + String.valueOf((char) ('A' + index % seatsPerRow));
+    }
+
+    /**
+     * Claims a seat
+     *
+     * @param index
+     * @return true if the seat was free and is now claimed
+     */
+    public boolean claim(int index) {
+        int word = index / WORD_BITS;
+        long bit = 1L << (index % WORD_BITS);
+
+        while (true) {
+            long current = words.get(word);
+
+            if ((current & bit) != 0) {
+                return false;
+            }
+
+            if (words.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claims the first free seat
+     *
+     * @return index of the claimed seat, or -1 if the flight is full
+     */
+    public int claimAny() {
+        for (int word = 0; word < words.length(); word++) {
+            while (true) {
+                long current = words.get(word);
+                int free = Long.numberOfTrailingZeros(~current);
+                int index = word * WORD_BITS + free;
+
+                if (free == WORD_BITS || index >= size()) {
+                    break;
+                }
+
+                if (words.compareAndSet(word, current, current | (1L << free))) {
+                    return index;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Releases a seat
+     *
+     * @param index
+     */
+    public void release(int index) {
+        int word = index / WORD_BITS;
+        long bit = 1L << (index % WORD_BITS);
+
+        while (true) {
+            long current = words.get(word);
+
+            if ((current & bit) == 0 || words.compareAndSet(word, current, current & ~bit)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param index
+     * @return true if the seat is claimed
+     */
+    public boolean isTaken(int index) {
+        return (words.get(index / WORD_BITS) & (1L << (index % WORD_BITS))) != 0;
+    }
+
+    /**
+     * @return seat numbers of the free seats, in seat order
+     */
+    public List<String> availableSeats() {
+        List<String> seats = new ArrayList<>();
+
+        for (int index = 0; index < size(); index++) {
+            if (!isTaken(index)) {
+                seats.add(seatNumberOf(index));
+            }
+        }
+
+        return seats;
+    }
+
+}
@@ -0,0 +1,34 @@
+-- Moves the flight departure and arrival from the free-form String columns
+-- departure_date, departure_time, arrival_date and arrival_time to the
+-- DATETIME columns departure and arrival used by Flight.
+--
+-- Run once, with the application stopped, before deploying the new version.
+-- Rows whose old values do not parse as a date and a time keep a NULL
+-- departure or arrival; list them with the SELECT below before dropping the
+-- old columns. New databases need no migration: Hibernate creates the columns
+-- and indexes itself.
+
+ALTER TABLE flight
+    ADD COLUMN departure DATETIME(6) NULL,
+    ADD COLUMN arrival DATETIME(6) NULL;
+
+UPDATE flight
+SET departure = TIMESTAMP(STR_TO_DATE(departure_date, '%Y-%m-%d'), departure_time),
+    arrival = TIMESTAMP(STR_TO_DATE(arrival_date, '%Y-%m-%d'), arrival_time);
+
+SELECT flight_number, departure_date, departure_time, arrival_date, arrival_time
+FROM flight
+WHERE (departure IS NULL AND departure_date IS NOT NULL)
+   OR (arrival IS NULL AND arrival_date IS NOT NULL);
+
+-- Departure and arrival windows run as range scans of these indexes.
+CREATE INDEX idx_flight_airline_departure ON flight (airline_code, departure);
+CREATE INDEX idx_flight_airline_arrival ON flight (airline_code, arrival);
+CREATE INDEX idx_flight_departure ON flight (departure);
+CREATE INDEX idx_flight_arrival ON flight (arrival);
+
+ALTER TABLE flight
+    DROP COLUMN departure_date,
+    DROP COLUMN departure_time,
+    DROP COLUMN arrival_date,
+    DROP COLUMN arrival_time;
@@ -0,0 +1,8 @@
+-- Adds the optimistic lock version columns of Flight and Passenger.
+--
+-- Run once, before deploying the new version. Existing rows start at
+-- version 0. New databases need no migration: Hibernate creates the columns
+-- itself.
+
+ALTER TABLE flight ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE passenger ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
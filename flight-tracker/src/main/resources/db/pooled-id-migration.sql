@@ -0,0 +1,27 @@
+-- Moves an existing flight_tracker database from AUTO_INCREMENT ids to the
+-- pooled-lo table allocation used by Airline, Flight and Passenger.
+--
+-- Run once, with the application stopped, before deploying the new version.
+-- Each id_generator row holds the next id to hand out, so it must start
+-- above the highest id already in use. New databases need no migration:
+-- Hibernate creates and seeds id_generator itself.
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    id_name VARCHAR(255) NOT NULL,
+    next_id BIGINT,
+    PRIMARY KEY (id_name)
+);
+
+INSERT INTO id_generator (id_name, next_id)
+SELECT 'airline', COALESCE(MAX(airline_code), 0) + 1 FROM airline;
+
+INSERT INTO id_generator (id_name, next_id)
+SELECT 'flight', COALESCE(MAX(flight_number), 0) + 1 FROM flight;
+
+INSERT INTO id_generator (id_name, next_id)
+SELECT 'passenger', COALESCE(MAX(passenger_id), 0) + 1 FROM passenger;
+
+-- Ids are now assigned by the application; AUTO_INCREMENT is no longer used.
+ALTER TABLE airline MODIFY airline_code BIGINT NOT NULL;
+ALTER TABLE flight MODIFY flight_number BIGINT NOT NULL;
+ALTER TABLE passenger MODIFY passenger_id BIGINT NOT NULL;
@@ -0,0 +1,29 @@
+-- Creates seat_assignment, the seat of each passenger on each flight, and
+-- fills it from the seat numbers of the passengers already on flights.
+--
+-- Run once, with the application stopped, before deploying the new version.
+-- Where two passengers of a flight hold the same seat only the first keeps
+-- it; list the others with the SELECT below and reseat them. New databases
+-- need no migration: Hibernate creates the table itself.
+
+CREATE TABLE IF NOT EXISTS seat_assignment (
+    flight_number BIGINT NOT NULL,
+    passenger_id BIGINT NOT NULL,
+    seat_number VARCHAR(255) NOT NULL,
+    PRIMARY KEY (flight_number, passenger_id),
+    CONSTRAINT uk_seat_assignment_flight_seat UNIQUE (flight_number, seat_number)
+);
+
+INSERT IGNORE INTO seat_assignment (flight_number, passenger_id, seat_number)
+SELECT fp.flight_number, fp.passenger_id, p.passenger_seat_number
+FROM flight_passenger fp
+JOIN passenger p ON p.passenger_id = fp.passenger_id
+WHERE p.passenger_seat_number IS NOT NULL
+ORDER BY fp.flight_number, fp.passenger_id;
+
+SELECT fp.flight_number, fp.passenger_id, p.passenger_seat_number
+FROM flight_passenger fp
+JOIN passenger p ON p.passenger_id = fp.passenger_id
+LEFT JOIN seat_assignment s
+    ON s.flight_number = fp.flight_number AND s.passenger_id = fp.passenger_id
+WHERE p.passenger_seat_number IS NOT NULL AND s.seat_number IS NULL;
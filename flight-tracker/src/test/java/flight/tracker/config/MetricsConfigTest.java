@@ -0,0 +1,53 @@
+package flight.tracker.config;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Keeps the Hikari pool, which @AutoConfigureTestDatabase would replace, so its
+ * gauges are bound.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("dev")
+class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void requestsReportTheirSqlStatementsAndEveryLayerIsScraped() throws Exception {
+        mockMvc.perform(get("/flight/flights"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SqlStatementCountConfig.SQL_STATEMENT_COUNT_HEADER));
+        mockMvc.perform(get("/flight/flight/-1"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().exists(SqlStatementCountConfig.SQL_STATEMENT_COUNT_HEADER));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString(
+                        "flight_tracker_service_seconds_bucket{application=\"flight-tracker\",class=\"flight.tracker.service.FlightTrackerService\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_entities_loads_total")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total")));
+    }
+
+}
@@ -0,0 +1,202 @@
+package flight.tracker.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import flight.tracker.controller.model.ChangeBatch;
+import flight.tracker.controller.model.ChangeEvent;
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.SeatAvailability;
+import flight.tracker.service.ChangeLogService;
+import flight.tracker.service.FlightTrackerService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+
+/**
+ * Two embedded databases stand in for the primary and a replica. Nothing
+ * replicates between them, so a read shows where it was routed: the replica
+ * only has the schema. The second replica is down. With replicas configured
+ * the second level cache is off.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "flight-tracker.datasource.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "flight-tracker.datasource.replicas[1].url=jdbc:h2:tcp://localhost:1/down",
+        "flight-tracker.datasource.health-check-timeout=PT1S", "flight-tracker.change-log.commit-lag=PT0S" })
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private static boolean replicaSchemaCreated;
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createReplicaSchema() throws SQLException {
+        if (replicaSchemaCreated) {
+            return;
+        }
+
+        List<String> schema = new ArrayList<>();
+
+        try (Connection primary = primaryDataSource.getConnection();
+                Statement statement = primary.createStatement();
+                ResultSet script = statement.executeQuery("script nodata")) {
+            while (script.next()) {
+                schema.add(script.getString(1));
+            }
+        }
+
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, primaryDataSource.getUsername(),
+                primaryDataSource.getPassword()); Statement statement = replica.createStatement()) {
+            for (String sql : schema) {
+                statement.execute(sql);
+            }
+        }
+
+        replicaSchemaCreated = true;
+    }
+
+    @Test
+    void readOnlyTransactionsReadAHealthyReplicaAndWritesGoToThePrimary() {
+        replicaPool.checkHealth();
+        assertThat(replicaPool.getHealthyReplicaCount()).isEqualTo(1);
+
+        Long airlineCode = flightTrackerService.createAirline(airline("Primary Air")).getAirlineCode();
+        Long flightNumber = flightTrackerService.createFlight(flight(), airlineCode).getFlightNumber();
+
+        assertThatThrownBy(() -> flightTrackerService.retrieveFlight(flightNumber))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThat(ReadWriteRoutingDataSource.readFromPrimary(() -> flightTrackerService.retrieveFlight(flightNumber))
+                .getAirlineCode()).isEqualTo(airlineCode);
+    }
+
+    @Test
+    void clientsReadTheirWritesFromThePrimary() throws Exception {
+        MvcResult created = mockMvc
+                .perform(post("/flight/airline").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(airline("Cookie Air"))))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.READ_PRIMARY_UNTIL_COOKIE))
+                .andReturn();
+        Cookie readPrimaryUntil = created.getResponse().getCookie(ReadYourWritesFilter.READ_PRIMARY_UNTIL_COOKIE);
+        Long airlineCode = objectMapper.readValue(created.getResponse().getContentAsString(), FlightAirline.class)
+                .getAirlineCode();
+        flightTrackerService.createFlight(flight(), airlineCode);
+
+        mockMvc.perform(get("/flight/flights").param("airlineCode", airlineCode.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.flights", empty()));
+        mockMvc.perform(get("/flight/flights").param("airlineCode", airlineCode.toString()).cookie(readPrimaryUntil))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.flights", hasSize(1)));
+    }
+
+    @Test
+    void theChangeLogIsReadFromThePrimaryWhileTheReplicaIsBehind() throws SQLException {
+        replicaPool.checkHealth();
+        assertThat(replicaPool.getHealthyReplicaCount()).isEqualTo(1);
+
+        long since = changeLogService.retrieveChanges(null, null).getNextSince();
+        Long airlineCode = flightTrackerService.createAirline(airline("Logged Air")).getAirlineCode();
+
+        // The replica shows a later change but not the airline's yet.
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, primaryDataSource.getUsername(),
+                primaryDataSource.getPassword()); Statement statement = replica.createStatement()) {
+            statement.executeUpdate("insert into change_log (sequence, entity_type, entity_id, operation, changed_at)"
+                    + " values (" + (since + 1000) + ", 'AIRLINE', -1, 'UPDATED', timestamp '2000-01-01 00:00:00')");
+        }
+
+        ChangeBatch batch = changeLogService.retrieveChanges(since, null);
+
+        assertThat(batch.getChanges()).extracting(ChangeEvent::getEntityId).containsExactly(airlineCode);
+    }
+
+    @Test
+    void seatMapsAreLoadedFromThePrimary() {
+        Long airlineCode = flightTrackerService.createAirline(airline("Seated Air")).getAirlineCode();
+        Long flightNumber = flightTrackerService.createFlight(flight(), airlineCode).getFlightNumber();
+
+        SeatAvailability availability = flightTrackerService.retrieveSeatAvailability(flightNumber);
+
+        assertThat(availability.getAvailableSeatCount()).isEqualTo(availability.getTotalSeats()).isPositive();
+    }
+
+    @Test
+    void theSecondLevelAndQueryCachesAreOffWithReplicas() {
+        SessionFactoryOptions options = entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions();
+
+        assertThat(options.isSecondLevelCacheEnabled()).isFalse();
+        assertThat(options.isQueryCacheEnabled()).isFalse();
+    }
+
+    private static FlightAirline airline(String name) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName(name);
+        return airline;
+    }
+
+    private static FlightData flight() {
+        FlightData flightData = new FlightData();
+        flightData.setDepartureDate(LocalDate.of(2023, 8, 1));
+        flightData.setDepartureTime(LocalTime.of(10, 0));
+        return flightData;
+    }
+
+}
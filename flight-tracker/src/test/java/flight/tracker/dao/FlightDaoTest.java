@@ -0,0 +1,178 @@
+package flight.tracker.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.entity.Airline;
+import flight.tracker.entity.Flight;
+import flight.tracker.entity.Passenger;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FlightDaoTest {
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.of(2023, 8, 1, 6, 0);
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    void listingAllFlightsUsesConstantNumberOfStatements() {
+        createFlights(5);
+        long fewFlights = countStatements(() -> withPassengers(flightDao.findAllFlightData(),
+                flightDao.findAllPassengerRows()));
+
+        createFlights(50);
+        long manyFlights = countStatements(() -> withPassengers(flightDao.findAllFlightData(),
+                flightDao.findAllPassengerRows()));
+
+        assertThat(manyFlights).isEqualTo(fewFlights);
+    }
+
+    @Test
+    void listingFlightPageUsesConstantNumberOfStatements() {
+        createFlights(60);
+        long smallPage = countStatements(() -> loadPage(5));
+        long largePage = countStatements(() -> loadPage(50));
+
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void departureWindowReturnsFlightsInDepartureOrder() {
+        createFlights(20);
+        entityManager.flush();
+        entityManager.clear();
+
+        LocalDateTime from = FIRST_DEPARTURE.plusMinutes(30);
+        List<Long> flightNumbers = flightDao.findFlightNumbersDepartingBetween(from, from.plusHours(1),
+                PageRequest.of(0, 50));
+        List<LocalDateTime> departures = flightNumbers.stream()
+                .map(flightNumber -> flightDao.findById(flightNumber).orElseThrow().getDeparture()).toList();
+
+        assertThat(departures).hasSize(6).isSorted().allMatch(departure -> !departure.isBefore(from))
+                .allMatch(departure -> departure.isBefore(from.plusHours(1)));
+    }
+
+    @Test
+    void projectedFlightDataMatchesEntityMapping() {
+        createFlights(3);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<FlightData> expected = flightDao.findAll().stream().map(FlightData::new)
+                .sorted(Comparator.comparing(FlightData::getFlightNumber)).toList();
+        entityManager.clear();
+
+        List<FlightData> projected = withPassengers(flightDao.findAllFlightData(), flightDao.findAllPassengerRows());
+
+        assertThat(projected).isEqualTo(expected);
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+                .isZero();
+    }
+
+    /**
+     * Loads flights the way the service does and counts the statements it took
+     * 
+     * @param query
+     * @return prepared statement count
+     */
+    private long countStatements(FlightQuery query) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<FlightData> flights = query.load();
+
+        assertThat(flights).isNotEmpty().allMatch(flight -> !flight.getPassengers().isEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * One keyset page, as FlightTrackerService.retrieveFlightPage loads it
+     * 
+     * @param pageSize
+     * @return flights of the first page
+     */
+    private List<FlightData> loadPage(int pageSize) {
+        List<Long> flightNumbers = flightDao.findFlightNumbersAfter(0L, null, null, null,
+                PageRequest.of(0, pageSize));
+        return withPassengers(flightDao.findFlightDataByFlightNumberIn(flightNumbers),
+                flightDao.findPassengerRowsByFlightNumberIn(flightNumbers));
+    }
+
+    /**
+     * Adds the passenger rows to their projected flights, as the service does
+     * 
+     * @param flights
+     * @param passengerRows
+     * @return flights
+     */
+    private static List<FlightData> withPassengers(List<FlightData> flights, List<FlightPassengerRow> passengerRows) {
+        for (FlightPassengerRow row : passengerRows) {
+            flights.stream().filter(flight -> flight.getFlightNumber().equals(row.getFlightNumber())).findFirst()
+                    .orElseThrow().getPassengers().add(row.toFlightPassenger());
+        }
+
+        return flights;
+    }
+
+    /**
+     * Persists flights spread over several airlines, each with a few passengers
+     * 
+     * @param count
+     */
+    private void createFlights(int count) {
+        for (int i = 0; i < count; i++) {
+            Airline airline = new Airline();
+            airline.setAirlineName("Airline " + i);
+            entityManager.persist(airline);
+
+            Flight flight = new Flight();
+            flight.setAirline(airline);
+            flight.setDeparture(FIRST_DEPARTURE.plusMinutes(10L * i));
+            flight.setArrival(flight.getDeparture().plusHours(2));
+
+            for (int j = 0; j < 3; j++) {
+                Passenger passenger = new Passenger();
+                passenger.setPassengerFirstName("First " + j);
+                passenger.setPassengerLastName("Last " + i);
+                passenger.setPassengerSeatNumber(j + "A");
+                passenger.getFlights().add(flight);
+                flight.getPassengers().add(passenger);
+            }
+
+            entityManager.persist(flight);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FlightQuery {
+        List<FlightData> load();
+    }
+
+}
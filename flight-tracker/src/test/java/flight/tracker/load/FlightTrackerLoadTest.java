@@ -0,0 +1,275 @@
+package flight.tracker.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.load.LatencyRecorder.EndpointStatistics;
+import flight.tracker.service.FlightTrackerService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * End-to-end load test: starts the application on a random port against an
+ * in-memory H2 database, seeds airlines x flights x passengers
+ * and drives the mixed {@link Workload} from a fixed number of closed-loop
+ * clients. Prints throughput and latency percentiles per endpoint, writes them
+ * to the report file and fails when an endpoint misses its SLO.
+ *
+ * Tagged "load", so mvn test skips it; mvn -P load-test test runs it. Settings
+ * are in application-load-test.yaml. Extra profiles are added with
+ * -Dload-test.profiles, e.g. -Dload-test.profiles=virtual-threads (Java 21) to
+ * compare the virtual thread mode with the default thread pools.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(resolver = FlightTrackerLoadTest.LoadTestProfiles.class)
+@Slf4j
+class FlightTrackerLoadTest {
+
+    private static final LocalDate FIRST_DEPARTURE_DATE = LocalDate.of(2023, 8, 1);
+    private static final int DEPARTURE_DAYS = 30;
+    private static final int MAX_MANIFEST_SIZE = 1000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${load-test.airlines}")
+    private int airlines;
+
+    @Value("${load-test.flights-per-airline}")
+    private int flightsPerAirline;
+
+    @Value("${load-test.passengers-per-flight}")
+    private int passengersPerFlight;
+
+    @Value("${load-test.concurrency}")
+    private int concurrency;
+
+    @Value("${load-test.warmup}")
+    private Duration warmup;
+
+    @Value("${load-test.duration}")
+    private Duration duration;
+
+    @Value("${load-test.report}")
+    private String report;
+
+    @Test
+    void mixedWorkloadMeetsLatencySlos() throws Exception {
+        Map<Long, Long> airlineCodesByFlight = seed();
+        LatencyRecorder recorder = new LatencyRecorder();
+        Workload workload = new Workload("http://localhost:" + port + "/flight", recorder, airlineCodesByFlight,
+                FIRST_DEPARTURE_DATE, DEPARTURE_DAYS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> results = new ArrayList<>();
+        long measuredNanos;
+
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                results.add(clients.submit(() -> {
+                    while (running.get()) {
+                        workload.runOne();
+                    }
+                }));
+            }
+
+            Thread.sleep(warmup.toMillis());
+            workload.startRecording();
+            long start = System.nanoTime();
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+
+            for (Future<?> result : results) {
+                result.get();
+            }
+
+            measuredNanos = System.nanoTime() - start;
+        } finally {
+            running.set(false);
+            clients.shutdownNow();
+        }
+
+        Map<String, EndpointStatistics> statistics = recorder.statistics(measuredNanos / 1e9);
+        List<String> violations = new ArrayList<>();
+
+        log.info(String.format("%-52s %8s %7s %9s %9s %9s %9s %9s %9s", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms"));
+
+        statistics.forEach((endpoint, endpointStatistics) -> {
+            log.info(String.format("%-52s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", endpoint,
+                    endpointStatistics.getRequests(), endpointStatistics.getErrors(),
+                    endpointStatistics.getThroughput(), endpointStatistics.getP50(), endpointStatistics.getP95(),
+                    endpointStatistics.getP99(), endpointStatistics.getP999(), endpointStatistics.getMax()));
+            violations.addAll(checkSlo(endpoint, endpointStatistics));
+        });
+
+        writeReport(statistics, measuredNanos / 1e9);
+
+        assertThat(statistics).as("endpoints exercised").isNotEmpty();
+        assertThat(violations).as("SLO violations").isEmpty();
+    }
+
+    /**
+     * Seeds the airlines, their flights and the passengers through the service
+     *
+     * @return airline code of every seeded flight
+     */
+    private Map<Long, Long> seed() {
+        Map<Long, Long> airlineCodesByFlight = new LinkedHashMap<>();
+
+        for (int a = 0; a < airlines; a++) {
+            FlightAirline airline = new FlightAirline();
+            airline.setAirlineName("Seed Air " + a);
+            Long airlineCode = flightTrackerService.createAirline(airline).getAirlineCode();
+
+            for (int f = 0; f < flightsPerAirline; f++) {
+                FlightData flightData = new FlightData();
+                flightData.setDepartureDate(FIRST_DEPARTURE_DATE.plusDays(f % DEPARTURE_DAYS));
+                flightData.setDepartureTime(LocalTime.of(6 + f % 14, 0));
+                flightData.setArrivalDate(flightData.getDepartureDate());
+                flightData.setArrivalTime(flightData.getDepartureTime().plusHours(3));
+                Long flightNumber = flightTrackerService.createFlight(flightData, airlineCode).getFlightNumber();
+
+                for (int seeded = 0; seeded < passengersPerFlight; seeded += MAX_MANIFEST_SIZE) {
+                    List<FlightPassenger> manifest = new ArrayList<>();
+
+                    for (int p = seeded; p < Math.min(passengersPerFlight, seeded + MAX_MANIFEST_SIZE); p++) {
+                        FlightPassenger passenger = new FlightPassenger();
+                        passenger.setPassengerFirstName("First" + p);
+                        passenger.setPassengerLastName("Last" + flightNumber);
+                        passenger.setPassengerEmail("p" + p + ".f" + flightNumber + "@example.com");
+                        manifest.add(passenger);
+                    }
+
+                    flightTrackerService.addPassengerManifest(manifest, flightNumber);
+                }
+
+                airlineCodesByFlight.put(flightNumber, airlineCode);
+            }
+        }
+
+        log.info("Seeded {} airlines, {} flights, {} passengers", airlines, airlineCodesByFlight.size(),
+                airlineCodesByFlight.size() * passengersPerFlight);
+        return airlineCodesByFlight;
+    }
+
+    /**
+     * Checks the statistics of an endpoint against its SLO, load-test.slo.[key]
+     * or else the load-test.slo defaults
+     *
+     * @param endpoint
+     * @param statistics
+     * @return violations
+     */
+    private List<String> checkSlo(String endpoint, EndpointStatistics statistics) {
+        String key = endpoint.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+        List<String> violations = new ArrayList<>();
+
+        double p99 = sloValue(key, "p99");
+        double p999 = sloValue(key, "p999");
+        double maxErrorRate = sloValue(key, "max-error-rate");
+
+        if (statistics.getP99() > p99) {
+            violations.add(endpoint + ": p99 " + statistics.getP99() + " ms > " + p99 + " ms");
+        }
+
+        if (statistics.getP999() > p999) {
+            violations.add(endpoint + ": p999 " + statistics.getP999() + " ms > " + p999 + " ms");
+        }
+
+        if (statistics.getErrorRate() > maxErrorRate) {
+            violations.add(endpoint + ": error rate " + statistics.getErrorRate() + " > " + maxErrorRate);
+        }
+
+        return violations;
+    }
+
+    private double sloValue(String key, String name) {
+        return environment.getProperty("load-test.slo." + key + "." + name, Double.class,
+                environment.getRequiredProperty("load-test.slo." + name, Double.class));
+    }
+
+    /**
+     * Writes the settings and statistics as JSON, to compare across releases
+     *
+     * @param statistics
+     * @param seconds
+     * @throws IOException
+     */
+    private void writeReport(Map<String, EndpointStatistics> statistics, double seconds) throws IOException {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("profiles", environment.getActiveProfiles());
+        settings.put("java", Runtime.version().toString());
+        settings.put("airlines", airlines);
+        settings.put("flightsPerAirline", flightsPerAirline);
+        settings.put("passengersPerFlight", passengersPerFlight);
+        settings.put("concurrency", concurrency);
+        settings.put("warmupSeconds", warmup.toSeconds());
+        settings.put("measuredSeconds", seconds);
+
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("settings", settings);
+        content.put("endpoints", statistics);
+
+        File reportFile = new File(report);
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, content);
+        log.info("Load test report written to {}", reportFile.getAbsolutePath());
+    }
+
+    /**
+     * The load-test profile plus the ones listed in -Dload-test.profiles
+     */
+    static class LoadTestProfiles implements ActiveProfilesResolver {
+
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            String extraProfiles = System.getProperty("load-test.profiles", "");
+
+            return Stream.concat(Stream.of("load-test"),
+                    Arrays.stream(extraProfiles.split(",")).map(String::trim).filter(profile -> !profile.isEmpty()))
+                    .toArray(String[]::new);
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package flight.tracker.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Value;
+
+/**
+ * Latencies and errors per endpoint. Every sample is kept, the percentiles are
+ * exact.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+
+    /**
+     * Records one request
+     *
+     * @param endpoint
+     * @param nanos
+     * @param error    - failed or unexpected status
+     */
+    void record(String endpoint, long nanos, boolean error) {
+        samplesByEndpoint.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, error);
+    }
+
+    /**
+     * Statistics of every endpoint, ordered by name
+     *
+     * @param seconds - length of the measurement
+     * @return statistics by endpoint
+     */
+    Map<String, EndpointStatistics> statistics(double seconds) {
+        Map<String, EndpointStatistics> statistics = new LinkedHashMap<>();
+
+        samplesByEndpoint.keySet().stream().sorted()
+                .forEach(endpoint -> statistics.put(endpoint, samplesByEndpoint.get(endpoint).statistics(seconds)));
+
+        return statistics;
+    }
+
+    /**
+     * Samples of one endpoint, appended by all workers
+     */
+    private static class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long sample, boolean error) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+
+            nanos[count++] = sample;
+
+            if (error) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointStatistics statistics(double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+
+            return new EndpointStatistics(count, errors, count / seconds, percentile(sorted, 0.50),
+                    percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    count == 0 ? 0 : sorted[count - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+
+    }
+
+    /**
+     * Throughput in requests per second, latencies in milliseconds
+     */
+    @Value
+    static class EndpointStatistics {
+
+        int requests;
+        int errors;
+        double throughput;
+        double p50;
+        double p95;
+        double p99;
+        double p999;
+        double max;
+
+        double getErrorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+    }
+
+}
@@ -0,0 +1,296 @@
+package flight.tracker.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Mixed workload over the FlightTrackerController endpoints. Each call of
+ * {@link #runOne()} picks an operation by weight and sends its requests,
+ * timing each one under its endpoint. Reads and updates go to the seeded
+ * flights; passengers, flights and airlines created by the workload are the
+ * ones it deletes, so the seeded data set stays the same size.
+ *
+ * The change stream is left out: it is one long-lived request per client.
+ */
+class Workload {
+
+    /**
+     * Operations and their share of the workload, in percent
+     */
+    enum Operation {
+        GET_FLIGHT(35), LIST_FLIGHTS(8), DEPARTURES(6), ARRIVALS(4), SEATS(6), CHANGES(5), ADD_PASSENGER(12),
+        ADD_MANIFEST(3), UPDATE_FLIGHT(5), DELETE_PASSENGER(4), CREATE_FLIGHT(3), DELETE_FLIGHT(3),
+        CREATE_AIRLINE(1), DELETE_AIRLINE(1), CACHE_STATISTICS(2), LIST_ALL_FLIGHTS(1), EXPORT_FLIGHTS(1);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+    }
+
+    private static final int TOTAL_WEIGHT = List.of(Operation.values()).stream().mapToInt(op -> op.weight).sum();
+    private static final int MANIFEST_SIZE = 10;
+    private static final Set<Integer> OK = Set.of(200, 201);
+    private static final Set<Integer> OK_OR_CONFLICT = Set.of(200, 201, 409);
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final List<Long> flightNumbers;
+    private final Map<Long, Long> airlineCodesByFlight;
+    private final LocalDate firstDepartureDate;
+    private final int departureDays;
+    private final Queue<Long> createdPassengers = new ConcurrentLinkedQueue<>();
+    private final Queue<Long[]> createdFlights = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> createdAirlines = new ConcurrentLinkedQueue<>();
+    private final AtomicLong changesSince = new AtomicLong();
+    private final AtomicInteger names = new AtomicInteger();
+    private volatile boolean recording;
+
+    /**
+     * Workload constructor sets the target and the seeded flights
+     *
+     * @param baseUrl              - e.g. http://localhost:8080/flight
+     * @param recorder
+     * @param airlineCodesByFlight - seeded flights
+     * @param firstDepartureDate   - seeded departures start on this day
+     * @param departureDays        - and spread over this many days
+     */
+    Workload(String baseUrl, LatencyRecorder recorder, Map<Long, Long> airlineCodesByFlight,
+            LocalDate firstDepartureDate, int departureDays) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.airlineCodesByFlight = airlineCodesByFlight;
+        this.flightNumbers = List.copyOf(airlineCodesByFlight.keySet());
+        this.firstDepartureDate = firstDepartureDate;
+        this.departureDays = departureDays;
+    }
+
+    /**
+     * Starts recording, requests before this are warmup
+     */
+    void startRecording() {
+        recording = true;
+    }
+
+    /**
+     * Runs one operation picked by weight
+     */
+    void runOne() {
+        while (!run(pickOperation())) {
+            // The operation had nothing to work on, e.g. no passenger to delete yet.
+        }
+    }
+
+    private Operation pickOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+
+        for (Operation operation : Operation.values()) {
+            pick -= operation.weight;
+
+            if (pick < 0) {
+                return operation;
+            }
+        }
+
+        throw new IllegalStateException("Weights don't add up");
+    }
+
+    /**
+     * Runs an operation
+     *
+     * @param operation
+     * @return false if the operation had nothing to work on
+     */
+    private boolean run(Operation operation) {
+        Long flightNumber = randomFlightNumber();
+
+        switch (operation) {
+        case GET_FLIGHT -> get("GET /flight/flight/{flightNumber}", "/flight/" + flightNumber);
+        case LIST_FLIGHTS -> get("GET /flight/flights", "/flights?limit=50&airlineCode="
+                + airlineCodesByFlight.get(flightNumber));
+        case DEPARTURES -> get("GET /flight/departures", "/departures?" + randomWindow());
+        case ARRIVALS -> get("GET /flight/arrivals", "/arrivals?" + randomWindow());
+        case SEATS -> get("GET /flight/flight/{flightNumber}/seats", "/flight/" + flightNumber + "/seats");
+        case CHANGES -> {
+            JsonNode batch = get("GET /flight/changes", "/changes?limit=100&since=" + changesSince.get());
+
+            if (batch != null) {
+                changesSince.accumulateAndGet(batch.path("nextSince").asLong(), Math::max);
+            }
+        }
+        case ADD_PASSENGER -> {
+            JsonNode passenger = send("POST /flight/passenger/{flightNumber}", "POST", "/passenger/" + flightNumber,
+                    Map.of("passengerFirstName", "Load" + names.incrementAndGet(), "passengerLastName", "Test"), OK);
+
+            if (passenger != null) {
+                createdPassengers.add(passenger.path("passengerId").asLong());
+            }
+        }
+        case ADD_MANIFEST -> {
+            List<Map<String, String>> manifest = IntStream.range(0, MANIFEST_SIZE)
+                    .mapToObj(i -> Map.of("passengerFirstName", "Manifest" + names.incrementAndGet(),
+                            "passengerLastName", "Test"))
+                    .toList();
+            JsonNode result = send("POST /flight/passenger/{flightNumber}/manifest", "POST",
+                    "/passenger/" + flightNumber + "/manifest", manifest, OK);
+
+            if (result != null) {
+                result.path("rows").forEach(row -> createdPassengers.add(row.path("passengerId").asLong()));
+            }
+        }
+        case UPDATE_FLIGHT -> {
+            // Concurrent updates of one flight may lose the optimistic lock.
+            send("PUT /flight/{airlineCode}/flight/{flightNumber}", "PUT",
+                    "/" + airlineCodesByFlight.get(flightNumber) + "/flight/" + flightNumber, flightBody(),
+                    OK_OR_CONFLICT);
+        }
+        case DELETE_PASSENGER -> {
+            Long passengerId = createdPassengers.poll();
+
+            if (passengerId == null) {
+                return false;
+            }
+
+            send("DELETE /flight/passenger/{passengerId}", "DELETE", "/passenger/" + passengerId, null, OK);
+        }
+        case CREATE_FLIGHT -> {
+            Long airlineCode = airlineCodesByFlight.get(flightNumber);
+            JsonNode flight = send("POST /flight/{airlineCode}/flight", "POST", "/" + airlineCode + "/flight",
+                    flightBody(), OK);
+
+            if (flight != null) {
+                createdFlights.add(new Long[] { airlineCode, flight.path("flightNumber").asLong() });
+            }
+        }
+        case DELETE_FLIGHT -> {
+            Long[] flight = createdFlights.poll();
+
+            if (flight == null) {
+                return false;
+            }
+
+            send("DELETE /flight/flight/{flightNumber}", "DELETE", "/flight/" + flight[1], null, OK);
+        }
+        case CREATE_AIRLINE -> {
+            JsonNode airline = send("POST /flight/airline", "POST", "/airline",
+                    Map.of("airlineName", "Load Air " + names.incrementAndGet()), OK);
+
+            if (airline != null) {
+                createdAirlines.add(airline.path("airlineCode").asLong());
+            }
+        }
+        case DELETE_AIRLINE -> {
+            Long airlineCode = createdAirlines.poll();
+
+            if (airlineCode == null) {
+                return false;
+            }
+
+            send("DELETE /flight/airline/{airlineCode}", "DELETE", "/airline/" + airlineCode, null, OK);
+        }
+        case CACHE_STATISTICS -> get("GET /flight/cache/statistics", "/cache/statistics");
+        case LIST_ALL_FLIGHTS -> get("GET /flight/flightNumbers", "/flightNumbers");
+        case EXPORT_FLIGHTS -> send("GET /flight/flights/export", "GET", "/flights/export", null, OK);
+        }
+
+        return true;
+    }
+
+    private JsonNode get(String endpoint, String path) {
+        return send(endpoint, "GET", path, null, OK);
+    }
+
+    /**
+     * Sends a request and records its latency under the endpoint
+     *
+     * @param endpoint       - name in the report
+     * @param method
+     * @param path           - below the base url
+     * @param body           - sent as JSON, may be null
+     * @param expectedStatus
+     * @return response body, null on an error or a body that isn't JSON
+     */
+    private JsonNode send(String endpoint, String method, String path, Object body, Set<Integer> expectedStatus) {
+        long start = System.nanoTime();
+        boolean error = true;
+        JsonNode response = null;
+
+        try {
+            BodyPublisher publisher = body == null ? BodyPublishers.noBody()
+                    : BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json").method(method, publisher).build();
+            var httpResponse = httpClient.send(request, BodyHandlers.ofByteArray());
+
+            error = !expectedStatus.contains(httpResponse.statusCode());
+
+            if (!error && httpResponse.statusCode() != 409 && !endpoint.endsWith("/export")) {
+                response = objectMapper.readTree(httpResponse.body());
+            }
+        } catch (IOException e) {
+            error = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (recording) {
+                recorder.record(endpoint, System.nanoTime() - start, error);
+            }
+        }
+
+        return response;
+    }
+
+    private Long randomFlightNumber() {
+        return flightNumbers.get(ThreadLocalRandom.current().nextInt(flightNumbers.size()));
+    }
+
+    /**
+     * Six hour window on one of the seeded departure days
+     *
+     * @return from and to query parameters
+     */
+    private String randomWindow() {
+        LocalDateTime from = firstDepartureDate.plusDays(ThreadLocalRandom.current().nextInt(departureDays))
+                .atTime(ThreadLocalRandom.current().nextInt(18), 0);
+        return "from=" + from + "&to=" + from.plusHours(6);
+    }
+
+    /**
+     * Flight times on one of the seeded departure days
+     *
+     * @return flight body
+     */
+    private Map<String, String> flightBody() {
+        LocalDateTime departure = firstDepartureDate.plusDays(ThreadLocalRandom.current().nextInt(departureDays))
+                .atTime(ThreadLocalRandom.current().nextInt(20), 0);
+        LocalDateTime arrival = departure.plusHours(2);
+
+        return Map.of("departureDate", departure.toLocalDate().toString(), "departureTime",
+                departure.toLocalTime().toString(), "arrivalDate", arrival.toLocalDate().toString(), "arrivalTime",
+                arrival.toLocalTime().toString());
+    }
+
+}
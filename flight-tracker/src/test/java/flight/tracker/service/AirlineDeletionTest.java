@@ -0,0 +1,97 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.dao.AirlineDao;
+import flight.tracker.dao.FlightDao;
+import flight.tracker.dao.PassengerDao;
+
+/**
+ * An airline with more flights than one delete chunk. The JCache regions are
+ * shared by every context in the JVM, so the second level cache is off here
+ * to keep other tests' entities out.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@AutoConfigureTestDatabase
+class AirlineDeletionTest {
+
+    private static final int FLIGHT_COUNT = 501;
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private AirlineDao airlineDao;
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Autowired
+    private PassengerDao passengerDao;
+
+    @Test
+    void deletingAnAirlineDeletesItsFlightsAndTheirOrphanedPassengersInChunks() {
+        Long airlineCode = createAirline("Bulk Air");
+        Long otherAirlineCode = createAirline("Other Air");
+        List<Long> flightNumbers = new ArrayList<>();
+
+        for (int i = 0; i < FLIGHT_COUNT; i++) {
+            flightNumbers.add(createFlight(airlineCode));
+        }
+
+        Long otherFlight = createFlight(otherAirlineCode);
+        FlightPassenger orphaned = flightTrackerService.addPassenger(passenger("Orphan"), flightNumbers.get(0));
+        flightTrackerService.addPassenger(orphaned, flightNumbers.get(FLIGHT_COUNT - 1));
+        FlightPassenger kept = flightTrackerService.addPassenger(passenger("Kept"), flightNumbers.get(1));
+        flightTrackerService.addPassenger(kept, otherFlight);
+
+        // At most a chunk of flights per transaction, the airline goes once they are gone.
+        assertThat(flightTrackerService.deleteEmptyAirline(airlineCode)).isFalse();
+        assertThat(airlineDao.existsById(airlineCode)).isTrue();
+        assertThat(flightDao.countByAirlineCode(airlineCode)).isEqualTo(FLIGHT_COUNT - 500);
+
+        flightTrackerService.deleteAirlineById(airlineCode);
+
+        assertThat(airlineDao.existsById(airlineCode)).isFalse();
+        assertThat(flightDao.findAllById(flightNumbers)).isEmpty();
+        assertThat(passengerDao.existsById(orphaned.getPassengerId())).isFalse();
+        assertThat(flightTrackerService.retrieveFlight(otherFlight).getPassengers())
+                .extracting(FlightPassenger::getPassengerId).containsExactly(kept.getPassengerId());
+        assertThatThrownBy(() -> flightTrackerService.deleteAirlineById(airlineCode))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    private Long createAirline(String name) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName(name);
+        return flightTrackerService.createAirline(airline).getAirlineCode();
+    }
+
+    private Long createFlight(Long airlineCode) {
+        FlightData flightData = new FlightData();
+        flightData.setDepartureDate(LocalDate.of(2023, 8, 1));
+        flightData.setDepartureTime(LocalTime.of(10, 0));
+        return flightTrackerService.createFlight(flightData, airlineCode).getFlightNumber();
+    }
+
+    private static FlightPassenger passenger(String firstName) {
+        return new FlightPassenger(null, firstName, "Deleted", null, null);
+    }
+
+}
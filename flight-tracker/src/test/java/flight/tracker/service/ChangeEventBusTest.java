@@ -0,0 +1,79 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import flight.tracker.controller.model.ChangeEvent;
+import flight.tracker.controller.model.ChangeEvent.EntityType;
+import flight.tracker.controller.model.ChangeEvent.Operation;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+class ChangeEventBusTest {
+
+    private final ChangeEventBus changeEventBus = new ChangeEventBus(5, 3);
+
+    @Test
+    void resumingSubscriberGetsMissedThenLiveEventsWithoutGaps() throws Exception {
+        publishFlightChanges(3);
+
+        CompletableFuture<List<Long>> sequences = changeEventBus.subscribe(1L).map(ChangeEvent::getSequence)
+                .take(4).collectList().toFuture();
+        publishFlightChanges(2);
+
+        assertThat(sequences.get(10, TimeUnit.SECONDS)).containsExactly(2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void resumingBeyondTheHistoryAsksForResync() {
+        publishFlightChanges(8);
+
+        ChangeEvent event = changeEventBus.subscribe(1L).blockFirst(Duration.ofSeconds(10));
+
+        assertThat(event.getOperation()).isEqualTo(Operation.RESYNC);
+        assertThat(event.getSequence()).isEqualTo(8L);
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWithoutHoldingUpOthers() throws Exception {
+        AtomicBoolean slowCompleted = new AtomicBoolean();
+        changeEventBus.subscribe(null).subscribe(new BaseSubscriber<ChangeEvent>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // Requests nothing, like a client that stopped reading.
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                slowCompleted.set(true);
+            }
+        });
+        CompletableFuture<List<ChangeEvent>> fast = changeEventBus.subscribe(null).take(10).collectList()
+                .toFuture();
+
+        // More than the subscriber buffer, even rounded up to a power of two.
+        publishFlightChanges(10);
+
+        assertThat(fast.get(10, TimeUnit.SECONDS)).hasSize(10);
+        assertThat(slowCompleted).isTrue();
+    }
+
+    /**
+     * Publishes flight updates as if their transactions had committed
+     * 
+     * @param count
+     */
+    private void publishFlightChanges(int count) {
+        for (long i = 1; i <= count; i++) {
+            changeEventBus.publish(new EntityChange(EntityType.FLIGHT, i, Operation.UPDATED, i));
+        }
+    }
+
+}
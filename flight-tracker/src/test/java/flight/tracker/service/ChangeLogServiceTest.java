@@ -0,0 +1,131 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import flight.tracker.controller.model.ChangeBatch;
+import flight.tracker.controller.model.ChangeEvent;
+import flight.tracker.controller.model.ChangeEvent.EntityType;
+import flight.tracker.controller.model.ChangeEvent.Operation;
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.dao.ChangeLogDao;
+import flight.tracker.entity.ChangeLogEntry;
+
+/**
+ * The JCache regions are shared by every context in the JVM, so the second
+ * level cache is off here to keep other tests' entities out.
+ */
+@SpringBootTest(properties = { "flight-tracker.change-log.commit-lag=PT0S",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@AutoConfigureTestDatabase
+class ChangeLogServiceTest {
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChangeLogDao changeLogDao;
+
+    @Test
+    void onlyCommittedChangesAreLoggedAndOnlyTheLatestPerEntityIsReturned() {
+        long since = changeLogService.retrieveChanges(null, null).getNextSince();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            flightTrackerService.createAirline(airline("Rolled Back Air"));
+            status.setRollbackOnly();
+        });
+
+        Long airlineCode = flightTrackerService.createAirline(airline("Outbox Air")).getAirlineCode();
+        FlightData flight = flightTrackerService.createFlight(flight(), airlineCode);
+        flight.setDepartureTime(LocalTime.of(11, 0));
+        flightTrackerService.createFlight(flight, airlineCode);
+
+        ChangeBatch batch = changeLogService.retrieveChanges(since, null);
+
+        assertThat(batch.isResync()).isFalse();
+        assertThat(batch.isHasMore()).isFalse();
+        assertThat(batch.getChanges()).extracting(ChangeEvent::getEntityType, ChangeEvent::getEntityId,
+                ChangeEvent::getOperation).containsExactly(
+                        tuple(EntityType.AIRLINE, airlineCode, Operation.CREATED),
+                        tuple(EntityType.FLIGHT, flight.getFlightNumber(), Operation.UPDATED));
+
+        assertThat(changeLogService.compact()).isPositive();
+        assertThat(changeLogService.retrieveChanges(since, null).getChanges()).isEqualTo(batch.getChanges());
+        assertThat(changeLogService.retrieveChanges(since, 1).isHasMore()).isTrue();
+        assertThat(changeLogService.retrieveChanges(batch.getNextSince(), null).getChanges()).isEmpty();
+    }
+
+    @Test
+    void aTransactionsChangesAreWrittenInOrderWhenItCommits() {
+        long since = changeLogService.retrieveChanges(null, null).getNextSince();
+        Instant before = Instant.now();
+
+        FlightData flight = transactionTemplate.execute(status -> {
+            Long airlineCode = flightTrackerService.createAirline(airline("Batched Air")).getAirlineCode();
+            FlightData created = flightTrackerService.createFlight(flight(), airlineCode);
+            assertThat(changeLogDao.findChangesAfter(since, PageRequest.of(0, 10))).isEmpty();
+            return created;
+        });
+
+        List<ChangeLogEntry> entries = changeLogDao.findChangesAfter(since, PageRequest.of(0, 10));
+
+        assertThat(entries).extracting(ChangeLogEntry::getEntityType, ChangeLogEntry::getEntityId)
+                .containsExactly(tuple(EntityType.AIRLINE, flight.getAirlineCode()),
+                        tuple(EntityType.FLIGHT, flight.getFlightNumber()));
+        assertThat(entries).extracting(ChangeLogEntry::getChangedAt)
+                .allSatisfy(changedAt -> assertThat(changedAt).isBetween(before, Instant.now()));
+    }
+
+    @Test
+    void clientsBehindPurgedEntriesAreToldToResync() {
+        long since = changeLogService.retrieveChanges(null, null).getNextSince();
+        flightTrackerService.createAirline(airline("Purged Air"));
+
+        assertThat(changeLogService.purgeBefore(Instant.now().plusSeconds(1))).isNotNegative();
+
+        ChangeBatch batch = changeLogService.retrieveChanges(since, null);
+
+        assertThat(batch.isResync()).isTrue();
+        assertThat(batch.getChanges()).isEmpty();
+        assertThat(batch.getNextSince()).isGreaterThan(since);
+
+        ChangeBatch next = changeLogService.retrieveChanges(batch.getNextSince(), null);
+
+        assertThat(next.isResync()).isFalse();
+        assertThat(next.getChanges()).isEmpty();
+    }
+
+    private FlightAirline airline(String airlineName) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName(airlineName);
+        return airline;
+    }
+
+    private static FlightData flight() {
+        FlightData flightData = new FlightData();
+        flightData.setDepartureDate(LocalDate.of(2023, 8, 1));
+        flightData.setDepartureTime(LocalTime.of(10, 0));
+        return flightData;
+    }
+
+}
@@ -0,0 +1,106 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import flight.tracker.controller.model.AirlineStatistics;
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.controller.model.FlightStatistics;
+import flight.tracker.dao.AirlineCountRow;
+import flight.tracker.dao.FlightAggregateDao;
+
+/**
+ * The counters, kept current by the service's writes, have to agree with the
+ * GROUP BY queries. The JCache regions are shared by every context in the
+ * JVM, so the second level cache is off here to keep other tests' entities
+ * out.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@AutoConfigureTestDatabase
+class FlightStatisticsServiceTest {
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private FlightStatisticsService flightStatisticsService;
+
+    @Autowired
+    private FlightAggregateDao flightAggregateDao;
+
+    @Test
+    void countersFollowTheWritesAndAgreeWithTheDatabase() {
+        flightStatisticsService.reconcile();
+
+        Long airlineCode = createAirline("Statistics Air");
+        Long emptyAirlineCode = createAirline("Empty Air");
+        LocalDateTime soon = LocalDateTime.now().plusHours(2).withNano(0);
+        Long soonFlight = createFlight(airlineCode, soon);
+        Long laterFlight = createFlight(airlineCode, soon.plusDays(3));
+        Long deletedFlight = createFlight(airlineCode, soon);
+
+        FlightPassenger leaving = flightTrackerService.addPassenger(passenger("Ada"), soonFlight);
+        flightTrackerService.addPassenger(passenger("Bob"), soonFlight);
+        flightTrackerService.addPassengerManifest(List.of(passenger("Cy"), passenger("Dee"), leaving), laterFlight);
+        flightTrackerService.addPassenger(passenger("Eve"), deletedFlight);
+        flightTrackerService.deleteFlightById(deletedFlight);
+        flightTrackerService.deletePassengerById(leaving.getPassengerId());
+
+        AirlineStatistics statistics = statisticsOf(airlineCode);
+        assertThat(statistics.getFlights()).isEqualTo(2);
+        assertThat(statistics.getPassengers()).isEqualTo(3);
+        assertThat(statistics.getUpcomingDepartures()).isEqualTo(1);
+        assertThat(statistics.getLoadFactor()).isEqualTo(3.0 / statistics.getTotalSeats());
+        assertThat(statisticsOf(emptyAirlineCode).getFlights()).isZero();
+
+        assertThat(flightStatisticsService.retrieveFlightStatistics(airlineCode))
+                .extracting(FlightStatistics::getFlightNumber, FlightStatistics::getPassengers)
+                .containsExactly(tuple(soonFlight, 1L), tuple(laterFlight, 2L));
+
+        AirlineCountRow counted = flightAggregateDao
+                .countByAirline(LocalDateTime.now(), LocalDateTime.now().plusHours(24)).stream()
+                .filter(row -> row.getAirlineCode().equals(airlineCode)).findFirst().orElseThrow();
+        assertThat(counted).isEqualTo(new AirlineCountRow(airlineCode, 2, 3, 1));
+        assertThat(flightStatisticsService.reconcile()).isZero();
+
+        flightTrackerService.deleteAirlineById(airlineCode);
+        assertThat(flightStatisticsService.retrieveAirlineStatistics(null))
+                .extracting(AirlineStatistics::getAirlineCode).doesNotContain(airlineCode);
+    }
+
+    private AirlineStatistics statisticsOf(Long airlineCode) {
+        return flightStatisticsService.retrieveAirlineStatistics(24).stream()
+                .filter(statistics -> statistics.getAirlineCode().equals(airlineCode)).findFirst().orElseThrow();
+    }
+
+    private Long createAirline(String name) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName(name);
+        return flightTrackerService.createAirline(airline).getAirlineCode();
+    }
+
+    private Long createFlight(Long airlineCode, LocalDateTime departure) {
+        FlightData flightData = new FlightData();
+        flightData.setDepartureDate(LocalDate.from(departure));
+        flightData.setDepartureTime(LocalTime.from(departure));
+        return flightTrackerService.createFlight(flightData, airlineCode).getFlightNumber();
+    }
+
+    private static FlightPassenger passenger(String firstName) {
+        return new FlightPassenger(null, firstName, "Counter", null, null);
+    }
+
+}
@@ -0,0 +1,129 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class FlightTrackerServiceConcurrencyTest {
+
+    private static final int PASSENGERS = 2000;
+    private static final int THREADS = 16;
+    private static final int SEATS = 240;
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Test
+    void parallelBoardingOfOneFlightLosesNoPassengersAndDoubleBooksNoSeats() throws Exception {
+        Long flightNumber = createFlight("Concurrent Air");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> boardings = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < PASSENGERS; i++) {
+                FlightPassenger passenger = new FlightPassenger();
+                passenger.setPassengerFirstName("First " + i);
+                passenger.setPassengerLastName("Last " + i);
+
+                boardings.add(executor.submit(() -> {
+                    start.await();
+                    return flightTrackerService.addPassenger(passenger, flightNumber).getPassengerId();
+                }));
+            }
+
+            start.countDown();
+
+            List<Long> passengerIds = new ArrayList<>();
+            for (Future<Long> boarding : boardings) {
+                passengerIds.add(boarding.get());
+            }
+
+            Set<FlightPassenger> passengers = flightTrackerService.retrieveFlight(flightNumber).getPassengers();
+
+            assertThat(passengerIds).doesNotHaveDuplicates();
+            assertThat(passengers).extracting(FlightPassenger::getPassengerId)
+                    .containsExactlyInAnyOrderElementsOf(passengerIds);
+            // Passengers beyond the seat layout board without a seat.
+            assertThat(passengers).extracting(FlightPassenger::getPassengerSeatNumber).filteredOn(Objects::nonNull)
+                    .hasSize(SEATS).doesNotHaveDuplicates();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void seatsOutsideTheSeatLayoutAreKeptAsGiven() {
+        Long flightNumber = createFlight("Free Seating Air");
+
+        assertThat(board(flightNumber, "Window").getPassengerSeatNumber()).isEqualTo("Window");
+        assertThat(board(flightNumber, "Window").getPassengerSeatNumber()).isEqualTo("Window");
+        assertThat(board(flightNumber, "99A").getPassengerSeatNumber()).isEqualTo("99A");
+        assertThat(board(flightNumber, "1A").getPassengerSeatNumber()).isEqualTo("1A");
+        assertThatThrownBy(() -> board(flightNumber, "1A")).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flightTrackerService.retrieveSeatAvailability(flightNumber).getAvailableSeatCount())
+                .isEqualTo(SEATS - 1);
+    }
+
+    @Test
+    void seatNumbersOfTheLayoutAreStoredAsTheSeatMapWritesThem() {
+        Long flightNumber = createFlight("Zero Padded Air");
+
+        assertThat(board(flightNumber, "01A").getPassengerSeatNumber()).isEqualTo("1A");
+        assertThat(board(flightNumber, "2b").getPassengerSeatNumber()).isEqualTo("2B");
+        assertThatThrownBy(() -> board(flightNumber, "1A")).isInstanceOf(IllegalStateException.class);
+
+        // The rebuilt map and the unique key see the same seats.
+        seatInventory.evict(List.of(flightNumber));
+
+        assertThatThrownBy(() -> board(flightNumber, "1a")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> board(flightNumber, "02B")).isInstanceOf(IllegalStateException.class);
+        assertThat(flightTrackerService.retrieveSeatAvailability(flightNumber).getAvailableSeatCount())
+                .isEqualTo(SEATS - 2);
+    }
+
+    private FlightPassenger board(Long flightNumber, String seatNumber) {
+        FlightPassenger passenger = new FlightPassenger();
+        passenger.setPassengerFirstName("First");
+        passenger.setPassengerLastName("Last");
+        passenger.setPassengerSeatNumber(seatNumber);
+        return flightTrackerService.addPassenger(passenger, flightNumber);
+    }
+
+    private Long createFlight(String airlineName) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName(airlineName);
+        Long airlineCode = flightTrackerService.createAirline(airline).getAirlineCode();
+
+        FlightData flightData = new FlightData();
+        flightData.setDepartureDate(LocalDate.of(2023, 8, 1));
+        flightData.setDepartureTime(LocalTime.of(10, 0));
+        return flightTrackerService.createFlight(flightData, airlineCode).getFlightNumber();
+    }
+}
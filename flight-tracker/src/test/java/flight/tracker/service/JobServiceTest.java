@@ -0,0 +1,277 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import flight.tracker.controller.model.ChangeEvent.EntityType;
+import flight.tracker.controller.model.ChangeEvent.Operation;
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.JobInfo;
+import flight.tracker.controller.model.JobInfo.JobStatus;
+import flight.tracker.controller.model.JobInfo.JobType;
+import flight.tracker.controller.model.JobRequest;
+import flight.tracker.dao.AirlineDao;
+import flight.tracker.dao.ChangeLogDao;
+import flight.tracker.dao.FlightDao;
+import flight.tracker.dao.JobDao;
+import flight.tracker.entity.ChangeLogEntry;
+import flight.tracker.entity.Job;
+
+/**
+ * Airline purges run as jobs. The scheduled dispatch only runs at startup,
+ * so jobs written straight to the job table stay put until a test dispatches
+ * them. The JCache regions are shared by every context in the JVM, so the
+ * second level cache is off.
+ */
+@SpringBootTest(properties = { "flight-tracker.jobs.poll-interval=PT1H",
+        "flight-tracker.jobs.heartbeat-timeout=PT1M",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@AutoConfigureTestDatabase
+class JobServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+    private static final int PURGE_CHUNK_SIZE = 500;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private AirlineDao airlineDao;
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Autowired
+    private JobDao jobDao;
+
+    @Autowired
+    private ChangeLogDao changeLogDao;
+
+    @Autowired
+    private CancelAfterFirstChunk cancelAfterFirstChunk;
+
+    @Test
+    void airlinePurgeRunsInTheBackgroundUntilTheAirlineIsGone() throws InterruptedException {
+        Long airlineCode = createAirline("Purged Air");
+        Long flightNumber = createFlight(airlineCode);
+        createFlight(airlineCode);
+        createFlight(airlineCode);
+
+        JobInfo submitted = jobService.submitJob(purge(airlineCode));
+        assertThat(submitted.getJobId()).isNotNull();
+
+        JobInfo finished = awaitFinished(submitted.getJobId());
+        assertThat(finished.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(finished.getProcessed()).isEqualTo(3);
+        assertThat(finished.getTotal()).isEqualTo(3);
+        assertThat(finished.getProgress()).isEqualTo(1.0);
+        assertThat(airlineDao.existsById(airlineCode)).isFalse();
+        assertThatThrownBy(() -> flightTrackerService.retrieveFlight(flightNumber))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> jobService.cancelJob(submitted.getJobId()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void aJobOfAStoppedInstanceResumesOnceItsHeartbeatTimesOut() throws InterruptedException {
+        Long airlineCode = createAirline("Resumed Air");
+        createFlight(airlineCode);
+
+        Job orphaned = new Job(JobType.AIRLINE_PURGE, "{\"airlineCode\":\"" + airlineCode + "\"}",
+                Instant.now().minusSeconds(600));
+        orphaned.setStatus(JobStatus.RUNNING);
+        orphaned.setOwner("stopped-instance");
+        orphaned.setHeartbeatAt(Instant.now().minusSeconds(300));
+        Long jobId = jobDao.save(orphaned).getJobId();
+
+        jobService.dispatch();
+
+        assertThat(awaitFinished(jobId).getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(airlineDao.existsById(airlineCode)).isFalse();
+    }
+
+    @Test
+    void cancellingAQueuedJobCancelsItBeforeItStarts() {
+        Long airlineCode = createAirline("Kept Air");
+        Long jobId = jobDao.save(new Job(JobType.AIRLINE_PURGE, "{\"airlineCode\":\"" + airlineCode + "\"}",
+                Instant.now())).getJobId();
+
+        JobInfo cancelled = jobService.cancelJob(jobId);
+        jobService.dispatch();
+
+        assertThat(cancelled.getStatus()).isEqualTo(JobStatus.CANCELLED);
+        assertThat(jobService.retrieveJob(jobId).getStatus()).isEqualTo(JobStatus.CANCELLED);
+        assertThat(airlineDao.existsById(airlineCode)).isTrue();
+    }
+
+    @Test
+    void aPurgeCancelledAfterItsFirstChunkLogsEveryFlightItDeleted() throws InterruptedException {
+        Long airlineCode = createAirline("Half Purged Air");
+        flightTrackerService.importFlights(IntStream.range(0, PURGE_CHUNK_SIZE + 100).mapToObj(i -> {
+            FlightData flight = new FlightData();
+            flight.setAirlineCode(airlineCode);
+            flight.setDepartureDate(LocalDate.of(2023, 8, 1));
+            flight.setDepartureTime(LocalTime.of(10, 0).plusMinutes(i));
+            return flight;
+        }).toList(), false);
+        List<Long> flightNumbers = flightDao.findFlightNumbersByAirlineCode(airlineCode, Pageable.unpaged());
+
+        Long jobId = jobDao.save(new Job(JobType.AIRLINE_PURGE, "{\"airlineCode\":\"" + airlineCode + "\"}",
+                Instant.now())).getJobId();
+        cancelAfterFirstChunk.jobId.set(jobId);
+        jobService.dispatch();
+
+        JobInfo cancelled = awaitFinished(jobId);
+        List<Long> remaining = flightDao.findFlightNumbersByAirlineCode(airlineCode, Pageable.unpaged());
+        List<Long> deleted = flightNumbers.stream().filter(flightNumber -> !remaining.contains(flightNumber))
+                .toList();
+
+        assertThat(cancelled.getStatus()).isEqualTo(JobStatus.CANCELLED);
+        assertThat(cancelled.getProcessed()).isEqualTo(PURGE_CHUNK_SIZE);
+        assertThat(deleted).hasSize(PURGE_CHUNK_SIZE);
+        assertThat(airlineDao.existsById(airlineCode)).isTrue();
+        assertThat(changeLogDao.findAll()).filteredOn(entry -> entry.getEntityType() == EntityType.FLIGHT
+                && entry.getOperation() == Operation.DELETED && flightNumbers.contains(entry.getEntityId()))
+                .extracting(ChangeLogEntry::getEntityId).containsExactlyInAnyOrderElementsOf(deleted);
+    }
+
+    @Test
+    void jobsTheExecutorRejectsAreQueuedAgainWithoutHoldingARunner() throws InterruptedException {
+        Long firstAirline = createAirline("Rejected Air");
+        Long secondAirline = createAirline("Rejected Again Air");
+        Long firstJob = jobDao.save(new Job(JobType.AIRLINE_PURGE, "{\"airlineCode\":\"" + firstAirline + "\"}",
+                Instant.now())).getJobId();
+        Long secondJob = jobDao.save(new Job(JobType.AIRLINE_PURGE, "{\"airlineCode\":\"" + secondAirline + "\"}",
+                Instant.now())).getJobId();
+
+        JobService target = AopTestUtils.getUltimateTargetObject(jobService);
+        Object executor = ReflectionTestUtils.getField(target, "executor");
+        ThreadPoolExecutor rejecting = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        rejecting.shutdown();
+
+        try {
+            ReflectionTestUtils.setField(target, "executor", rejecting);
+            jobService.dispatch();
+        } finally {
+            ReflectionTestUtils.setField(target, "executor", executor);
+        }
+
+        assertThat(jobDao.findById(firstJob)).get().extracting(Job::getStatus, Job::getOwner)
+                .containsExactly(JobStatus.QUEUED, null);
+        assertThat(jobDao.findById(secondJob)).get().extracting(Job::getStatus, Job::getOwner)
+                .containsExactly(JobStatus.QUEUED, null);
+
+        // Both runners are still free.
+        jobService.dispatch();
+
+        assertThat(awaitFinished(firstJob).getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(awaitFinished(secondJob).getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+    }
+
+    @Test
+    void submittingValidatesTheParameters() {
+        JobRequest missing = new JobRequest();
+        missing.setJobType(JobType.AIRLINE_PURGE);
+
+        assertThatThrownBy(() -> jobService.submitJob(missing)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> jobService.submitJob(purge(Long.MAX_VALUE)))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> jobService.retrieveJob(Long.MAX_VALUE)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    private JobInfo awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        JobInfo job = jobService.retrieveJob(jobId);
+
+        while ((job.getStatus() == JobStatus.QUEUED || job.getStatus() == JobStatus.RUNNING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = jobService.retrieveJob(jobId);
+        }
+
+        return job;
+    }
+
+    private static JobRequest purge(Long airlineCode) {
+        JobRequest request = new JobRequest();
+        request.setJobType(JobType.AIRLINE_PURGE);
+        request.setParameters(Map.of("airlineCode", airlineCode.toString()));
+        return request;
+    }
+
+    private Long createAirline(String name) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName(name);
+        return flightTrackerService.createAirline(airline).getAirlineCode();
+    }
+
+    private Long createFlight(Long airlineCode) {
+        FlightData flight = new FlightData();
+        flight.setDepartureDate(LocalDate.of(2023, 8, 1));
+        flight.setDepartureTime(LocalTime.of(10, 0));
+        return flightTrackerService.createFlight(flight, airlineCode).getFlightNumber();
+    }
+
+    /**
+     * Cancels the job it is given once the first flight delete commits, before
+     * the runner starts its next chunk
+     */
+    static class CancelAfterFirstChunk {
+
+        private final AtomicLong jobId = new AtomicLong();
+
+        @Autowired
+        private JobService jobService;
+
+        @TransactionalEventListener
+        public void onEntityChange(EntityChange change) {
+            if (change.getEntityType() == EntityType.FLIGHT && change.getOperation() == Operation.DELETED) {
+                long cancelled = jobId.getAndSet(0);
+
+                if (cancelled != 0) {
+                    jobService.cancelJob(cancelled);
+                }
+            }
+        }
+
+    }
+
+    @TestConfiguration
+    static class CancelAfterFirstChunkConfig {
+
+        @Bean
+        CancelAfterFirstChunk cancelAfterFirstChunk() {
+            return new CancelAfterFirstChunk();
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+import flight.tracker.controller.model.PassengerPage;
+import flight.tracker.dao.PassengerDao;
+import flight.tracker.dao.PassengerRow;
+
+/**
+ * Searches through the in-memory index, and the database queries it stands
+ * in for. The JCache regions are shared by every context in the JVM, so the
+ * second level cache is off here to keep other tests' entities out.
+ */
+@SpringBootTest(properties = { "flight-tracker.passenger-search.in-memory-index=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@AutoConfigureTestDatabase
+class PassengerSearchServiceTest {
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private PassengerSearchService passengerSearchService;
+
+    @Autowired
+    private PassengerSearchIndex passengerSearchIndex;
+
+    @Autowired
+    private PassengerDao passengerDao;
+
+    @Test
+    void theIndexFindsPassengersByNamePrefixEmailAndSeatAndFollowsChanges() throws InterruptedException {
+        for (int wait = 0; wait < 100 && !passengerSearchIndex.isReady(); wait++) {
+            Thread.sleep(100);
+        }
+        assertThat(passengerSearchIndex.isReady()).isTrue();
+
+        Long flightNumber = createFlight();
+        FlightPassenger mueller = flightTrackerService.addPassenger(
+                passenger("Anna", "Qxmüller", "anna@example.com", "12A"), flightNumber);
+        FlightPassenger mulligan = flightTrackerService.addPassenger(
+                passenger("Ben", "QXMulligan", "ben@example.com", null), flightNumber);
+        flightTrackerService.addPassenger(passenger("Cleo", "Qxmeyer", "cleo@example.com", null), flightNumber);
+
+        PassengerPage first = passengerSearchService.searchPassengers("qxmül", null, null, null, null, 1);
+        PassengerPage second = passengerSearchService.searchPassengers("qxmül", null, null, null,
+                first.getNextPageToken(), 1);
+
+        assertThat(first.getPassengers()).extracting(FlightPassenger::getPassengerId)
+                .containsExactly(mueller.getPassengerId());
+        assertThat(second.getPassengers()).extracting(FlightPassenger::getPassengerId)
+                .containsExactly(mulligan.getPassengerId());
+        assertThat(second.getNextPageToken()).isNull();
+
+        assertThat(passengerSearchService.searchPassengers(null, "BEN@example.com", null, null, null, null)
+                .getPassengers()).extracting(FlightPassenger::getPassengerId)
+                .containsExactly(mulligan.getPassengerId());
+        assertThat(passengerSearchService.searchPassengers(null, null, flightNumber, "12A", null, null)
+                .getPassengers()).extracting(FlightPassenger::getPassengerId)
+                .containsExactly(mueller.getPassengerId());
+
+        mulligan.setPassengerLastName("Qxnorth");
+        flightTrackerService.addPassenger(mulligan, flightNumber);
+        flightTrackerService.deletePassengerById(mueller.getPassengerId());
+
+        assertThat(passengerSearchService.searchPassengers("qxm", null, null, null, null, null).getPassengers())
+                .extracting(FlightPassenger::getPassengerLastName).containsExactly("Qxmeyer");
+        assertThat(passengerSearchService.searchPassengers("QXN", null, null, null, null, null).getPassengers())
+                .extracting(FlightPassenger::getPassengerId).containsExactly(mulligan.getPassengerId());
+    }
+
+    @Test
+    void theDatabaseQueriesPageByLastNameAndPassengerId() {
+        Long flightNumber = createFlight();
+        FlightPassenger first = flightTrackerService.addPassenger(
+                passenger("Dora", "Zy_prefix", "dora@example.com", null), flightNumber);
+        FlightPassenger second = flightTrackerService.addPassenger(
+                passenger("Emil", "Zy_prefix", "emil@example.com", null), flightNumber);
+        flightTrackerService.addPassenger(passenger("Finn", "Zyxprefix", "finn@example.com", null), flightNumber);
+
+        List<PassengerRow> page = passengerDao.findByLastNamePrefix("Zy!_%", "", 0L, PageRequest.ofSize(1));
+        List<PassengerRow> next = passengerDao.findByLastNamePrefix("Zy!_%", page.get(0).getPassengerLastName(),
+                page.get(0).getPassengerId(), PageRequest.ofSize(5));
+
+        assertThat(page).extracting(PassengerRow::getPassengerId).containsExactly(first.getPassengerId());
+        assertThat(next).extracting(PassengerRow::getPassengerId).containsExactly(second.getPassengerId());
+        assertThat(passengerDao.findByEmail("emil@example.com", 0L, PageRequest.ofSize(5)))
+                .extracting(PassengerRow::getPassengerId).containsExactly(second.getPassengerId());
+    }
+
+    @Test
+    void aSearchNeedsExactlyOneCriterion() {
+        assertThatThrownBy(() -> passengerSearchService.searchPassengers(null, null, null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> passengerSearchService.searchPassengers("Smith", "smith@example.com", null, null,
+                null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> passengerSearchService.searchPassengers(null, null, 1L, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Long createFlight() {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName("Search Air");
+        Long airlineCode = flightTrackerService.createAirline(airline).getAirlineCode();
+
+        FlightData flightData = new FlightData();
+        flightData.setDepartureDate(LocalDate.of(2023, 8, 1));
+        flightData.setDepartureTime(LocalTime.of(10, 0));
+        return flightTrackerService.createFlight(flightData, airlineCode).getFlightNumber();
+    }
+
+    private static FlightPassenger passenger(String firstName, String lastName, String email, String seatNumber) {
+        return new FlightPassenger(null, firstName, lastName, email, seatNumber);
+    }
+
+}
@@ -0,0 +1,68 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.FlightData.FlightPassenger;
+
+/**
+ * JDBC and R2DBC share one in-memory H2 database, so the reactive reads see
+ * the rows written through JPA.
+ */
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1" })
+class ReactiveFlightTrackerServiceTest {
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private ReactiveFlightTrackerService reactiveFlightTrackerService;
+
+    @Test
+    void reactiveReadsMatchBlockingReads() {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName("Reactive Air");
+        Long airlineCode = flightTrackerService.createAirline(airline).getAirlineCode();
+
+        for (int i = 0; i < 3; i++) {
+            FlightData flightData = new FlightData();
+            flightData.setDepartureDate(LocalDate.of(2023, 8, 1 + i));
+            flightData.setDepartureTime(LocalTime.of(10, 0));
+            Long flightNumber = flightTrackerService.createFlight(flightData, airlineCode).getFlightNumber();
+
+            for (int j = 0; j < 2; j++) {
+                FlightPassenger passenger = new FlightPassenger();
+                passenger.setPassengerFirstName("First " + j);
+                passenger.setPassengerLastName("Last " + i);
+                flightTrackerService.addPassenger(passenger, flightNumber);
+            }
+        }
+
+        List<FlightData> expected = flightTrackerService.retrieveAllFlights().stream()
+                .filter(flight -> flight.getAirlineCode().equals(airlineCode))
+                .sorted(Comparator.comparing(FlightData::getFlightNumber)).toList();
+
+        assertThat(reactiveFlightTrackerService.retrieveFlights(airlineCode).collectList().block())
+                .isEqualTo(expected);
+        assertThat(reactiveFlightTrackerService.retrieveFlight(expected.get(0).getFlightNumber()).block())
+                .isEqualTo(expected.get(0));
+        assertThat(reactiveFlightTrackerService.retrieveAirline(airlineCode).block().getAirlineName())
+                .isEqualTo("Reactive Air");
+        assertThatThrownBy(() -> reactiveFlightTrackerService.retrieveFlight(-1L).block())
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+}
@@ -0,0 +1,232 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import flight.tracker.controller.model.FlightData;
+import flight.tracker.controller.model.FlightData.FlightAirline;
+import flight.tracker.controller.model.JobInfo;
+import flight.tracker.controller.model.JobInfo.JobItemError;
+import flight.tracker.controller.model.JobInfo.JobStatus;
+import flight.tracker.controller.model.JobInfo.JobType;
+import flight.tracker.controller.model.JobRequest;
+import flight.tracker.dao.FlightDao;
+import flight.tracker.dao.ScheduleUploadDao;
+import flight.tracker.service.ScheduleImportStep.ImportMode;
+
+/**
+ * Schedules of several chunks, each parsed in several segments. The JCache
+ * regions are shared by every context in the JVM, so the second level cache
+ * is off.
+ */
+@SpringBootTest(properties = { "flight-tracker.schedule-import.directory=" + ScheduleImportTest.DIRECTORY,
+        "flight-tracker.schedule-import.chunk-size=64KB",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@AutoConfigureTestDatabase
+class ScheduleImportTest {
+
+    static final String DIRECTORY = "target/schedule-import-test";
+    private static final int FLIGHT_COUNT = 3000;
+    private static final long TIMEOUT_MILLIS = 30_000;
+    private static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.of(2024, 4, 1, 6, 0);
+
+    @Autowired
+    private ScheduleImportService scheduleImportService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private FlightTrackerService flightTrackerService;
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Autowired
+    private ScheduleImportStep scheduleImportStep;
+
+    @Autowired
+    private ScheduleUploadDao scheduleUploadDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void importsAScheduleInChunksAndReportsTheInvalidLines() throws InterruptedException {
+        Long airlineCode = createAirline("Schedule Air");
+        StringBuilder csv = new StringBuilder("departureDate,departureTime,airlineCode,arrivalDate,arrivalTime\n");
+
+        for (int i = 0; i < FLIGHT_COUNT; i++) {
+            csv.append(line(airlineCode, FIRST_DEPARTURE.plusMinutes(i), 90));
+
+            // Lines 502, 1504 and 2905 are invalid, line 1004 is blank.
+            switch (i) {
+            case 499 -> csv.append("2024-13-01,06:00,").append(airlineCode).append(",,\n");
+            case 1000 -> csv.append("\n");
+            case 1499 -> csv.append(line(Long.MAX_VALUE, FIRST_DEPARTURE, 90));
+            case 2899 -> csv.append(line(airlineCode, FIRST_DEPARTURE, -30));
+            default -> {
+            }
+            }
+        }
+
+        JobInfo job = awaitFinished(importSchedule(csv.toString(), ImportMode.INSERT));
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(job.getTotal()).isEqualTo(FLIGHT_COUNT + 4);
+        assertThat(job.getProcessed()).isEqualTo(FLIGHT_COUNT + 4);
+        assertThat(job.getRejected()).isEqualTo(3);
+        assertThat(jobService.retrieveJobErrors(job.getJobId(), null, null))
+                .extracting(JobItemError::getItem, JobItemError::getMessage)
+                .containsExactly(tuple(502L, "Invalid departureDate: 2024-13-01"),
+                        tuple(1504L, "AirlineCode not found: " + Long.MAX_VALUE),
+                        tuple(2905L, "arrival must not be before departure"));
+        assertThat(flightDao.countByAirlineCode(airlineCode)).isEqualTo(FLIGHT_COUNT);
+    }
+
+    @Test
+    void reimportingInUpsertModeUpdatesTheImportedFlightsInPlace() throws InterruptedException {
+        Long airlineCode = createAirline("Upsert Air");
+        String header = "departureDate,departureTime,airlineCode,arrivalDate,arrivalTime\n";
+        String schedule = header + line(airlineCode, FIRST_DEPARTURE, 60)
+                + line(airlineCode, FIRST_DEPARTURE.plusHours(2), 60);
+
+        assertThat(awaitFinished(importSchedule(schedule, ImportMode.UPSERT)).getStatus())
+                .isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(awaitFinished(importSchedule(schedule, ImportMode.UPSERT)).getStatus())
+                .isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(flightDao.countByAirlineCode(airlineCode)).isEqualTo(2);
+
+        String delayed = header + line(airlineCode, FIRST_DEPARTURE.plusHours(2), 75)
+                + line(airlineCode, FIRST_DEPARTURE.plusHours(4), 60);
+        assertThat(awaitFinished(importSchedule(delayed, ImportMode.UPSERT)).getRejected()).isZero();
+
+        List<FlightData> flights = flightTrackerService.retrieveAllFlights().stream()
+                .filter(flight -> airlineCode.equals(flight.getAirlineCode())).toList();
+        assertThat(flights).hasSize(3);
+        assertThat(flights)
+                .filteredOn(flight -> flight.getDepartureTime().equals(FIRST_DEPARTURE.plusHours(2).toLocalTime()))
+                .singleElement().extracting(FlightData::getArrivalTime)
+                .isEqualTo(FIRST_DEPARTURE.plusHours(2).plusMinutes(75).toLocalTime());
+    }
+
+    @Test
+    void insertModeRejectsFlightNumbers() throws InterruptedException {
+        Long airlineCode = createAirline("Insert Air");
+        String schedule = "flightNumber,airlineCode,departureDate,departureTime\n1," + airlineCode
+                + ",2024-04-01,06:00\n";
+
+        JobInfo job = awaitFinished(importSchedule(schedule, ImportMode.INSERT));
+
+        assertThat(job.getRejected()).isEqualTo(1);
+        assertThat(jobService.retrieveJobErrors(job.getJobId(), null, null)).singleElement()
+                .extracting(JobItemError::getItem).isEqualTo(2L);
+    }
+
+    @Test
+    void anInstanceWithoutACopyOfTheUploadDownloadsIt() throws InterruptedException, IOException {
+        Long airlineCode = createAirline("Shared Air");
+        String file = scheduleImportStep.store(new ByteArrayInputStream(
+                ("departureDate,departureTime,airlineCode,arrivalDate,arrivalTime\n"
+                        + line(airlineCode, FIRST_DEPARTURE, 60)).getBytes(StandardCharsets.UTF_8)));
+
+        // Received by another instance: only the database has the upload.
+        Files.delete(Path.of(DIRECTORY, file));
+
+        JobRequest jobRequest = new JobRequest();
+        jobRequest.setJobType(JobType.SCHEDULE_IMPORT);
+        jobRequest.setParameters(Map.of(ScheduleImportStep.FILE, file));
+        JobInfo job = awaitFinished(jobService.submitJob(jobRequest).getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(flightDao.countByAirlineCode(airlineCode)).isEqualTo(1);
+        assertThat(scheduleUploadDao.countParts(file)).isZero();
+        assertThat(Path.of(DIRECTORY, file)).doesNotExist();
+    }
+
+    @Test
+    void aByteOrderMarkBeforeTheHeaderIsSkipped() throws InterruptedException {
+        Long airlineCode = createAirline("Marked Air");
+        String schedule = "\uFEFFdepartureDate,departureTime,airlineCode,arrivalDate,arrivalTime\n"
+                + line(airlineCode, FIRST_DEPARTURE, 60);
+
+        JobInfo job = awaitFinished(importSchedule(schedule, ImportMode.INSERT));
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(job.getRejected()).isZero();
+        assertThat(flightDao.countByAirlineCode(airlineCode)).isEqualTo(1);
+    }
+
+    @Test
+    void duplicateHeaderColumnsAreRejected() {
+        String schedule = "departureDate,departureTime,airlineCode,departureTime\n2024-04-01,06:00,1,07:00\n";
+
+        assertThatThrownBy(() -> importSchedule(schedule, ImportMode.INSERT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Duplicate schedule column: departureTime");
+    }
+
+    @Test
+    void theSweepKeepsCopiesOfUploadsBeingStored() {
+        String[] file = new String[1];
+
+        // Another thread sweeps while the upload's parts are not committed yet.
+        transactionTemplate.executeWithoutResult(status -> {
+            file[0] = scheduleImportStep.store(new ByteArrayInputStream(
+                    "departureDate,departureTime,airlineCode\n".getBytes(StandardCharsets.UTF_8)));
+            CompletableFuture.runAsync(scheduleImportStep::sweepCopies).join();
+        });
+
+        assertThat(Path.of(DIRECTORY, file[0])).exists();
+        scheduleImportStep.delete(file[0]);
+    }
+
+    private Long importSchedule(String csv, ImportMode mode) {
+        return scheduleImportService
+                .importSchedule(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), mode).getJobId();
+    }
+
+    private JobInfo awaitFinished(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        JobInfo job = jobService.retrieveJob(jobId);
+
+        while ((job.getStatus() == JobStatus.QUEUED || job.getStatus() == JobStatus.RUNNING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = jobService.retrieveJob(jobId);
+        }
+
+        return job;
+    }
+
+    private static String line(Long airlineCode, LocalDateTime departure, int minutes) {
+        LocalDateTime arrival = departure.plusMinutes(minutes);
+        return departure.toLocalDate() + "," + departure.toLocalTime() + "," + airlineCode + ","
+                + arrival.toLocalDate() + "," + arrival.toLocalTime() + "\n";
+    }
+
+    private Long createAirline(String name) {
+        FlightAirline airline = new FlightAirline();
+        airline.setAirlineName(name);
+        return flightTrackerService.createAirline(airline).getAirlineCode();
+    }
+
+}
@@ -0,0 +1,75 @@
+package flight.tracker.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class SeatMapTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void seatNumbersMapToIndexesAndBack() {
+        SeatMap seatMap = new SeatMap(40, 6);
+
+        assertThat(seatMap.indexOf("1A")).isZero();
+        assertThat(seatMap.indexOf("12C")).isEqualTo(68);
+        assertThat(seatMap.seatNumberOf(68)).isEqualTo("12C");
+        assertThat(seatMap.indexOf("41A")).isNegative();
+        assertThat(seatMap.indexOf("1G")).isNegative();
+        assertThat(seatMap.indexOf("012c")).isEqualTo(68);
+        assertThat(seatMap.indexOf("1a")).isZero();
+    }
+
+    @Test
+    void contendedClaimsHandOutEverySeatExactlyOnce() throws Exception {
+        SeatMap seatMap = new SeatMap(100, 6);
+        ConcurrentLinkedQueue<Integer> claimed = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> claimers = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                claimers.add(executor.submit(() -> {
+                    start.await();
+
+                    for (int index = seatMap.claimAny(); index >= 0; index = seatMap.claimAny()) {
+                        claimed.add(index);
+
+                        // Contend on single seats as well as on the free seat scan.
+                        if (seatMap.claim(index)) {
+                            throw new AssertionError("Seat " + index + " claimed twice");
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> claimer : claimers) {
+                claimer.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(claimed).hasSize(seatMap.size()).doesNotHaveDuplicates();
+        assertThat(seatMap.availableSeats()).isEmpty();
+
+        seatMap.release(seatMap.indexOf("7B"));
+        assertThat(seatMap.availableSeats()).containsExactly("7B");
+    }
+
+}